@@ -0,0 +1,98 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches of INCREMENT commands through {@link CommandService#processBatchOfCommand}. The score is per batch; divide by
+ * {@code batchSize} for commands per second. A skewed batch holds many commands of few users, which folds them into fewer profile
+ * updates but puts them into fewer partitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandBatchBenchmark {
+    private static final int USERS = 10_000;
+    private static final int PREPARED_BATCHES = 64;
+    private static final UserProfilePropertyName COUNTER = UserProfilePropertyName.valueOf("counter");
+
+    @Param({"1", "16", "256", "4096"})
+    public int batchSize;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public UserKeyDistribution distribution;
+
+    @Param({"4"})
+    public int parallelism;
+
+    private BoundedExecutor commandExecutor;
+    private CommandService commandService;
+    private List<List<Command>> batches;
+    private int nextBatch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var userProfileDao = new UserProfileDaoInMemory();
+        var userIds = new ArrayList<UserId>(USERS);
+        for (int user = 0; user < USERS; user++) {
+            var userId = UserId.valueOf("user-" + user);
+            userIds.add(userId);
+            userProfileDao.put(new UserProfile(userId, Instant.EPOCH, Map.of(COUNTER, UserProfilePropertyValue.valueOf(0))));
+        }
+        commandExecutor = new BoundedExecutor(parallelism);
+        commandService = new CommandService(userProfileDao, commandExecutor);
+        var users = distribution.sampler(USERS, new Random(42));
+        var increment = Map.of(COUNTER, UserProfilePropertyValue.valueOf(1));
+        batches = new ArrayList<>(PREPARED_BATCHES);
+        for (int batch = 0; batch < PREPARED_BATCHES; batch++) {
+            var commands = new ArrayList<Command>(batchSize);
+            for (int command = 0; command < batchSize; command++) {
+                commands.add(new Command(userIds.get(users.getAsInt()), CommandTypeEnum.INCREMENT, increment));
+            }
+            batches.add(commands);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        commandExecutor.stop();
+    }
+
+    @Benchmark
+    public List<CommandResult> processBatch() {
+        var batch = batches.get(nextBatch);
+        nextBatch = (nextBatch + 1) % PREPARED_BATCHES;
+        return commandService.processBatchOfCommand(batch);
+    }
+}
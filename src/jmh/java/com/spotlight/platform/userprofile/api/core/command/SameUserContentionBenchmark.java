@@ -0,0 +1,94 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single INCREMENT commands from several threads, either all for the same user, where they serialize on the lock of that user, or each
+ * thread for its own user as the uncontended baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SameUserContentionBenchmark {
+    private static final int MAX_THREADS = 256;
+    private static final UserProfilePropertyName COUNTER = UserProfilePropertyName.valueOf("counter");
+    private static final Command SAME_USER_INCREMENT = increment(0);
+
+    private final AtomicInteger nextThread = new AtomicInteger();
+    private BoundedExecutor commandExecutor;
+    private CommandService commandService;
+
+    @Setup
+    public void setUp() {
+        var userProfileDao = new UserProfileDaoInMemory();
+        for (int user = 0; user < MAX_THREADS; user++) {
+            userProfileDao.put(new UserProfile(userId(user), Instant.EPOCH, Map.of(COUNTER, UserProfilePropertyValue.valueOf(0))));
+        }
+        commandExecutor = new BoundedExecutor(1);
+        commandService = new CommandService(userProfileDao, commandExecutor);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        commandExecutor.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadUser {
+        private Command increment;
+
+        @Setup
+        public void setUp(SameUserContentionBenchmark benchmark) {
+            int thread = benchmark.nextThread.getAndIncrement() % MAX_THREADS;
+            increment = increment(thread);
+        }
+    }
+
+    @Benchmark
+    public CommandResult sameUser() {
+        return commandService.processSingleCommand(SAME_USER_INCREMENT);
+    }
+
+    @Benchmark
+    public CommandResult userPerThread(ThreadUser threadUser) {
+        return commandService.processSingleCommand(threadUser.increment);
+    }
+
+    private static Command increment(int user) {
+        return new Command(userId(user), CommandTypeEnum.INCREMENT, Map.of(COUNTER, UserProfilePropertyValue.valueOf(1)));
+    }
+
+    private static UserId userId(int user) {
+        return UserId.valueOf("user-" + user);
+    }
+}
@@ -0,0 +1,87 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One command of each type against a single stored user. COLLECT appends one item to a list that keeps growing during the iteration,
+ * so its score only stays flat while appending does not depend on the length of the list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleCommandBenchmark {
+    private static final UserId USER_ID = UserId.valueOf("benchmark-user");
+    private static final UserProfilePropertyName COUNTER = UserProfilePropertyName.valueOf("counter");
+    private static final UserProfilePropertyName GOLD = UserProfilePropertyName.valueOf("gold");
+    private static final UserProfilePropertyName INVENTORY = UserProfilePropertyName.valueOf("inventory");
+
+    private static final Command REPLACE = new Command(USER_ID, CommandTypeEnum.REPLACE, Map.of(GOLD, UserProfilePropertyValue.valueOf(500)));
+    private static final Command INCREMENT = new Command(USER_ID, CommandTypeEnum.INCREMENT,
+            Map.of(COUNTER, UserProfilePropertyValue.valueOf(1)));
+    private static final Command COLLECT = new Command(USER_ID, CommandTypeEnum.COLLECT,
+            Map.of(INVENTORY, UserProfilePropertyValue.valueOf(List.of("sword"))));
+
+    private UserProfileDaoInMemory userProfileDao;
+    private BoundedExecutor commandExecutor;
+    private CommandService commandService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        userProfileDao = new UserProfileDaoInMemory();
+        userProfileDao.put(new UserProfile(USER_ID, Instant.EPOCH, Map.of(
+                COUNTER, UserProfilePropertyValue.valueOf(0),
+                GOLD, UserProfilePropertyValue.valueOf(0),
+                INVENTORY, UserProfilePropertyValue.valueOf(List.of()))));
+        commandExecutor = new BoundedExecutor(1);
+        commandService = new CommandService(userProfileDao, commandExecutor);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        commandExecutor.stop();
+    }
+
+    @Benchmark
+    public CommandResult replace() {
+        return commandService.processSingleCommand(REPLACE);
+    }
+
+    @Benchmark
+    public CommandResult increment() {
+        return commandService.processSingleCommand(INCREMENT);
+    }
+
+    @Benchmark
+    public CommandResult collect() {
+        return commandService.processSingleCommand(COLLECT);
+    }
+}
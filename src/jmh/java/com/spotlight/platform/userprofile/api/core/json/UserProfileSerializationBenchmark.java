@@ -0,0 +1,74 @@
+package com.spotlight.platform.userprofile.api.core.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Writing and reading a {@link UserProfile} with the application's {@link JsonMapper}. A third of the properties are numbers, a third
+ * strings and a third lists of {@code listSize} strings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserProfileSerializationBenchmark {
+    @Param({"6", "60"})
+    public int properties;
+
+    @Param({"10", "1000"})
+    public int listSize;
+
+    private final ObjectMapper objectMapper = JsonMapper.getInstance();
+    private UserProfile userProfile;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        var list = IntStream.range(0, listSize).mapToObj(item -> "item-" + item).toList();
+        Map<UserProfilePropertyName, UserProfilePropertyValue> values = new HashMap<>();
+        for (int property = 0; property < properties; property++) {
+            values.put(UserProfilePropertyName.valueOf("property" + property), switch (property % 3) {
+                case 0 -> UserProfilePropertyValue.valueOf(property);
+                case 1 -> UserProfilePropertyValue.valueOf("value" + property);
+                default -> UserProfilePropertyValue.valueOf(List.copyOf(list));
+            });
+        }
+        userProfile = new UserProfile(UserId.valueOf("benchmark-user"), Instant.EPOCH, values);
+        serialized = objectMapper.writeValueAsBytes(userProfile);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(userProfile);
+    }
+
+    @Benchmark
+    public UserProfile deserialize() throws IOException {
+        return objectMapper.readValue(serialized, UserProfile.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence;
+
+import com.spotlight.platform.userprofile.api.core.command.UserKeyDistribution;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads, writes and atomic updates of {@link UserProfileDaoInMemory} over a million users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserProfileDaoInMemoryBenchmark {
+    private static final int USERS = 1_000_000;
+    private static final int PREPARED_KEYS = 1 << 16;
+    private static final UserProfilePropertyName COUNTER = UserProfilePropertyName.valueOf("counter");
+
+    private final UserProfileDaoInMemory userProfileDao = new UserProfileDaoInMemory();
+    private UserProfile[] userProfiles;
+    private UserId[] keys;
+    private int nextKey;
+
+    @Setup
+    public void setUp() {
+        userProfiles = new UserProfile[USERS];
+        for (int user = 0; user < USERS; user++) {
+            userProfiles[user] = new UserProfile(UserId.valueOf("user-" + user), Instant.EPOCH,
+                    Map.of(COUNTER, UserProfilePropertyValue.valueOf(user)));
+            userProfileDao.put(userProfiles[user]);
+        }
+        var users = UserKeyDistribution.UNIFORM.sampler(USERS, new Random(42));
+        keys = new UserId[PREPARED_KEYS];
+        for (int key = 0; key < PREPARED_KEYS; key++) {
+            keys[key] = userProfiles[users.getAsInt()].userId();
+        }
+    }
+
+    @Benchmark
+    public Optional<UserProfile> get() {
+        return userProfileDao.get(nextKey());
+    }
+
+    @Benchmark
+    public void put() {
+        var userProfile = userProfileDao.get(nextKey()).orElseThrow();
+        userProfileDao.put(userProfile);
+    }
+
+    @Benchmark
+    public Optional<UserProfile> update() {
+        return userProfileDao.update(nextKey(), userProfile -> userProfile);
+    }
+
+    private UserId nextKey() {
+        var key = keys[nextKey];
+        nextKey = (nextKey + 1) & (PREPARED_KEYS - 1);
+        return key;
+    }
+}
@@ -0,0 +1,72 @@
+package com.spotlight.platform.userprofile.api.model.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Appending one element to a list of {@code size} elements, the work a COLLECT command does on a stored list. {@code appendToLatest}
+ * extends the newest version in place; {@code appendToOlderVersion} appends to a version that was already extended and has to copy
+ * its last chunk; {@code copyOnAppend} is the full copy COLLECT made before lists were append-only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppendOnlyListBenchmark {
+    private static final List<String> ITEM = List.of("item");
+    private static final int MAX_GROWTH = 1 << 20;
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private AppendOnlyList<String> initial;
+    private AppendOnlyList<String> latest;
+    private List<String> copied;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        var elements = IntStream.range(0, size).mapToObj(element -> "item-" + element).toList();
+        initial = AppendOnlyList.copyOf(elements);
+        latest = initial.appendAll(ITEM);
+        copied = List.copyOf(elements);
+    }
+
+    /**
+     * Starts over from the initial version now and then, so the list does not grow without bound during an iteration.
+     */
+    @Benchmark
+    public AppendOnlyList<String> appendToLatest() {
+        latest = (latest.size() - size < MAX_GROWTH ? latest : initial).appendAll(ITEM);
+        return latest;
+    }
+
+    @Benchmark
+    public AppendOnlyList<String> appendToOlderVersion() {
+        return initial.appendAll(ITEM);
+    }
+
+    @Benchmark
+    public List<String> copyOnAppend() {
+        var appended = new ArrayList<String>(copied.size() + 1);
+        appended.addAll(copied);
+        appended.addAll(ITEM);
+        return appended;
+    }
+}
@@ -0,0 +1,49 @@
+package com.spotlight.platform.userprofile.api.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The {@code key=value} arguments a load test is started with.
+ */
+final class LoadTestArguments {
+    private final Map<String, String> values;
+
+    private LoadTestArguments(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static LoadTestArguments parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            var keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            values.put(keyValue[0], keyValue[1]);
+        }
+        return new LoadTestArguments(values);
+    }
+
+    Optional<String> get(String key) {
+        return Optional.ofNullable(values.get(key));
+    }
+
+    String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    int getInt(String key, int defaultValue) {
+        return get(key).map(Integer::parseInt).orElse(defaultValue);
+    }
+
+    Duration getMillis(String key, long defaultValue) {
+        return Duration.ofMillis(get(key).map(Long::parseLong).orElse(defaultValue));
+    }
+
+    Duration getSeconds(String key, long defaultValue) {
+        return Duration.ofSeconds(get(key).map(Long::parseLong).orElse(defaultValue));
+    }
+}
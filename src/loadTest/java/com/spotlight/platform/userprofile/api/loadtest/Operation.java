@@ -0,0 +1,29 @@
+package com.spotlight.platform.userprofile.api.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The kinds of requests a load test sends.
+ */
+enum Operation {
+    /**
+     * {@code GET /users/{userId}/profile}
+     */
+    READ,
+    /**
+     * {@code POST /users/command}
+     */
+    COMMAND,
+    /**
+     * {@code POST /users/command-batch}
+     */
+    BATCH;
+
+    static Operation parse(String name) {
+        return valueOf(name.strip().toUpperCase(Locale.ROOT));
+    }
+
+    String displayName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
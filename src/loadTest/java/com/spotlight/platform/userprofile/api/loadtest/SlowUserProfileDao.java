@@ -0,0 +1,83 @@
+package com.spotlight.platform.userprofile.api.loadtest;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stands in for a remote store: every call blocks for {@code latency} before it reaches the delegate. Counts the calls in flight, which
+ * is the number of requests the server is working on at the same time.
+ */
+class SlowUserProfileDao implements UserProfileDao {
+    private final UserProfileDao delegate;
+    private final Duration latency;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    SlowUserProfileDao(UserProfileDao delegate, Duration latency) {
+        this.delegate = delegate;
+        this.latency = latency;
+    }
+
+    @Override
+    public Optional<UserProfile> get(UserId userId) {
+        return slow(() -> delegate.get(userId));
+    }
+
+    @Override
+    public Map<UserId, UserProfile> getAll(Collection<UserId> userIds) {
+        return slow(() -> delegate.getAll(userIds));
+    }
+
+    @Override
+    public void put(UserProfile userProfile) {
+        slow(() -> {
+            delegate.put(userProfile);
+            return null;
+        });
+    }
+
+    @Override
+    public void putAll(Collection<UserProfile> userProfiles) {
+        slow(() -> {
+            delegate.putAll(userProfiles);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+        return slow(() -> delegate.update(userId, updater));
+    }
+
+    @Override
+    public void forEach(Consumer<UserProfile> action) {
+        delegate.forEach(action);
+    }
+
+    int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    private <T> T slow(Supplier<T> call) {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latency);
+            return call.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the store", exception);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
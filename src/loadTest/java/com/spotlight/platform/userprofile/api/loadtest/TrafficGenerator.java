@@ -0,0 +1,106 @@
+package com.spotlight.platform.userprofile.api.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotlight.platform.userprofile.api.core.command.UserKeyDistribution;
+import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Builds the requests of a load test: picks the {@link Operation} from the {@link TrafficMix}, the users from the
+ * {@link UserKeyDistribution} and a random command type for every command. Not thread safe; one thread generates all requests.
+ */
+final class TrafficGenerator {
+    static final UserProfilePropertyName GOLD = UserProfilePropertyName.valueOf("currentGold");
+    static final UserProfilePropertyName LAST_SEEN = UserProfilePropertyName.valueOf("lastSeen");
+    static final UserProfilePropertyName INVENTORY = UserProfilePropertyName.valueOf("inventory");
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.getInstance();
+    private static final CommandTypeEnum[] COMMAND_TYPES = CommandTypeEnum.values();
+    private static final String JSON = "application/json";
+
+    private final URI usersUri;
+    private final Duration timeout;
+    private final TrafficMix mix;
+    private final int batchSize;
+    private final Random random;
+    private final IntSupplier users;
+
+    TrafficGenerator(URI usersUri, Duration timeout, TrafficMix mix, int batchSize, UserKeyDistribution distribution, int users,
+            long seed) {
+        this.usersUri = usersUri;
+        this.timeout = timeout;
+        this.mix = mix;
+        this.batchSize = batchSize;
+        random = new Random(seed);
+        this.users = distribution.sampler(users, random);
+    }
+
+    GeneratedRequest next() {
+        var operation = mix.next(random);
+        var request = switch (operation) {
+            case READ -> HttpRequest.newBuilder(usersUri.resolve(userId(users.getAsInt()) + "/profile")).GET();
+            case COMMAND -> post("command", command());
+            case BATCH -> post("command-batch", batch());
+        };
+        return new GeneratedRequest(operation, request.timeout(timeout).build());
+    }
+
+    static UserProfile userProfile(int user) {
+        return new UserProfile(UserId.valueOf(userId(user)), Instant.now(),
+                Map.of(GOLD, UserProfilePropertyValue.valueOf(0L), LAST_SEEN, UserProfilePropertyValue.valueOf(0L), INVENTORY,
+                        UserProfilePropertyValue.valueOf(List.of("starter-sword"))));
+    }
+
+    private static String userId(int user) {
+        return "load-test-user-" + user;
+    }
+
+    private List<Command> batch() {
+        var commands = new ArrayList<Command>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            commands.add(command());
+        }
+        return commands;
+    }
+
+    private Command command() {
+        var userId = UserId.valueOf(userId(users.getAsInt()));
+        var type = COMMAND_TYPES[random.nextInt(COMMAND_TYPES.length)];
+        var properties = switch (type) {
+            case REPLACE -> Map.of(LAST_SEEN, UserProfilePropertyValue.valueOf(System.currentTimeMillis()));
+            case INCREMENT -> Map.of(GOLD, UserProfilePropertyValue.valueOf((long) random.nextInt(1, 100)));
+            case COLLECT -> Map.of(INVENTORY, UserProfilePropertyValue.valueOf(List.of("item-" + random.nextInt(1_000))));
+        };
+        return new Command(userId, type, properties);
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(usersUri.resolve(path))
+                    .header("Content-Type", JSON)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(body)));
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    record GeneratedRequest(Operation operation, HttpRequest httpRequest) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.spotlight.platform.userprofile.api.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Relative weights of the {@link Operation}s in the generated traffic, written as {@code read:80,command:15,batch:5}. Operations left
+ * out are not sent.
+ */
+final class TrafficMix {
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private TrafficMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        operations = weights.keySet().toArray(Operation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("At least one operation needs a positive weight");
+        }
+    }
+
+    static TrafficMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            var operationWeight = entry.split(":", 2);
+            if (operationWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight but got " + entry);
+            }
+            int weight = Integer.parseInt(operationWeight[1].strip());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight of " + operationWeight[0] + " is negative");
+            }
+            weights.put(Operation.parse(operationWeight[0]), weight);
+        }
+        return new TrafficMix(weights);
+    }
+
+    Operation next(Random random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= pick) {
+            index++;
+        }
+        return operations[index];
+    }
+
+    @Override
+    public String toString() {
+        var joiner = new StringJoiner(",");
+        weights.forEach((operation, weight) -> joiner.add(operation.displayName() + ":" + weight));
+        return joiner.toString();
+    }
+}
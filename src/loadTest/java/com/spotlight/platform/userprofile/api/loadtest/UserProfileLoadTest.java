@@ -0,0 +1,215 @@
+package com.spotlight.platform.userprofile.api.loadtest;
+
+import com.spotlight.platform.userprofile.api.core.command.UserKeyDistribution;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.configuration.UserProfileApiConfiguration;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.web.UserProfileApiApplication;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.dropwizard.testing.ConfigOverride;
+import io.dropwizard.testing.DropwizardTestSupport;
+import ru.vyarus.dropwizard.guice.injector.lookup.InjectorLookup;
+
+/**
+ * Measures what one node sustains. Boots {@link UserProfileApiApplication} in process the way {@code DropwizardAppExtension} does, seeds
+ * {@code users} profiles into the configured store and sends a mix of profile reads, single commands and command batches at a fixed
+ * {@code rate}, first for the warmup and then for the measurement.
+ * <p>
+ * The load is open: requests are sent on schedule whether or not the earlier ones have been answered, and latency is counted from the
+ * time a request was due instead of the time it was sent. A server that stalls therefore shows up in the percentiles rather than just
+ * slowing the load down. Latencies are recorded in HdrHistograms per operation; besides the summary, the full percentile distributions
+ * are written as {@code .hgrm} files to {@code resultsDirectory} for plotting.
+ * <p>
+ * Arguments are {@code key=value} pairs:
+ * <ul>
+ *     <li>{@code rate} requests per second (1000)</li>
+ *     <li>{@code mix} weights of the operations ({@code read:80,command:15,batch:5}), see {@link TrafficMix}</li>
+ *     <li>{@code batchSize} commands per batch (16)</li>
+ *     <li>{@code users} number of seeded users (100000)</li>
+ *     <li>{@code distribution} how users are picked, {@code UNIFORM} or {@code ZIPFIAN} (ZIPFIAN)</li>
+ *     <li>{@code warmupSeconds} (10) and {@code durationSeconds} (30)</li>
+ *     <li>{@code maxInFlight} requests waiting for an answer before sending blocks (10000)</li>
+ *     <li>{@code config} YAML configuration of the application; built-in defaults when absent</li>
+ *     <li>{@code serverType} {@code default} or {@code virtual-threads} (default)</li>
+ *     <li>{@code resultsDirectory} (build/results/load-test)</li>
+ * </ul>
+ */
+public final class UserProfileLoadTest {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SEED_CHUNK = 10_000;
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Settings settings;
+    private final HttpClient httpClient;
+    private final ExecutorService senders;
+    private final Semaphore inFlight;
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    private UserProfileLoadTest(Settings settings, ExecutorService senders) {
+        this.settings = settings;
+        this.senders = senders;
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(senders).build();
+        inFlight = new Semaphore(settings.maxInFlight());
+        for (var operation : Operation.values()) {
+            latencies.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var settings = Settings.parse(args);
+        System.out.println(settings);
+        var app = new DropwizardTestSupport<UserProfileApiConfiguration>(UserProfileApiApplication.class, settings.config(),
+                ConfigOverride.config("server.type", settings.serverType()),
+                ConfigOverride.config("server.applicationConnectors[0].port", "0"),
+                ConfigOverride.config("server.adminConnectors[0].port", "0"));
+        app.before();
+        try (var senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            seed(InjectorLookup.getInstance(app.getApplication(), UserProfileDao.class).orElseThrow(), settings.users());
+            var traffic = new TrafficGenerator(URI.create("http://localhost:%d/users/".formatted(app.getLocalPort())), REQUEST_TIMEOUT,
+                    settings.mix(), settings.batchSize(), settings.distribution(), settings.users(), System.nanoTime());
+            new UserProfileLoadTest(settings, senders).run(traffic);
+        } finally {
+            app.after();
+        }
+    }
+
+    private static void seed(UserProfileDao dao, int users) {
+        List<UserProfile> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int user = 0; user < users; user++) {
+            chunk.add(TrafficGenerator.userProfile(user));
+            if (chunk.size() == SEED_CHUNK) {
+                dao.putAll(chunk);
+                chunk.clear();
+            }
+        }
+        dao.putAll(chunk);
+    }
+
+    private void run(TrafficGenerator traffic) throws InterruptedException, IOException {
+        System.out.printf("Warming up for %ds%n", settings.warmup().toSeconds());
+        send(traffic, settings.warmup());
+        latencies.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+
+        System.out.printf("Measuring for %ds%n", settings.duration().toSeconds());
+        long start = System.nanoTime();
+        send(traffic, settings.duration());
+        report(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Sends requests at the configured rate for {@code length} and waits for all of them to be answered.
+     */
+    private void send(TrafficGenerator traffic, Duration length) throws InterruptedException {
+        long start = System.nanoTime();
+        long requests = length.toSeconds() * settings.rate();
+        double intervalNanos = 1_000_000_000.0 / settings.rate();
+        for (long i = 0; i < requests; i++) {
+            long due = start + (long) (i * intervalNanos);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            var request = traffic.next();
+            inFlight.acquire();
+            senders.execute(() -> {
+                try {
+                    sendOne(request, due);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(settings.maxInFlight());
+        inFlight.release(settings.maxInFlight());
+    }
+
+    private void sendOne(TrafficGenerator.GeneratedRequest request, long due) {
+        try {
+            var response = httpClient.send(request.httpRequest(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 == 2) {
+                latencies.get(request.operation()).recordValue(System.nanoTime() - due);
+            } else {
+                errors.get(request.operation()).increment();
+            }
+        } catch (IOException exception) {
+            errors.get(request.operation()).increment();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(Duration elapsed) throws IOException {
+        var resultsDirectory = Files.createDirectories(settings.resultsDirectory());
+        var all = new Histogram(SIGNIFICANT_DIGITS);
+        long allErrors = 0;
+        System.out.printf("%n%-8s %10s %8s %10s %9s %9s %9s %9s%n", "", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms",
+                "max ms");
+        for (var operation : Operation.values()) {
+            var histogram = latencies.get(operation).getIntervalHistogram();
+            long operationErrors = errors.get(operation).sum();
+            if (histogram.getTotalCount() + operationErrors > 0) {
+                printRow(operation.displayName(), histogram, operationErrors, elapsed);
+                writeDistribution(resultsDirectory.resolve(operation.displayName() + ".hgrm"), histogram);
+            }
+            all.add(histogram);
+            allErrors += operationErrors;
+        }
+        printRow("all", all, allErrors, elapsed);
+        writeDistribution(resultsDirectory.resolve("all.hgrm"), all);
+        System.out.printf("%nTarget rate %d req/s, percentile distributions in %s%n", settings.rate(), resultsDirectory.toAbsolutePath());
+    }
+
+    private static void printRow(String name, Histogram histogram, long errors, Duration elapsed) {
+        System.out.printf("%-8s %10d %8d %10.0f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / (elapsed.toNanos() / 1_000_000_000.0), millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (var output = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(output, NANOS_PER_MILLI);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    private record Settings(int rate, TrafficMix mix, int batchSize, int users, UserKeyDistribution distribution, Duration warmup,
+            Duration duration, int maxInFlight, String config, String serverType, Path resultsDirectory) {
+        private static Settings parse(String[] args) {
+            var arguments = LoadTestArguments.parse(args);
+            return new Settings(arguments.getInt("rate", 1000), TrafficMix.parse(arguments.get("mix", "read:80,command:15,batch:5")),
+                    arguments.getInt("batchSize", 16), arguments.getInt("users", 100_000),
+                    UserKeyDistribution.valueOf(arguments.get("distribution", UserKeyDistribution.ZIPFIAN.name())),
+                    arguments.getSeconds("warmupSeconds", 10), arguments.getSeconds("durationSeconds", 30),
+                    arguments.getInt("maxInFlight", 10_000), arguments.get("config").orElse(null), arguments.get("serverType", "default"),
+                    Path.of(arguments.get("resultsDirectory", "build/results/load-test")));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.spotlight.platform.userprofile.api.loadtest;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.configuration.UserProfileApiConfiguration;
+import com.spotlight.platform.userprofile.api.model.configuration.VirtualThreadServerFactory;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+import com.spotlight.platform.userprofile.api.web.UserProfileApiApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.dropwizard.testing.ConfigOverride;
+import io.dropwizard.testing.DropwizardTestSupport;
+import ru.vyarus.dropwizard.guice.hook.GuiceyConfigurationHook;
+
+/**
+ * Compares the default server with {@link VirtualThreadServerFactory} under a closed-loop load of profile reads against a store that
+ * blocks every call for a fixed latency. With platform threads the number of requests in flight stops growing at the size of Jetty's
+ * pool and the rest of the clients queue up in front of it; with virtual threads it follows the number of clients.
+ * <p>
+ * Arguments are {@code key=value} pairs: {@code clients} (2000), {@code users} (1000), {@code storeLatencyMillis} (50) and
+ * {@code durationSeconds} (20).
+ */
+public final class VirtualThreadLoadTest {
+    private static final String DEFAULT_SERVER_TYPE = "default";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var settings = Settings.parse(args);
+        System.out.println(settings);
+        var results = List.of(run(DEFAULT_SERVER_TYPE, settings), run(VirtualThreadServerFactory.TYPE, settings));
+        System.out.printf("%n%-16s %10s %8s %10s %15s %8s %8s%n", "server", "requests", "errors", "req/s", "peak in-flight", "p50 ms",
+                "p99 ms");
+        results.forEach(result -> System.out.printf("%-16s %10d %8d %10.0f %15d %8.1f %8.1f%n", result.serverType(), result.requests(),
+                result.errors(), result.throughput(), result.peakInFlight(), result.p50Millis(), result.p99Millis()));
+    }
+
+    private static Result run(String serverType, Settings settings) throws Exception {
+        var store = new UserProfileDaoInMemory();
+        for (int user = 0; user < settings.users(); user++) {
+            store.put(userProfile(user));
+        }
+        var dao = new SlowUserProfileDao(store, settings.storeLatency());
+        ((GuiceyConfigurationHook) builder -> builder.modulesOverride(binder -> binder.bind(UserProfileDao.class).toInstance(dao)))
+                .register();
+        var app = new DropwizardTestSupport<UserProfileApiConfiguration>(UserProfileApiApplication.class, (String) null,
+                ConfigOverride.config("server.type", serverType),
+                ConfigOverride.config("server.applicationConnectors[0].port", "0"),
+                ConfigOverride.config("server.adminConnectors[0].port", "0"));
+        app.before();
+        try {
+            return drive(serverType, "http://localhost:%d/users/".formatted(app.getLocalPort()), dao, settings);
+        } finally {
+            app.after();
+        }
+    }
+
+    private static Result drive(String serverType, String baseUri, SlowUserProfileDao dao, Settings settings) {
+        var errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + settings.duration().toNanos();
+        try (var connectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(connectionExecutor).build();
+            var futures = new ArrayList<Future<long[]>>();
+            for (int client = 0; client < settings.clients(); client++) {
+                futures.add(clients.submit(() -> readUntil(deadline, httpClient, baseUri, settings.users(), errors)));
+            }
+            for (var future : futures) {
+                latencies.add(future.get());
+            }
+        } catch (Exception exception) {
+            throw new IllegalStateException("Load test against the %s server failed".formatted(serverType), exception);
+        }
+        var merged = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(serverType, merged.length, errors.get(), merged.length / (double) settings.duration().toSeconds(),
+                dao.peakInFlight(), percentileMillis(merged, 0.5), percentileMillis(merged, 0.99));
+    }
+
+    /**
+     * @return latencies of the successful reads in nanoseconds
+     */
+    private static long[] readUntil(long deadline, HttpClient httpClient, String baseUri, int users, AtomicLong errors) {
+        var latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            var request = HttpRequest.newBuilder(URI.create(baseUri + userId(ThreadLocalRandom.current().nextInt(users)) + "/profile"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            try {
+                var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                    continue;
+                }
+            } catch (IOException exception) {
+                errors.incrementAndGet();
+                continue;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static UserProfile userProfile(int user) {
+        Map<UserProfilePropertyName, UserProfilePropertyValue> properties = new HashMap<>();
+        properties.put(UserProfilePropertyName.valueOf("currentGold"), UserProfilePropertyValue.valueOf(user));
+        return new UserProfile(UserId.valueOf(userId(user)), Instant.now(), properties);
+    }
+
+    private static String userId(int user) {
+        return "load-test-user-" + user;
+    }
+
+    private record Settings(int clients, int users, Duration storeLatency, Duration duration) {
+        private static Settings parse(String[] args) {
+            var arguments = LoadTestArguments.parse(args);
+            return new Settings(arguments.getInt("clients", 2000), arguments.getInt("users", 1000),
+                    arguments.getMillis("storeLatencyMillis", 50), arguments.getSeconds("durationSeconds", 20));
+        }
+    }
+
+    private record Result(String serverType, long requests, long errors, double throughput, int peakInFlight, double p50Millis,
+            double p99Millis) {
+    }
+}
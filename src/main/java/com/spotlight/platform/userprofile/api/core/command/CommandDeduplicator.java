@@ -0,0 +1,195 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.model.configuration.DeduplicationConfiguration;
+import com.spotlight.platform.userprofile.api.model.configuration.UserProfileApiConfiguration;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the ids of applied commands per user for a sliding time window in a ring of Bloom filters, so retries are recognized in
+ * constant time and memory no matter how many commands pass through.
+ * <p>
+ * The window is split into {@code generations - 1} slices. Ids are recorded in the filter of the current slice and looked up in all
+ * filters; when a slice ends the oldest filter is dropped and a new empty one becomes current. An id is thus remembered for at least
+ * the window and at most one slice longer. Every filter is sized for the expected number of commands of a whole window, so a burst
+ * within one slice does not overload it, and a new command is mistaken for a retry with at most the configured probability; beyond
+ * that number the probability grows.
+ * <p>
+ * A filter is only allocated when the first id of its slice is recorded, so a deployment without command ids holds no filters.
+ * Lookups and records take no lock. Callers serialize commands of one user, which makes check-then-record atomic per user.
+ */
+public class CommandDeduplicator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandDeduplicator.class);
+    private static final double LN2 = Math.log(2);
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final int generations;
+    private final long sliceNanos;
+    private final int words;
+    private final long bits;
+    private final int hashFunctions;
+    private final LongSupplier nanoTime;
+    private final Object rotationLock = new Object();
+    private volatile Ring ring;
+
+    @Inject
+    public CommandDeduplicator(UserProfileApiConfiguration configuration) {
+        this(configuration.getCommand().getDeduplication());
+    }
+
+    public CommandDeduplicator(DeduplicationConfiguration configuration) {
+        this(configuration.getWindow().toJavaDuration(), configuration.getGenerations(), configuration.getExpectedCommandsPerWindow(),
+                configuration.getFalsePositiveRate(), System::nanoTime);
+    }
+
+    CommandDeduplicator(Duration window, int generations, long expectedCommandsPerWindow, double falsePositiveRate,
+            LongSupplier nanoTime) {
+        int slices = generations - 1;
+        double commandsPerFilter = expectedCommandsPerWindow;
+        double falsePositiveRatePerFilter = falsePositiveRate / generations;
+        long words = (long) Math.ceil(-commandsPerFilter * Math.log(falsePositiveRatePerFilter) / (LN2 * LN2) / Long.SIZE);
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Deduplication filters of %d words are too large".formatted(words));
+        }
+        this.generations = generations;
+        this.sliceNanos = window.toNanos() / slices;
+        this.words = (int) words;
+        this.bits = words * Long.SIZE;
+        this.hashFunctions = Math.max(1, (int) Math.round(bits / commandsPerFilter * LN2));
+        this.nanoTime = nanoTime;
+        this.ring = new Ring(new AtomicReferenceArray<>(generations), 0, nanoTime.getAsLong());
+        LOGGER.info("Command deduplication uses up to {} filters of {} bytes with {} hash functions", generations,
+                words * Long.BYTES, hashFunctions);
+    }
+
+    /**
+     * @return {@code true} if the command was recorded within the window, or with the configured probability if it was not
+     */
+    public boolean mightContain(UserId userId, String commandId) {
+        long hash = hash(userId, commandId);
+        var filters = currentRing().filters();
+        for (int i = 0; i < generations; i++) {
+            var filter = filters.get(i);
+            if (filter != null && containsAll(filter, hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void record(UserId userId, String commandId) {
+        long hash = hash(userId, commandId);
+        var current = currentRing();
+        var filter = current.filters().get(current.current());
+        if (filter == null) {
+            filter = allocateCurrentFilter();
+        }
+        long step = step(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(hash + i * step, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((filter.get(word) & mask) == 0) {
+                filter.getAndAccumulate(word, mask, (value, added) -> value | added);
+            }
+        }
+    }
+
+    /**
+     * @return bytes held by the filters once every generation recorded an id
+     */
+    public long memoryBytes() {
+        return generations * (bits / Byte.SIZE);
+    }
+
+    private boolean containsAll(AtomicLongArray filter, long hash) {
+        long step = step(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(hash + i * step, bits);
+            if ((filter.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Allocates under the rotation lock, so the filter is never placed into a ring that a concurrent rotation already replaced.
+     */
+    private AtomicLongArray allocateCurrentFilter() {
+        synchronized (rotationLock) {
+            var current = ring;
+            var filter = current.filters().get(current.current());
+            if (filter == null) {
+                filter = new AtomicLongArray(words);
+                current.filters().set(current.current(), filter);
+            }
+            return filter;
+        }
+    }
+
+    private Ring currentRing() {
+        var current = ring;
+        long now = nanoTime.getAsLong();
+        if (now - current.sliceStart() < sliceNanos) {
+            return current;
+        }
+        synchronized (rotationLock) {
+            current = ring;
+            long elapsedSlices = (now - current.sliceStart()) / sliceNanos;
+            if (elapsedSlices == 0) {
+                return current;
+            }
+            var filters = new AtomicReferenceArray<AtomicLongArray>(generations);
+            for (int i = 0; i < generations; i++) {
+                filters.set(i, current.filters().get(i));
+            }
+            int position = current.current();
+            for (long i = 0; i < Math.min(elapsedSlices, generations); i++) {
+                position = (position + 1) % generations;
+                filters.set(position, null);
+            }
+            ring = new Ring(filters, position, current.sliceStart() + elapsedSlices * sliceNanos);
+            return ring;
+        }
+    }
+
+    /**
+     * 64 bit FNV-1a of user and command id, finished with the MurmurHash3 mixer so every bit of the key affects every bit of the hash.
+     */
+    private static long hash(UserId userId, String commandId) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, userId.toString());
+        hash = (hash ^ 0xFFFF) * FNV_PRIME;
+        hash = hash(hash, commandId);
+        return mix(hash);
+    }
+
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long step(long hash) {
+        return mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB93FE1A85363L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private record Ring(AtomicReferenceArray<AtomicLongArray> filters, int current, long sliceStart) {}
+}
@@ -0,0 +1,105 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingWindowReservoir;
+import com.codahale.metrics.Timer;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.configuration.HotUserConfiguration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of {@link CommandService}, named {@code CommandService.*}:
+ * <ul>
+ *     <li>{@code <type>.time}: timer of single commands of the type, from the call until the result is known</li>
+ *     <li>{@code <type>.<result>}: meter of processed commands by type and result, single or batched</li>
+ *     <li>{@code <type>.properties}: histogram of the number of properties per command</li>
+ *     <li>{@code batch.time} and {@code batch.size}: timer of whole batches and histogram of the commands per batch</li>
+ * </ul>
+ * Every processed command is also counted for its user in the {@link HotUserTracker}.
+ * <p>
+ * Apart from a user taking over a counter of the tracker, recording allocates nothing: metrics are looked up by enum ordinal in arrays
+ * filled once, and timers and histograms keep the latest {@value #RESERVOIR_SIZE} measurements in a fixed array instead of a reservoir
+ * that allocates a sample per update.
+ */
+public class CommandMetrics {
+    static final int RESERVOIR_SIZE = 1028;
+
+    private final Timer[] commandTimes;
+    private final Meter[][] commandResults;
+    private final Histogram[] propertyCounts;
+    private final Timer batchTime;
+    private final Histogram batchSize;
+    private final HotUserTracker hotUsers;
+
+    public CommandMetrics(MetricRegistry metrics) {
+        this(metrics, new HotUserTracker(new HotUserConfiguration(), metrics));
+    }
+
+    public CommandMetrics(MetricRegistry metrics, HotUserTracker hotUsers) {
+        this.hotUsers = hotUsers;
+        var types = CommandTypeEnum.values();
+        var results = CommandResultEnum.values();
+        commandTimes = new Timer[types.length];
+        commandResults = new Meter[types.length][results.length];
+        propertyCounts = new Histogram[types.length];
+        for (var type : types) {
+            commandTimes[type.ordinal()] = timer(metrics, type.name(), "time");
+            propertyCounts[type.ordinal()] = histogram(metrics, type.name(), "properties");
+            for (var result : results) {
+                commandResults[type.ordinal()][result.ordinal()] = metrics.meter(metricName(type.name(), result.name()));
+            }
+        }
+        batchTime = timer(metrics, "batch", "time");
+        batchSize = histogram(metrics, "batch", "size");
+    }
+
+    /**
+     * @param result the result, {@code null} when the command was not processed
+     * @param startNanos {@link System#nanoTime()} when processing started
+     */
+    void singleCommandProcessed(Command command, CommandResult result, long startNanos) {
+        commandTimes[command.type().ordinal()].update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        commandProcessed(command, result);
+    }
+
+    /**
+     * @param results result per command, {@code null} for the commands that were not processed
+     * @param startNanos {@link System#nanoTime()} when processing started
+     */
+    void batchProcessed(List<Command> commands, CommandResult[] results, long startNanos) {
+        batchTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        batchSize.update(commands.size());
+        for (int i = 0; i < results.length; i++) {
+            commandProcessed(commands.get(i), results[i]);
+        }
+    }
+
+    private void commandProcessed(Command command, CommandResult result) {
+        if (result == null) {
+            return;
+        }
+        int type = command.type().ordinal();
+        commandResults[type][result.result().ordinal()].mark();
+        propertyCounts[type].update(command.properties() == null ? 0 : command.properties().size());
+        hotUsers.record(command.userId());
+    }
+
+    private static Timer timer(MetricRegistry metrics, String... names) {
+        return metrics.timer(metricName(names), () -> new Timer(new SlidingWindowReservoir(RESERVOIR_SIZE)));
+    }
+
+    private static Histogram histogram(MetricRegistry metrics, String... names) {
+        return metrics.histogram(metricName(names), () -> new Histogram(new SlidingWindowReservoir(RESERVOIR_SIZE)));
+    }
+
+    private static String metricName(String... names) {
+        return MetricRegistry.name(CommandService.class, names);
+    }
+}
@@ -0,0 +1,208 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.core.exceptions.CommandQueueFullException;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandAcceptance;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.CommandStatus;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandStatusEnum;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Accepts commands for asynchronous processing. Commands are spread over bounded per-partition ring buffers by user, so the commands
+ * of one user are processed in the order they were accepted. Every partition is drained by its own worker, which hands everything
+ * queued up to {@code maxBatchSize} commands to {@link CommandService} at once.
+ * <p>
+ * The status of the last {@code statusRetention} accepted commands is kept in a ring indexed by sequence number, so clients can look
+ * up the result of their command, including whether it was dropped for an unknown user, in memory fixed by the retention.
+ * <p>
+ * A full partition rejects further commands with {@link CommandQueueFullException} instead of blocking the caller; producers are
+ * expected to back off and can watch the depth gauges to throttle before that. {@link #stop()} lets the workers drain what was
+ * accepted.
+ */
+public class CommandQueue implements Managed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandQueue.class);
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 60_000;
+
+    private final CommandService commandService;
+    private final int maxBatchSize;
+    private final int capacity;
+    private final List<BlockingQueue<QueuedCommand>> partitions;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReferenceArray<CommandStatus> statuses;
+    private final Meter accepted;
+    private final Meter rejected;
+    private final Meter processed;
+    private final Meter unknownUser;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public CommandQueue(CommandService commandService, int partitionCount, int capacityPerPartition, int maxBatchSize,
+            int statusRetention, MetricRegistry metrics) {
+        this.commandService = commandService;
+        this.maxBatchSize = maxBatchSize;
+        this.capacity = partitionCount * capacityPerPartition;
+        this.partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayBlockingQueue<>(capacityPerPartition));
+        }
+        this.statuses = new AtomicReferenceArray<>(statusRetention);
+        this.accepted = metrics.meter(metricName("accepted"));
+        this.rejected = metrics.meter(metricName("rejected"));
+        this.processed = metrics.meter(metricName("processed"));
+        this.unknownUser = metrics.meter(metricName("unknownUser"));
+        metrics.register(metricName("depth"), (Gauge<Integer>) this::depth);
+        for (int i = 0; i < partitionCount; i++) {
+            var partition = partitions.get(i);
+            metrics.register(metricName("depth", "partition-" + i), (Gauge<Integer>) partition::size);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < partitions.size(); i++) {
+            var partition = partitions.get(i);
+            var worker = new Thread(() -> drain(partition), "command-queue-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        workers.clear();
+    }
+
+    /**
+     * @throws CommandQueueFullException when the partition of the command's user is full
+     */
+    public CommandAcceptance enqueue(Command command) {
+        long sequenceNumber = sequence.incrementAndGet();
+        // recorded before the command is queued, so it cannot overwrite the status a worker records
+        var pending = new CommandStatus(sequenceNumber, command.userId(), CommandStatusEnum.PENDING, null);
+        statuses.set(slotOf(sequenceNumber), pending);
+        if (!partitionOf(command).offer(new QueuedCommand(sequenceNumber, command))) {
+            statuses.compareAndSet(slotOf(sequenceNumber), pending, null);
+            rejected.mark();
+            throw new CommandQueueFullException();
+        }
+        accepted.mark();
+        return new CommandAcceptance(sequenceNumber, command.userId());
+    }
+
+    /**
+     * @return status of the command accepted with {@code sequenceNumber}, empty if it was not accepted or is too old to be retained
+     */
+    public Optional<CommandStatus> status(long sequenceNumber) {
+        if (sequenceNumber < 1) {
+            return Optional.empty();
+        }
+        var status = statuses.get(slotOf(sequenceNumber));
+        return status != null && status.sequenceNumber() == sequenceNumber ? Optional.of(status) : Optional.empty();
+    }
+
+    /**
+     * @return number of accepted commands not processed yet
+     */
+    public int depth() {
+        int depth = 0;
+        for (BlockingQueue<QueuedCommand> partition : partitions) {
+            depth += partition.size();
+        }
+        return depth;
+    }
+
+    /**
+     * @return number of commands all partitions hold when full
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    private int slotOf(long sequenceNumber) {
+        return (int) (sequenceNumber % statuses.length());
+    }
+
+    private BlockingQueue<QueuedCommand> partitionOf(Command command) {
+        return partitions.get(Math.floorMod(command.userId().hashCode(), partitions.size()));
+    }
+
+    private void drain(BlockingQueue<QueuedCommand> partition) {
+        List<QueuedCommand> batch = new ArrayList<>(maxBatchSize);
+        List<Command> commands = new ArrayList<>(maxBatchSize);
+        while (running || !partition.isEmpty()) {
+            try {
+                var first = partition.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                partition.drainTo(batch, maxBatchSize - 1);
+                batch.forEach(queued -> commands.add(queued.command()));
+                var results = commandService.processBatchOfCommandReportingUnknownUsers(commands);
+                for (int i = 0; i < batch.size(); i++) {
+                    recordResult(batch.get(i), results.get(i));
+                }
+                processed.mark(batch.size());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException exception) {
+                LOGGER.error("Processing {} queued commands failed", batch.size(), exception);
+                batch.forEach(queued -> recordStatus(queued, CommandStatusEnum.FAILED, null));
+            } finally {
+                batch.clear();
+                commands.clear();
+            }
+        }
+    }
+
+    private void recordResult(QueuedCommand queued, CommandResult result) {
+        if (result == null) {
+            unknownUser.mark();
+            recordStatus(queued, CommandStatusEnum.UNKNOWN_USER, null);
+        } else {
+            recordStatus(queued, CommandStatusEnum.PROCESSED, result);
+        }
+    }
+
+    private void recordStatus(QueuedCommand queued, CommandStatusEnum status, CommandResult result) {
+        long sequenceNumber = queued.sequenceNumber();
+        int slot = slotOf(sequenceNumber);
+        var previous = statuses.get(slot);
+        // a newer command may have taken over the slot already, whose status is kept
+        if (previous != null && previous.sequenceNumber() == sequenceNumber) {
+            statuses.compareAndSet(slot, previous, new CommandStatus(sequenceNumber, queued.command().userId(), status, result));
+        }
+    }
+
+    private static String metricName(String... names) {
+        return MetricRegistry.name(CommandQueue.class, names);
+    }
+
+    private record QueuedCommand(long sequenceNumber, Command command) {}
+}
@@ -1,97 +1,379 @@
 package com.spotlight.platform.userprofile.api.core.command;
 
+import com.codahale.metrics.MetricRegistry;
 import com.spotlight.platform.userprofile.api.core.exceptions.EntityNotFoundException;
+import com.spotlight.platform.userprofile.api.core.exceptions.ExecutorFullException;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
 import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
 import com.spotlight.platform.userprofile.api.model.command.Command;
 import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum;
+import com.spotlight.platform.userprofile.api.model.configuration.DeduplicationConfiguration;
 import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
-import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
-import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
-
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-
-import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.DONE;
-import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.FAIL;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class CommandService {
+    public static final String EXECUTOR = "command";
+
+    private static final int PARTITIONS_PER_THREAD = 4;
 
     private final UserProfileDao userProfileDao;
+    private final BoundedExecutor commandExecutor;
+    private final UserVersionIndex versionIndex;
+    private final CommandDeduplicator deduplicator;
+    private final CommandMetrics metrics;
+    private final StripedUserLock userLock = new StripedUserLock();
 
     @Inject
-    public CommandService(UserProfileDao userProfileDao) {
+    public CommandService(UserProfileDao userProfileDao, @Named(EXECUTOR) BoundedExecutor commandExecutor, UserVersionIndex versionIndex,
+            CommandDeduplicator deduplicator, CommandMetrics metrics) {
         this.userProfileDao = userProfileDao;
+        this.commandExecutor = commandExecutor;
+        this.versionIndex = versionIndex;
+        this.deduplicator = deduplicator;
+        this.metrics = metrics;
+    }
+
+    public CommandService(UserProfileDao userProfileDao, BoundedExecutor commandExecutor, UserVersionIndex versionIndex,
+            CommandDeduplicator deduplicator) {
+        this(userProfileDao, commandExecutor, versionIndex, deduplicator, new CommandMetrics(new MetricRegistry()));
+    }
+
+    public CommandService(UserProfileDao userProfileDao, BoundedExecutor commandExecutor) {
+        this(userProfileDao, commandExecutor, new UserVersionIndex(), new CommandDeduplicator(new DeduplicationConfiguration()));
     }
 
     public CommandResult processSingleCommand(Command command) {
-        return switch (command.type()) {
-            case REPLACE -> replaceCommandProcess(command);
-            case INCREMENT -> incrementCommandProcess(command);
-            case COLLECT -> collectCommandProcess(command);
-        };
+        long start = System.nanoTime();
+        var results = new CommandResult[1];
+        try {
+            processUserCommands(List.of(command), List.of(0), results);
+        } finally {
+            metrics.singleCommandProcessed(command, results[0], start);
+        }
+        return results[0];
     }
 
+    /**
+     * Processes the command like {@link #processSingleCommand} on the command executor. The worker is released once the profile is
+     * written; the future completes when the write is durable.
+     *
+     * @throws ExecutorFullException when the command executor has no room for the command
+     */
+    public CompletableFuture<CommandResult> processSingleCommandAsync(Command command) {
+        long start = System.nanoTime();
+        var results = new CommandResult[1];
+        return commandExecutor.submit(() -> processUserCommandsDeferringDurability(List.of(command), List.of(0), results))
+                .thenCompose(Function.identity())
+                .whenComplete((written, failure) -> metrics.singleCommandProcessed(command, results[0], start))
+                .thenApply(written -> {
+                    if (written.isEmpty()) {
+                        throw new EntityNotFoundException();
+                    }
+                    return results[0];
+                });
+    }
+
+    /**
+     * Every result carries the version of its user after the command, see {@link UserVersionIndex}.
+     * <p>
+     * All users of the batch are locked and read with a single {@link UserProfileDao#getAll}, and the batch is rejected right there
+     * when one of them is unknown. The commands are then partitioned by user, and the partitions are folded and written in parallel on
+     * the command executor, each with a single {@link UserProfileDao#putAllDeferringDurability}. All commands of one user land in the
+     * same partition and keep their relative order; results are returned in the order of the input list.
+     * <p>
+     * The locks are released before waiting for the writes to become durable, so a slow sync does not hold up other commands of the
+     * users sharing the stripes.
+     *
+     * @throws EntityNotFoundException when any of the users is unknown, before any command is applied
+     */
     public List<CommandResult> processBatchOfCommand(List<Command> commands) {
-        return commands.stream()
-                .map(c -> processSingleCommand(c))
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        var results = new CommandResult[commands.size()];
+        try {
+            await(processKnownUsersDeferringDurability(commands, results));
+        } finally {
+            metrics.batchProcessed(commands, results, start);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Processes the commands like {@link #processBatchOfCommand} on the command executor. The worker is released once the profiles are
+     * written; the future completes when the writes are durable.
+     *
+     * @throws ExecutorFullException when the command executor has no room for the batch
+     */
+    public CompletableFuture<List<CommandResult>> processBatchOfCommandAsync(List<Command> commands) {
+        long start = System.nanoTime();
+        var results = new CommandResult[commands.size()];
+        return commandExecutor.submit(() -> processKnownUsersDeferringDurability(commands, results))
+                .thenCompose(Function.identity())
+                .whenComplete((processed, failure) -> metrics.batchProcessed(commands, results, start))
+                .thenApply(processed -> Arrays.asList(results));
+    }
+
+    /**
+     * Processes the commands like {@link #processBatchOfCommand}, but commands of unknown users yield {@link CommandResultEnum#FAIL}
+     * instead of failing the whole batch, so a caller working through a stream of batches can carry on past them.
+     */
+    public List<CommandResult> processBatchOfCommandSkippingUnknownUsers(List<Command> commands) {
+        var results = processPartitioned(commands);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new CommandResult(CommandResultEnum.FAIL, 0);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Processes the commands like {@link #processBatchOfCommandSkippingUnknownUsers}, but the results of the commands of unknown users
+     * are {@code null}, so the caller can tell them apart from commands that failed.
+     */
+    List<CommandResult> processBatchOfCommandReportingUnknownUsers(List<Command> commands) {
+        return Arrays.asList(processPartitioned(commands));
+    }
+
+    /**
+     * @return result per command, {@code null} for the commands of unknown users
+     */
+    private CommandResult[] processPartitioned(List<Command> commands) {
+        long start = System.nanoTime();
+        var results = new CommandResult[commands.size()];
+        try {
+            processPartitions(commands, results);
+        } finally {
+            metrics.batchProcessed(commands, results, start);
+        }
+        return results;
+    }
+
+    private void processPartitions(List<Command> commands, CommandResult[] results) {
+        var partitions = partitionByUser(commands);
+        if (partitions.size() <= 1) {
+            partitions.forEach(indices -> processPartition(commands, indices, results));
+            return;
+        }
+        // the caller waits anyway, so it processes the partitions the executor has no room for instead of being rejected
+        var futures = partitions.stream()
+                .map(indices -> commandExecutor.submitOrRun(() -> processPartitionDeferringDurability(commands, indices, results))
+                        .thenCompose(Function.identity()))
+                .toArray(CompletableFuture[]::new);
+        await(CompletableFuture.allOf(futures));
+    }
+
+    /**
+     * Holds the locks of all users of the batch while its partitions are folded and written, so the profiles read up front stay
+     * current. The partitions run on the executor and on this thread, see {@link BoundedExecutor#invokeAll}; they only write and hand
+     * their durability futures back.
+     *
+     * @return future completed once the written profiles are durable; the results are filled in before it is returned
+     * @throws EntityNotFoundException when any of the users is unknown, before anything is written
+     */
+    private CompletableFuture<Void> processKnownUsersDeferringDurability(List<Command> commands, CommandResult[] results) {
+        Set<UserId> userIds = new LinkedHashSet<>();
+        for (Command command : commands) {
+            userIds.add(command.userId());
+        }
+        return userLock.executeLocked(userIds, () -> {
+            var userProfiles = userProfileDao.getAll(userIds);
+            if (userProfiles.size() < userIds.size()) {
+                throw new EntityNotFoundException();
+            }
+            List<Supplier<CompletableFuture<Void>>> partitions = new ArrayList<>();
+            for (List<Integer> indices : partitionByUser(commands)) {
+                partitions.add(() -> writePartition(commands, groupByUser(commands, indices), userProfiles, results));
+            }
+            var written = commandExecutor.invokeAll(partitions);
+            return CompletableFuture.allOf(written.toArray(CompletableFuture[]::new));
+        });
+    }
+
+    private Collection<List<Integer>> partitionByUser(List<Command> commands) {
+        int partitionCount = Math.max(1, Math.min(commands.size(), commandExecutor.getParallelism() * PARTITIONS_PER_THREAD));
+        Map<Integer, List<Integer>> partitions = new HashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            int partition = userLock.stripeOf(commands.get(i).userId()) % partitionCount;
+            partitions.computeIfAbsent(partition, key -> new ArrayList<>()).add(i);
+        }
+        return partitions.values();
+    }
+
+    private void processPartition(List<Command> commands, List<Integer> indices, CommandResult[] results) {
+        await(processPartitionDeferringDurability(commands, indices, results));
+    }
+
+    /**
+     * @return future completed once the written profiles are durable; the results are filled in before it is returned
+     */
+    private CompletableFuture<Void> processPartitionDeferringDurability(List<Command> commands, List<Integer> indices,
+            CommandResult[] results) {
+        var indicesByUser = groupByUser(commands, indices);
+        var userIds = indicesByUser.keySet();
+        return userLock.executeLocked(userIds, () -> writePartition(commands, indicesByUser, userProfileDao.getAll(userIds), results));
     }
 
-    private CommandResult replaceCommandProcess(Command command) {
-        UserProfile userProfile = userProfileDao.get(command.userId()).orElseThrow(EntityNotFoundException::new);
-        var currentMapOfProp = userProfile.userProfileProperties();
-        var newMapOfProp = command.properties();
-        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : newMapOfProp.entrySet()) {
-            currentMapOfProp.put(entry.getKey(), entry.getValue());
+    private static Map<UserId, List<Integer>> groupByUser(List<Command> commands, List<Integer> indices) {
+        Map<UserId, List<Integer>> indicesByUser = new LinkedHashMap<>();
+        for (int index : indices) {
+            indicesByUser.computeIfAbsent(commands.get(index).userId(), key -> new ArrayList<>()).add(index);
         }
-        return new CommandResult(DONE);
-    }
-
-    private CommandResult incrementCommandProcess(Command command) {
-        UserProfile userProfile = userProfileDao.get(command.userId()).orElseThrow(EntityNotFoundException::new);
-        var currentMapOfProp = userProfile.userProfileProperties();
-        var newMapOfProp = command.properties();
-        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : newMapOfProp.entrySet()) {
-            var value = currentMapOfProp.get(entry.getKey());
-            try {
-                Integer newValue = (Integer) value.getValue() + (Integer) entry.getValue().getValue();
-                currentMapOfProp.put(entry.getKey(), UserProfilePropertyValue.valueOf(newValue));
-            } catch (Exception ex) {
-                //Depends on business logic probably need to throw Exception here
-                return new CommandResult(FAIL);
+        return indicesByUser;
+    }
+
+    /**
+     * Folds the commands of every user found in {@code userProfiles} and writes the results with a single
+     * {@link UserProfileDao#putAllDeferringDurability}. The caller holds the locks of the users.
+     *
+     * @return future completed once the written profiles are durable
+     */
+    private CompletableFuture<Void> writePartition(List<Command> commands, Map<UserId, List<Integer>> indicesByUser,
+            Map<UserId, UserProfile> userProfiles, CommandResult[] results) {
+        List<Fold> folds = new ArrayList<>(indicesByUser.size());
+        indicesByUser.forEach((userId, userIndices) -> {
+            var userProfile = userProfiles.get(userId);
+            if (userProfile != null) {
+                folds.add(applyCommands(userProfile, commands, userIndices));
+            }
+        });
+        var written = userProfileDao.putAllDeferringDurability(folds.stream().map(Fold::userProfile).toList());
+        for (Fold fold : folds) {
+            fold.copyResultsTo(results);
+            if (!written.isCompletedExceptionally()) {
+                record(fold);
             }
         }
-        return new CommandResult(DONE);
-    }
-
-    private CommandResult collectCommandProcess(Command command) {
-        UserProfile userProfile = userProfileDao.get(command.userId()).orElseThrow(EntityNotFoundException::new);
-        var currentMapOfProp = userProfile.userProfileProperties();
-        var newMapOfProp = command.properties();
-        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : newMapOfProp.entrySet()) {
-            try {
-                var value = currentMapOfProp.get(entry.getKey());
-                @SuppressWarnings("unchecked")
-                List<String> listOld = (List<String>) value.getValue();
-                @SuppressWarnings("unchecked")
-                List<String> listNew = (List<String>) entry.getValue().getValue();
-                List<String> resultList = new ArrayList<>();
-                resultList.addAll(listOld);
-                resultList.addAll(listNew);
-                currentMapOfProp.put(entry.getKey(), UserProfilePropertyValue.valueOf(resultList));
-            } catch (Exception exception) {
-                //Depends on business logic probably need to throw Exception here
-                return new CommandResult(FAIL);
+        return written;
+    }
+
+    private void processUserCommands(List<Command> commands, List<Integer> userIndices, CommandResult[] results) {
+        await(processUserCommandsDeferringDurability(commands, userIndices, results)).orElseThrow(EntityNotFoundException::new);
+    }
+
+    /**
+     * @return future completed with the written profile, or empty for an unknown user, once it is durable; the results are filled in
+     *         before it is returned
+     */
+    private CompletableFuture<Optional<UserProfile>> processUserCommandsDeferringDurability(List<Command> commands,
+            List<Integer> userIndices, CommandResult[] results) {
+        var userId = commands.get(userIndices.get(0)).userId();
+        return userLock.executeLocked(userId, () -> {
+            // the store may run the updater more than once; the fold of its last run is the one written
+            var lastFold = new AtomicReference<Fold>();
+            var written = userProfileDao.updateDeferringDurability(userId, userProfile -> {
+                var fold = applyCommands(userProfile, commands, userIndices);
+                lastFold.set(fold);
+                return fold.userProfile();
+            });
+            var fold = lastFold.get();
+            if (fold != null) {
+                fold.copyResultsTo(results);
+                if (!written.isCompletedExceptionally()) {
+                    record(fold);
+                }
             }
+            return written;
+        });
+    }
+
+    /**
+     * Folds all commands of one user into a single profile update, while still reporting an individual result per command. Every
+     * successful command advances the version of the user by one; a failed one reports the version it left unchanged.
+     * <p>
+     * A command whose id was applied before, in this fold or within the deduplication window, is skipped as a retry. Nothing is
+     * changed here, so this can run as a store updater; the returned fold is {@link #record recorded} once its profile is written.
+     */
+    private Fold applyCommands(UserProfile userProfile, List<Command> commands, List<Integer> userIndices) {
+        var mutation = new UserProfileMutation(userProfile);
+        long version = versionIndex.version(userProfile.userId());
+        var results = new CommandResult[userIndices.size()];
+        List<Command> identified = new ArrayList<>();
+        Set<String> appliedIds = new HashSet<>();
+        for (int i = 0; i < results.length; i++) {
+            var command = commands.get(userIndices.get(i));
+            var commandId = command.commandId();
+            CommandResultEnum result;
+            if (commandId != null && (appliedIds.contains(commandId) || deduplicator.mightContain(command.userId(), commandId))) {
+                result = CommandResultEnum.DUPLICATE;
+            } else {
+                result = mutation.apply(command);
+            }
+            if (result == CommandResultEnum.DONE) {
+                version++;
+                if (commandId != null) {
+                    appliedIds.add(commandId);
+                    identified.add(command);
+                }
+            }
+            results[i] = new CommandResult(result, version);
         }
-        return new CommandResult(DONE);
+        return new Fold(mutation.toUserProfile(), userIndices, results, identified);
     }
 
+    /**
+     * Makes the commands of a written fold visible: their ids are recorded for deduplication and the version of the user is published.
+     */
+    private void record(Fold fold) {
+        fold.identified().forEach(command -> deduplicator.record(command.userId(), command.commandId()));
+        publishVersion(fold.userProfile().userId(), fold.results()[fold.results().length - 1].version());
+    }
 
+    /**
+     * Waits for {@code future} and rethrows its failure as it was thrown, instead of wrapped into a {@link CompletionException}. Only
+     * callers of the synchronous methods wait here; work on the command executor hands its durability future on instead, so no
+     * worker is held while the journal syncs.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+            throw exception;
+        }
+    }
 
+    private void publishVersion(UserId userId, long version) {
+        if (version != versionIndex.version(userId)) {
+            versionIndex.publish(userId, version);
+        }
+    }
 
+    /**
+     * The outcome of {@link #applyCommands}: the updated profile, the result of each command at {@code userIndices} and the applied
+     * commands with an id.
+     */
+    private record Fold(UserProfile userProfile, List<Integer> userIndices, CommandResult[] results, List<Command> identified) {
+        void copyResultsTo(CommandResult[] batchResults) {
+            for (int i = 0; i < results.length; i++) {
+                batchResults[userIndices.get(i)] = results[i];
+            }
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Processes an upload of newline delimited JSON commands of any size with constant memory. Commands are parsed one at a time and
+ * handed to {@link CommandService#processBatchOfCommandSkippingUnknownUsers} in chunks of {@code chunkSize}; the results of a chunk are
+ * written and flushed, one per line in input order, before the next chunk is read. The upload is thus only read as fast as its commands
+ * are processed and their results consumed, and a producer faster than that is held back by flow control instead of filling the heap.
+ * <p>
+ * Each command is validated like a request body; a command that does not map to {@link Command} or violates its constraints fails
+ * individually and the stream goes on. Input that is not JSON ends the stream; the results written up to it remain valid.
+ */
+public class CommandStreamProcessor {
+    private static final CommandResult FAILED = new CommandResult(CommandResultEnum.FAIL, 0);
+
+    private final CommandService commandService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public CommandStreamProcessor(CommandService commandService, ObjectMapper objectMapper, Validator validator, int chunkSize) {
+        this.commandService = commandService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public void process(InputStream commands, OutputStream results) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(commands); JsonGenerator generator = objectMapper.createGenerator(results)) {
+            generator.setRootValueSeparator(null);
+            List<Command> chunk = new ArrayList<>(chunkSize);
+            while (parser.nextToken() != null) {
+                chunk.add(readValidCommand(parser));
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, generator);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, generator);
+            }
+        }
+    }
+
+    /**
+     * Returns the next command, or {@code null} if it is not a valid one. The line is read as a tree first, so a command that fails to
+     * map leaves the parser at the start of the next line.
+     */
+    private Command readValidCommand(JsonParser parser) throws IOException {
+        JsonNode line = parser.readValueAsTree();
+        Command command;
+        try {
+            command = objectMapper.treeToValue(line, Command.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return null;
+        }
+        return command != null && validator.validate(command).isEmpty() ? command : null;
+    }
+
+    private void processChunk(List<Command> chunk, JsonGenerator generator) throws IOException {
+        List<Command> valid = new ArrayList<>(chunk.size());
+        for (Command command : chunk) {
+            if (command != null) {
+                valid.add(command);
+            }
+        }
+        var validResults = commandService.processBatchOfCommandSkippingUnknownUsers(valid).iterator();
+        for (Command command : chunk) {
+            generator.writeObject(command != null ? validResults.next() : FAILED);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+}
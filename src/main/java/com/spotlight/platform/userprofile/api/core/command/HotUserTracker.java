@@ -0,0 +1,202 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.model.command.HotUser;
+import com.spotlight.platform.userprofile.api.model.command.HotUserReport;
+import com.spotlight.platform.userprofile.api.model.configuration.HotUserConfiguration;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Finds the users sending the most commands with the Space-Saving algorithm, in memory fixed by the capacity no matter how many users
+ * there are. A fixed number of counters is kept; a user without one takes over the counter with the lowest count and continues from
+ * it, remembering that count as its possible overestimate. Every user with more than {@code 1 / capacity} of all commands holds a
+ * counter, and no count is more than {@code commands / capacity} too high; both bounds hold per stripe (see below) and thus for all
+ * users as far as the hash spreads them evenly.
+ * <p>
+ * All counts are halved every decay interval, which keeps their order, so the report follows who is hot now rather than who was hot
+ * since startup.
+ * <p>
+ * Users are spread over stripes by hash, each with its share of the counters in a min-heap and its own lock, so concurrent commands
+ * rarely wait for each other. Counting a user that already holds a counter allocates nothing.
+ */
+public class HotUserTracker {
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long decayIntervalNanos;
+    private final LongSupplier nanoTime;
+    private final int reportSize;
+
+    public HotUserTracker(HotUserConfiguration configuration, MetricRegistry metrics) {
+        this(configuration.getCapacity(), configuration.getDecayInterval().toJavaDuration(), configuration.getReportSize(),
+                System::nanoTime);
+        registerMetrics(metrics);
+    }
+
+    HotUserTracker(int capacity, Duration decayInterval, int reportSize, LongSupplier nanoTime) {
+        this.decayIntervalNanos = decayInterval.toNanos();
+        this.nanoTime = nanoTime;
+        this.reportSize = reportSize;
+        long now = nanoTime.getAsLong();
+        int countersPerStripe = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(countersPerStripe, now);
+        }
+    }
+
+    public void record(UserId userId) {
+        stripes[Math.floorMod(userId.hashCode(), STRIPES)].record(userId, nanoTime.getAsLong());
+    }
+
+    /**
+     * @return the {@code limit} users with the most commands, most first
+     */
+    public HotUserReport report(int limit) {
+        long now = nanoTime.getAsLong();
+        long commands = 0;
+        List<HotUser> users = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            commands += stripe.collect(users, now);
+        }
+        users.sort(Comparator.comparingLong(HotUser::commands).reversed());
+        return new HotUserReport(commands, List.copyOf(users.subList(0, Math.min(limit, users.size()))));
+    }
+
+    public int getReportSize() {
+        return reportSize;
+    }
+
+    private void registerMetrics(MetricRegistry metrics) {
+        metrics.register(metricName("hottestUser"), (Gauge<String>) () -> report(1).users().stream()
+                .findFirst()
+                .map(hotUser -> hotUser.userId().toString())
+                .orElse(""));
+        metrics.register(metricName("hottestUserShare"), (Gauge<Double>) () -> share(report(1)));
+        metrics.register(metricName("topUsersShare"), (Gauge<Double>) () -> share(report(reportSize)));
+    }
+
+    private static double share(HotUserReport report) {
+        long userCommands = report.users().stream().mapToLong(HotUser::commands).sum();
+        return report.commands() == 0 ? 0 : (double) userCommands / report.commands();
+    }
+
+    private static String metricName(String name) {
+        return MetricRegistry.name(HotUserTracker.class, name);
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Counter[] heap;
+        private final Map<UserId, Counter> counters;
+        private long commands;
+        private long lastDecay;
+
+        private Stripe(int capacity, long now) {
+            heap = new Counter[capacity];
+            for (int i = 0; i < capacity; i++) {
+                heap[i] = new Counter(i);
+            }
+            counters = new HashMap<>(capacity * 2);
+            lastDecay = now;
+        }
+
+        private void record(UserId userId, long now) {
+            lock.lock();
+            try {
+                decayIfDue(now);
+                commands++;
+                var counter = counters.get(userId);
+                if (counter == null) {
+                    counter = heap[0];
+                    if (counter.userId != null) {
+                        counters.remove(counter.userId);
+                    }
+                    counter.userId = userId;
+                    counter.maxOverestimate = counter.count;
+                    counters.put(userId, counter);
+                }
+                counter.count++;
+                siftDown(counter.position);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return commands counted by the stripe
+         */
+        private long collect(List<HotUser> users, long now) {
+            lock.lock();
+            try {
+                decayIfDue(now);
+                for (Counter counter : heap) {
+                    if (counter.userId != null && counter.count > 0) {
+                        users.add(new HotUser(counter.userId, counter.count, counter.maxOverestimate));
+                    }
+                }
+                return commands;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Halving keeps the order of the counts, so the heap stays valid.
+         */
+        private void decayIfDue(long now) {
+            while (now - lastDecay >= decayIntervalNanos) {
+                lastDecay += decayIntervalNanos;
+                commands >>= 1;
+                for (Counter counter : heap) {
+                    counter.count >>= 1;
+                    counter.maxOverestimate >>= 1;
+                }
+                if (commands == 0) {
+                    lastDecay = now;
+                }
+            }
+        }
+
+        private void siftDown(int position) {
+            var counter = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= heap.length) {
+                    break;
+                }
+                if (child + 1 < heap.length && heap[child + 1].count < heap[child].count) {
+                    child++;
+                }
+                if (heap[child].count >= counter.count) {
+                    break;
+                }
+                heap[position] = heap[child];
+                heap[position].position = position;
+                position = child;
+            }
+            heap[position] = counter;
+            counter.position = position;
+        }
+    }
+
+    private static final class Counter {
+        private UserId userId;
+        private long count;
+        private long maxOverestimate;
+        private int position;
+
+        private Counter(int position) {
+            this.position = position;
+        }
+    }
+}
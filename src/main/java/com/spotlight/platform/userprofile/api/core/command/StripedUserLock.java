@@ -0,0 +1,102 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of locks shared between users by hash of {@link UserId}. Commands of one user are serialized, commands of users
+ * mapped to different stripes run in parallel. Memory stays constant regardless of the number of users.
+ */
+public class StripedUserLock {
+    private static final int STRIPES_PER_CORE = 16;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedUserLock() {
+        this(Runtime.getRuntime().availableProcessors() * STRIPES_PER_CORE);
+    }
+
+    public StripedUserLock(int minimumStripes) {
+        if (minimumStripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be positive");
+        }
+        int stripes = Integer.highestOneBit(minimumStripes - 1) << 1;
+        stripes = Math.max(stripes, 1);
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = stripes - 1;
+    }
+
+    public <T> T executeLocked(UserId userId, Supplier<T> action) {
+        var lock = lockFor(userId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code action} while holding the stripes of all {@code userIds}. Stripes are acquired in ascending order, like in
+     * {@link #executeWithAllLocked}, so batches locking overlapping users can not deadlock each other.
+     */
+    public <T> T executeLocked(Collection<UserId> userIds, Supplier<T> action) {
+        var stripes = userIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs {@code action} while holding every stripe, so no user is in the middle of a locked section. Every caller of this class
+     * acquires stripes in ascending order, whether one, several or all of them, and so never waits for a stripe lower than one it
+     * holds. The holder of the highest stripe involved in any wait can thus always proceed, so this can not deadlock with
+     * {@link #executeLocked}.
+     */
+    public <T> T executeWithAllLocked(Supplier<T> action) {
+        int locked = 0;
+        try {
+            for (ReentrantLock lock : locks) {
+                lock.lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    /**
+     * @return index of the stripe guarding {@code userId}, users of different stripes never wait for each other
+     */
+    public int stripeOf(UserId userId) {
+        int hash = userId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    ReentrantLock lockFor(UserId userId) {
+        return locks[stripeOf(userId)];
+    }
+}
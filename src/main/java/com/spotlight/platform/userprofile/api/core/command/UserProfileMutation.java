@@ -0,0 +1,161 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.core.exceptions.InvalidCommandException;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.DONE;
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.FAIL;
+
+/**
+ * Working copy of the profile properties which folds any number of commands of one user into a single new snapshot. Every command is
+ * applied all-or-nothing: a failing command leaves the working copy untouched and the following commands still see the result of the
+ * previous ones.
+ * <p>
+ * Incremented properties are accumulated in mutable primitive counters and turned into values only when the snapshot is built, so
+ * repeated increments of a hot counter do not allocate. The counters are confined to the thread holding the user lock and never escape
+ * into a published snapshot.
+ */
+class UserProfileMutation {
+    private final UserProfile userProfile;
+    private final Map<UserProfilePropertyName, UserProfilePropertyValue> properties;
+    private final Map<UserProfilePropertyName, Counter> counters = new HashMap<>();
+
+    UserProfileMutation(UserProfile userProfile) {
+        this.userProfile = userProfile;
+        this.properties = new LinkedHashMap<>(userProfile.userProfileProperties());
+    }
+
+    CommandResultEnum apply(Command command) {
+        try {
+            switch (command.type()) {
+                case REPLACE -> replaceCommandProcess(command);
+                case INCREMENT -> incrementCommandProcess(command);
+                case COLLECT -> collectCommandProcess(command);
+            }
+            return DONE;
+        } catch (InvalidCommandException exception) {
+            //Depends on business logic probably need to throw Exception here
+            return FAIL;
+        }
+    }
+
+    UserProfile toUserProfile() {
+        counters.forEach((propertyName, counter) -> properties.put(propertyName, counter.toValue()));
+        counters.clear();
+        return userProfile.withUserProfileProperties(properties);
+    }
+
+    private void replaceCommandProcess(Command command) {
+        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : command.properties().entrySet()) {
+            if (rawValue(entry.getValue()) == null) {
+                throw new InvalidCommandException("Property %s can not be replaced with null".formatted(entry.getKey()));
+            }
+        }
+        command.properties().keySet().forEach(counters::remove);
+        properties.putAll(command.properties());
+    }
+
+    private void incrementCommandProcess(Command command) {
+        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : command.properties().entrySet()) {
+            if (!canIncrement(entry.getKey(), entry.getValue())) {
+                throw new InvalidCommandException("Property %s can not be incremented".formatted(entry.getKey()));
+            }
+        }
+        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : command.properties().entrySet()) {
+            var counter = counters.get(entry.getKey());
+            if (counter == null) {
+                counter = new Counter(properties.get(entry.getKey()));
+                counters.put(entry.getKey(), counter);
+            }
+            counter.add(entry.getValue());
+        }
+    }
+
+    private boolean canIncrement(UserProfilePropertyName propertyName, UserProfilePropertyValue delta) {
+        if (delta == null || !delta.isNumber()) {
+            return false;
+        }
+        var counter = counters.get(propertyName);
+        if (counter != null) {
+            return counter.canAdd(delta);
+        }
+        var current = properties.get(propertyName);
+        if (current == null || !current.isNumber()) {
+            return false;
+        }
+        return !current.isLong() || !delta.isLong() || !overflows(current.longValue(), delta.longValue());
+    }
+
+    private void collectCommandProcess(Command command) {
+        Map<UserProfilePropertyName, UserProfilePropertyValue> changes = new HashMap<>();
+        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : command.properties().entrySet()) {
+            flushCounter(entry.getKey());
+            var current = properties.get(entry.getKey());
+            if (current == null || !current.isList() || !(rawValue(entry.getValue()) instanceof List<?> listNew)) {
+                throw new InvalidCommandException("Property %s can not be collected".formatted(entry.getKey()));
+            }
+            changes.put(entry.getKey(), current.append(listNew));
+        }
+        properties.putAll(changes);
+    }
+
+    private void flushCounter(UserProfilePropertyName propertyName) {
+        var counter = counters.remove(propertyName);
+        if (counter != null) {
+            properties.put(propertyName, counter.toValue());
+        }
+    }
+
+    private static Object rawValue(UserProfilePropertyValue value) {
+        return value == null ? null : value.getValue();
+    }
+
+    private static boolean overflows(long current, long delta) {
+        long result = current + delta;
+        return ((current ^ result) & (delta ^ result)) < 0;
+    }
+
+    /**
+     * Running sum of a numeric property. Stays a whole number until a floating point delta is added.
+     */
+    private static final class Counter {
+        private boolean floatingPoint;
+        private long longValue;
+        private double doubleValue;
+
+        private Counter(UserProfilePropertyValue initial) {
+            floatingPoint = !initial.isLong();
+            longValue = floatingPoint ? 0 : initial.longValue();
+            doubleValue = initial.doubleValue();
+        }
+
+        private boolean canAdd(UserProfilePropertyValue delta) {
+            return floatingPoint || !delta.isLong() || !overflows(longValue, delta.longValue());
+        }
+
+        private void add(UserProfilePropertyValue delta) {
+            if (!floatingPoint && delta.isLong()) {
+                longValue += delta.longValue();
+                return;
+            }
+            if (!floatingPoint) {
+                floatingPoint = true;
+                doubleValue = longValue;
+            }
+            doubleValue += delta.doubleValue();
+        }
+
+        private UserProfilePropertyValue toValue() {
+            return floatingPoint ? UserProfilePropertyValue.valueOf(doubleValue) : UserProfilePropertyValue.valueOf(longValue);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.spotlight.platform.userprofile.api.core.exceptions;
+
+public class CommandQueueFullException extends RuntimeException {
+    public CommandQueueFullException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.spotlight.platform.userprofile.api.core.exceptions;
+
+public class ExecutorFullException extends RuntimeException {
+    public ExecutorFullException() {
+        super();
+    }
+}
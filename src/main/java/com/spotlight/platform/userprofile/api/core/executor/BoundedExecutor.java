@@ -0,0 +1,171 @@
+package com.spotlight.platform.userprofile.api.core.executor;
+
+import com.spotlight.platform.userprofile.api.core.exceptions.ExecutorFullException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Bounded pool executing work off the request thread. Its size does not depend on the size of incoming requests. Commands and profile
+ * reads each get a named instance of their own, so reads never queue behind command work.
+ * <p>
+ * At most {@code maxPendingTasks} tasks are queued or running at a time. Beyond that {@link #submit} rejects with
+ * {@link ExecutorFullException}, so an overloaded node answers right away instead of piling up work it cannot catch up with. Callers
+ * that can wait use {@link #submitOrRun} or {@link #invokeAll} and are slowed down instead.
+ */
+public class BoundedExecutor implements Managed {
+    public static final int DEFAULT_MAX_PENDING_TASKS = 10_000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final int parallelism;
+    private final int maxPendingTasks;
+    private final Semaphore pendingTasks;
+    private final ExecutorService executorService;
+
+    public BoundedExecutor(int parallelism) {
+        this(parallelism, DEFAULT_MAX_PENDING_TASKS);
+    }
+
+    public BoundedExecutor(int parallelism, int maxPendingTasks) {
+        this.parallelism = parallelism;
+        this.maxPendingTasks = maxPendingTasks;
+        this.pendingTasks = new Semaphore(maxPendingTasks);
+        this.executorService = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @throws ExecutorFullException when {@code maxPendingTasks} tasks are pending already
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!pendingTasks.tryAcquire()) {
+            throw new ExecutorFullException();
+        }
+        return execute(task);
+    }
+
+    /**
+     * Submits the task, or runs it on the calling thread when the pool has no room for it.
+     *
+     * @return future of the task, already completed when it ran on the calling thread
+     */
+    public <T> CompletableFuture<T> submitOrRun(Supplier<T> task) {
+        if (pendingTasks.tryAcquire()) {
+            return execute(task);
+        }
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    /**
+     * Runs the tasks in parallel on the pool and on the calling thread, and returns their results in order once all of them are done.
+     * The caller runs every task no worker has started yet, so it only ever waits for tasks that are running. This makes it safe to
+     * call while holding locks that queued work of the pool may be waiting for.
+     *
+     * @throws RuntimeException the failure of the first failed task, once all of them are done
+     */
+    public <T> List<T> invokeAll(List<Supplier<T>> tasks) {
+        List<ClaimedTask<T>> claimedTasks = new ArrayList<>(tasks.size());
+        for (Supplier<T> task : tasks) {
+            var claimedTask = new ClaimedTask<>(task);
+            claimedTasks.add(claimedTask);
+            if (claimedTasks.size() > 1 && pendingTasks.tryAcquire()) {
+                try {
+                    execute(() -> {
+                        claimedTask.run();
+                        return null;
+                    });
+                } catch (RejectedExecutionException exception) {
+                    // left to the caller like any task no worker has started
+                }
+            }
+        }
+        claimedTasks.forEach(ClaimedTask::run);
+        List<T> results = new ArrayList<>(tasks.size());
+        RuntimeException failure = null;
+        for (ClaimedTask<T> claimedTask : claimedTasks) {
+            try {
+                results.add(claimedTask.result.join());
+            } catch (CompletionException exception) {
+                if (failure == null) {
+                    failure = exception.getCause() instanceof RuntimeException cause ? cause : exception;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return number of tasks queued or running
+     */
+    public int pendingTasks() {
+        return maxPendingTasks - pendingTasks.availablePermits();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        executorService.shutdown();
+        executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs a task whose permit is already taken and gives the permit back once it is done or was not accepted.
+     */
+    private <T> CompletableFuture<T> execute(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    pendingTasks.release();
+                }
+            }, executorService);
+        } catch (RejectedExecutionException exception) {
+            pendingTasks.release();
+            throw exception;
+        }
+    }
+
+    /**
+     * Task run by whichever thread claims it first, a worker or the caller of {@link #invokeAll}.
+     */
+    private static final class ClaimedTask<T> {
+        private final Supplier<T> task;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private ClaimedTask(Supplier<T> task) {
+            this.task = task;
+        }
+
+        private void run() {
+            if (claimed.compareAndSet(false, true)) {
+                try {
+                    result.complete(task.get());
+                } catch (RuntimeException exception) {
+                    result.completeExceptionally(exception);
+                }
+            }
+        }
+    }
+}
@@ -1,21 +1,106 @@
 package com.spotlight.platform.userprofile.api.core.profile;
 
 import com.spotlight.platform.userprofile.api.core.exceptions.EntityNotFoundException;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
 import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileFootprint;
 import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfileSize;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 public class UserProfileService {
+    public static final String EXECUTOR = "profile";
+    static final int BULK_READ_CHUNK_SIZE = 100;
+
     private final UserProfileDao userProfileDao;
+    private final BoundedExecutor profileExecutor;
 
     @Inject
-    public UserProfileService(UserProfileDao userProfileDao) {
+    public UserProfileService(UserProfileDao userProfileDao, @Named(EXECUTOR) BoundedExecutor profileExecutor) {
         this.userProfileDao = userProfileDao;
+        this.profileExecutor = profileExecutor;
     }
 
     public UserProfile get(UserId userId) {
         return userProfileDao.get(userId).orElseThrow(EntityNotFoundException::new);
     }
+
+    /**
+     * Reads the profile like {@link #get} on the profile executor; the future completes there, exceptionally with
+     * {@link EntityNotFoundException} for an unknown user.
+     */
+    public CompletableFuture<UserProfile> getAsync(UserId userId) {
+        return profileExecutor.submit(() -> get(userId));
+    }
+
+    /**
+     * Hands the profiles of the existing users to {@code action} in the order of {@code userIds}, skipping unknown and repeated ones.
+     * The users are read from the store in chunks, so only one chunk of profiles is held at a time.
+     */
+    public void forEachExisting(Collection<UserId> userIds, Consumer<UserProfile> action) {
+        List<UserId> chunk = new ArrayList<>(Math.min(BULK_READ_CHUNK_SIZE, userIds.size()));
+        for (UserId userId : new LinkedHashSet<>(userIds)) {
+            chunk.add(userId);
+            if (chunk.size() == BULK_READ_CHUNK_SIZE) {
+                readChunk(chunk, action);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            readChunk(chunk, action);
+        }
+    }
+
+    /**
+     * Walks the whole store, holding no more than {@code limit} sizes at a time. It takes time proportional to the number of profiles
+     * and is meant for occasional diagnostics.
+     *
+     * @return sizes of the {@code limit} profiles that are largest by {@code measure}, largest first
+     */
+    public List<UserProfileSize> largestProfiles(int limit, ToLongFunction<UserProfileSize> measure) {
+        Comparator<UserProfileSize> order = Comparator.comparingLong(measure);
+        var largest = new PriorityQueue<>(order);
+        userProfileDao.forEach(userProfile -> {
+            largest.add(sizeOf(userProfile));
+            if (largest.size() > limit) {
+                largest.poll();
+            }
+        });
+        List<UserProfileSize> sizes = new ArrayList<>(largest);
+        sizes.sort(order.reversed());
+        return sizes;
+    }
+
+    private static UserProfileSize sizeOf(UserProfile userProfile) {
+        long listElements = 0;
+        for (var value : userProfile.userProfileProperties().values()) {
+            if (value.isList()) {
+                listElements += ((Collection<?>) value.getValue()).size();
+            }
+        }
+        return new UserProfileSize(userProfile.userId(), userProfile.userProfileProperties().size(), listElements,
+                UserProfileFootprint.estimateBytes(userProfile));
+    }
+
+    private void readChunk(List<UserId> chunk, Consumer<UserProfile> action) {
+        var userProfiles = userProfileDao.getAll(chunk);
+        for (UserId userId : chunk) {
+            var userProfile = userProfiles.get(userId);
+            if (userProfile != null) {
+                action.accept(userProfile);
+            }
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence;
+
+import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of profiles and property values used by the persistent stores. Numbers, strings, booleans and lists get
+ * their own tags and keep their Java type; any other value Jackson may produce (objects, big numbers) is stored as embedded JSON.
+ */
+public final class UserProfileBinaryCodec {
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_LONG = 1;
+    private static final byte TAG_DOUBLE = 2;
+    private static final byte TAG_STRING = 3;
+    private static final byte TAG_TRUE = 4;
+    private static final byte TAG_FALSE = 5;
+    private static final byte TAG_LIST = 6;
+    private static final byte TAG_JSON = 7;
+    private static final byte TAG_INT = 8;
+
+    private UserProfileBinaryCodec() {
+    }
+
+    public static void writeUserProfile(DataOutput out, UserProfile userProfile) throws IOException {
+        writeUserId(out, userProfile.userId());
+        writeInstant(out, userProfile.latestUpdateTime());
+        out.writeInt(userProfile.userProfileProperties().size());
+        for (Map.Entry<UserProfilePropertyName, UserProfilePropertyValue> entry : userProfile.userProfileProperties().entrySet()) {
+            writePropertyName(out, entry.getKey());
+            writePropertyValue(out, entry.getValue());
+        }
+    }
+
+    public static UserProfile readUserProfile(DataInput in) throws IOException {
+        var userId = readUserId(in);
+        var latestUpdateTime = readInstant(in);
+        int size = in.readInt();
+        Map<UserProfilePropertyName, UserProfilePropertyValue> properties = new LinkedHashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            properties.put(readPropertyName(in), readPropertyValue(in));
+        }
+        return new UserProfile(userId, latestUpdateTime, properties);
+    }
+
+    public static void writeUserId(DataOutput out, UserId userId) throws IOException {
+        writeString(out, userId.toString());
+    }
+
+    public static UserId readUserId(DataInput in) throws IOException {
+        return UserId.valueOf(readString(in));
+    }
+
+    public static void writePropertyName(DataOutput out, UserProfilePropertyName propertyName) throws IOException {
+        writeString(out, propertyName.toString());
+    }
+
+    public static UserProfilePropertyName readPropertyName(DataInput in) throws IOException {
+        return UserProfilePropertyName.valueOf(readString(in));
+    }
+
+    public static void writePropertyValue(DataOutput out, UserProfilePropertyValue value) throws IOException {
+        if (value.isLong()) {
+            out.writeByte(TAG_LONG);
+            out.writeLong(value.longValue());
+        } else if (value.isNumber()) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(value.doubleValue());
+        } else {
+            writeObject(out, value.getValue());
+        }
+    }
+
+    public static UserProfilePropertyValue readPropertyValue(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case TAG_LONG -> UserProfilePropertyValue.valueOf(in.readLong());
+            case TAG_DOUBLE -> UserProfilePropertyValue.valueOf(in.readDouble());
+            default -> UserProfilePropertyValue.valueOf(readObject(in, tag));
+        };
+    }
+
+    public static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    public static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    public static void writeList(DataOutput out, List<?> list) throws IOException {
+        out.writeInt(list.size());
+        for (Object element : list) {
+            writeObject(out, element);
+        }
+    }
+
+    public static List<Object> readList(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readObject(in, in.readByte()));
+        }
+        return list;
+    }
+
+    private static void writeObject(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Integer integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt(integer);
+        } else if (value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TAG_LONG);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String string) {
+            out.writeByte(TAG_STRING);
+            writeString(out, string);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(bool ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TAG_LIST);
+            writeList(out, list);
+        } else {
+            out.writeByte(TAG_JSON);
+            writeBytes(out, JsonMapper.getInstance().writeValueAsBytes(value));
+        }
+    }
+
+    private static Object readObject(DataInput in, byte tag) throws IOException {
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_INT -> in.readInt();
+            case TAG_LONG -> in.readLong();
+            case TAG_DOUBLE -> in.readDouble();
+            case TAG_STRING -> readString(in);
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_LIST -> readList(in);
+            case TAG_JSON -> JsonMapper.getInstance().readValue(readBytes(in), Object.class);
+            default -> throw new IOException("Unknown value tag " + tag);
+        };
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -3,10 +3,66 @@ package com.spotlight.platform.userprofile.api.core.profile.persistence;
 import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 public interface UserProfileDao {
     Optional<UserProfile> get(UserId userId);
 
+    /**
+     * Looks up many users at once, allowing the implementation to amortize the cost of a lookup over the batch.
+     *
+     * @return profiles of the users that exist, keyed by their id
+     */
+    default Map<UserId, UserProfile> getAll(Collection<UserId> userIds) {
+        Map<UserId, UserProfile> userProfiles = new HashMap<>();
+        userIds.forEach(userId -> get(userId).ifPresent(userProfile -> userProfiles.put(userId, userProfile)));
+        return userProfiles;
+    }
+
     void put(UserProfile userProfile);
+
+    /**
+     * Stores all profiles, allowing the implementation to amortize the cost of a write over the batch. The batch as a whole is not
+     * atomic, every profile is replaced on its own.
+     */
+    default void putAll(Collection<UserProfile> userProfiles) {
+        userProfiles.forEach(this::put);
+    }
+
+    /**
+     * Stores all profiles like {@link #putAll}, but returns as soon as reads see them; the returned future completes once they are
+     * durable. A caller holding a lock across the write can release it before waiting, so others waiting for the lock are not held up
+     * by a sync. A future that has already failed on return means the write was refused, wholly or in part.
+     */
+    default CompletableFuture<Void> putAllDeferringDurability(Collection<UserProfile> userProfiles) {
+        putAll(userProfiles);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Atomically replaces the stored profile with the result of {@code updater}. The updater may be invoked more than once when
+     * a concurrent write wins the race, so it must be free of side effects.
+     *
+     * @return the updated profile or empty if there is no profile for the user
+     */
+    Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater);
+
+    /**
+     * Updates the profile like {@link #update}, but returns as soon as reads see the updated profile; the returned future completes
+     * with it once it is durable, see {@link #putAllDeferringDurability}.
+     */
+    default CompletableFuture<Optional<UserProfile>> updateDeferringDurability(UserId userId, UnaryOperator<UserProfile> updater) {
+        return CompletableFuture.completedFuture(update(userId, updater));
+    }
+
+    /**
+     * Passes every stored profile to {@code action}. Writes running concurrently may or may not be observed.
+     */
+    void forEach(Consumer<UserProfile> action);
 }
@@ -2,26 +2,92 @@ package com.spotlight.platform.userprofile.api.core.profile.persistence;
 
 import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
-import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
-import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
 
-import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
+/**
+ * Keeps the profiles on the heap. The estimated footprint of the stored profiles, see {@link UserProfileFootprint}, is kept up to date
+ * on every write, so it can be watched without walking the store.
+ */
 public class UserProfileDaoInMemory implements UserProfileDao {
-    private final Map<UserId, UserProfile> storage = new ConcurrentHashMap<>();
+    private static final int ENTRY_BYTES = 64;
+
+    private final ConcurrentMap<UserId, UserProfile> storage = new ConcurrentHashMap<>();
+    private final LongAdder profileBytes = new LongAdder();
 
     @Override
     public Optional<UserProfile> get(UserId userId) {
         return Optional.ofNullable(storage.get(userId));
     }
 
+    @Override
+    public Map<UserId, UserProfile> getAll(Collection<UserId> userIds) {
+        Map<UserId, UserProfile> userProfiles = new HashMap<>(userIds.size() * 2);
+        for (UserId userId : userIds) {
+            var userProfile = storage.get(userId);
+            if (userProfile != null) {
+                userProfiles.put(userId, userProfile);
+            }
+        }
+        return userProfiles;
+    }
+
     @Override
     public void put(UserProfile userProfile) {
-        storage.put(userProfile.userId(), userProfile);
+        replaced(storage.put(userProfile.userId(), userProfile), userProfile);
+    }
+
+    @Override
+    public void putAll(Collection<UserProfile> userProfiles) {
+        for (UserProfile userProfile : userProfiles) {
+            replaced(storage.put(userProfile.userId(), userProfile), userProfile);
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+        while (true) {
+            var current = storage.get(userId);
+            if (current == null) {
+                return Optional.empty();
+            }
+            var updated = updater.apply(current);
+            if (storage.replace(userId, current, updated)) {
+                replaced(current, updated);
+                return Optional.of(updated);
+            }
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<UserProfile> action) {
+        storage.values().forEach(action);
+    }
+
+    /**
+     * @return number of stored profiles
+     */
+    public int size() {
+        return storage.size();
+    }
+
+    /**
+     * @return estimated bytes of heap held by the stored profiles and their entries in the store
+     */
+    public long retainedBytes() {
+        return profileBytes.sum() + (long) storage.size() * ENTRY_BYTES;
+    }
+
+    private void replaced(UserProfile previous, UserProfile current) {
+        long previousBytes = previous == null ? 0 : UserProfileFootprint.estimateBytes(previous);
+        profileBytes.add(UserProfileFootprint.estimateBytes(current) - previousBytes);
     }
 }
@@ -0,0 +1,32 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence;
+
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import java.util.Collection;
+
+/**
+ * Rough heap footprint of profiles in bytes, cheap enough to compute on every write. It is meant to be right within a small factor:
+ * fixed costs per profile, property and list element, plus the characters of string values.
+ */
+public final class UserProfileFootprint {
+    private static final int PROFILE_BYTES = 128;
+    private static final int PROPERTY_BYTES = 64;
+    private static final int LIST_ELEMENT_BYTES = 24;
+
+    private UserProfileFootprint() {
+    }
+
+    public static long estimateBytes(UserProfile userProfile) {
+        long bytes = PROFILE_BYTES;
+        for (UserProfilePropertyValue value : userProfile.userProfileProperties().values()) {
+            bytes += PROPERTY_BYTES;
+            if (value.isList()) {
+                bytes += (long) ((Collection<?>) value.getValue()).size() * LIST_ELEMENT_BYTES;
+            } else if (value.getValue() instanceof String string) {
+                bytes += string.length();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,159 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.cache;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spotlight.platform.userprofile.api.core.command.StripedUserLock;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileFootprint;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Keeps the hottest profiles of a slower {@link UserProfileDao} as decoded objects on the heap, so repeated reads and read-modify-write
+ * cycles of the same users skip the lookup and decoding of the backend.
+ * <p>
+ * The cache is bounded by the estimated heap footprint of the profiles and uses Caffeine's W-TinyLFU policy: a new profile is admitted
+ * only when it is requested more often than the one it would evict, so a scan over many cold users does not flush the hot ones.
+ * <p>
+ * Writes go through to the delegate before the cache is updated. Writes of one user are serialized, and a miss is loaded atomically
+ * with respect to writes of the same key, so the cache never holds an older version than the delegate.
+ * <p>
+ * The cache itself is write-through only. Write-behind comes from putting it in front of a
+ * {@link com.spotlight.platform.userprofile.api.core.profile.persistence.writebehind.UserProfileDaoWriteBehind}, which the application
+ * does when {@code storage.writeBehind.enabled} is set; writes then reach the dirty map at once and the store with the next flush.
+ */
+public class UserProfileDaoCached implements UserProfileDao, Managed {
+    private final UserProfileDao delegate;
+    private final Cache<UserId, UserProfile> cache;
+    private final StripedUserLock userLock = new StripedUserLock();
+
+    public UserProfileDaoCached(UserProfileDao delegate, long maximumWeight, MetricRegistry metrics) {
+        this(delegate, maximumWeight, metrics, ForkJoinPool.commonPool());
+    }
+
+    UserProfileDaoCached(UserProfileDao delegate, long maximumWeight, MetricRegistry metrics, Executor maintenanceExecutor) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((UserId userId, UserProfile userProfile) -> weigh(userProfile))
+                .executor(maintenanceExecutor)
+                .recordStats()
+                .build();
+        registerMetrics(metrics);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        cache.invalidateAll();
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.stop();
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> get(UserId userId) {
+        return Optional.ofNullable(cache.get(userId, key -> delegate.get(key).orElse(null)));
+    }
+
+    /**
+     * Serves the cached users and loads the missing ones from the delegate in one call. The users are locked while loading, so no write
+     * can slip between reading the delegate and caching the result.
+     */
+    @Override
+    public Map<UserId, UserProfile> getAll(Collection<UserId> userIds) {
+        Map<UserId, UserProfile> userProfiles = new HashMap<>(cache.getAllPresent(userIds));
+        var missing = userIds.stream().filter(userId -> !userProfiles.containsKey(userId)).distinct().toList();
+        if (!missing.isEmpty()) {
+            userLock.executeLocked(missing, () -> {
+                var loaded = delegate.getAll(missing);
+                cache.putAll(loaded);
+                userProfiles.putAll(loaded);
+                return null;
+            });
+        }
+        return userProfiles;
+    }
+
+    @Override
+    public void put(UserProfile userProfile) {
+        userLock.executeLocked(userProfile.userId(), () -> {
+            delegate.put(userProfile);
+            cache.put(userProfile.userId(), userProfile);
+            return null;
+        });
+    }
+
+    /**
+     * Writes the batch through in one call while holding the locks of all its users.
+     */
+    @Override
+    public void putAll(Collection<UserProfile> userProfiles) {
+        var userIds = userProfiles.stream().map(UserProfile::userId).toList();
+        userLock.executeLocked(userIds, () -> {
+            delegate.putAll(userProfiles);
+            userProfiles.forEach(userProfile -> cache.put(userProfile.userId(), userProfile));
+            return null;
+        });
+    }
+
+    /**
+     * Writes of one user are serialized, so the updater runs exactly once.
+     */
+    @Override
+    public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+        return userLock.executeLocked(userId, () -> get(userId).map(current -> {
+            var updated = updater.apply(current);
+            delegate.put(updated);
+            cache.put(userId, updated);
+            return updated;
+        }));
+    }
+
+    @Override
+    public void forEach(Consumer<UserProfile> action) {
+        delegate.forEach(action);
+    }
+
+    /**
+     * Rough heap footprint of the profile in bytes, see {@link UserProfileFootprint}; only its proportions matter for eviction.
+     */
+    static int weigh(UserProfile userProfile) {
+        return (int) Math.min(Integer.MAX_VALUE, UserProfileFootprint.estimateBytes(userProfile));
+    }
+
+    private void registerMetrics(MetricRegistry metrics) {
+        metrics.register(metricName("hits"), (Gauge<Long>) () -> cache.stats().hitCount());
+        metrics.register(metricName("misses"), (Gauge<Long>) () -> cache.stats().missCount());
+        metrics.register(metricName("hitRate"), (Gauge<Double>) () -> cache.stats().hitRate());
+        metrics.register(metricName("evictions"), (Gauge<Long>) () -> cache.stats().evictionCount());
+        metrics.register(metricName("evictedWeight"), (Gauge<Long>) () -> cache.stats().evictionWeight());
+        metrics.register(metricName("size"), (Gauge<Long>) cache::estimatedSize);
+        metrics.register(metricName("weight"), (Gauge<Long>) () -> cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L));
+    }
+
+    private static String metricName(String name) {
+        return MetricRegistry.name(UserProfileDaoCached.class, name);
+    }
+}
@@ -0,0 +1,202 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileBinaryCodec;
+import com.spotlight.platform.userprofile.api.model.common.AppendOnlyList;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Redo record of one profile write. A put stores the whole profile, an update only the properties that changed; a list which grew by
+ * appending is stored as the appended items together with the offset they were appended at.
+ * <p>
+ * Applying a record is idempotent: appends already contained in the list are skipped. Replaying records on top of a state which already
+ * includes some of them therefore converges to the same profile, which allows replay on top of snapshots taken while writers run.
+ */
+public final class JournalRecord {
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_UPDATE = 2;
+
+    private static final byte CHANGE_SET = 1;
+    private static final byte CHANGE_APPEND = 2;
+    private static final byte CHANGE_REMOVE = 3;
+
+    private final UserId userId;
+    private final UserProfile userProfile;
+    private final Instant latestUpdateTime;
+    private final List<Change> changes;
+
+    private JournalRecord(UserId userId, UserProfile userProfile, Instant latestUpdateTime, List<Change> changes) {
+        this.userId = userId;
+        this.userProfile = userProfile;
+        this.latestUpdateTime = latestUpdateTime;
+        this.changes = changes;
+    }
+
+    public static JournalRecord put(UserProfile userProfile) {
+        return new JournalRecord(userProfile.userId(), userProfile, null, List.of());
+    }
+
+    /**
+     * @return the record turning {@code previous} into {@code updated} or empty if both profiles are the same
+     */
+    public static Optional<JournalRecord> diff(UserProfile previous, UserProfile updated) {
+        var previousProperties = previous.userProfileProperties();
+        var updatedProperties = updated.userProfileProperties();
+        List<Change> changes = new ArrayList<>();
+        updatedProperties.forEach((name, value) -> {
+            var previousValue = previousProperties.get(name);
+            if (!value.equals(previousValue)) {
+                changes.add(changeOf(name, previousValue, value));
+            }
+        });
+        previousProperties.keySet().stream()
+                .filter(name -> !updatedProperties.containsKey(name))
+                .forEach(name -> changes.add(new Change(CHANGE_REMOVE, name, null, 0, List.of())));
+        if (changes.isEmpty() && Objects.equals(previous.latestUpdateTime(), updated.latestUpdateTime())) {
+            return Optional.empty();
+        }
+        return Optional.of(new JournalRecord(updated.userId(), null, updated.latestUpdateTime(), changes));
+    }
+
+    public static JournalRecord decode(byte[] payload) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+            if (type == TYPE_PUT) {
+                var userProfile = UserProfileBinaryCodec.readUserProfile(in);
+                return new JournalRecord(userProfile.userId(), userProfile, null, List.of());
+            }
+            if (type != TYPE_UPDATE) {
+                throw new IOException("Unknown journal record type " + type);
+            }
+            var userId = UserProfileBinaryCodec.readUserId(in);
+            var latestUpdateTime = UserProfileBinaryCodec.readInstant(in);
+            int size = in.readInt();
+            List<Change> changes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                changes.add(readChange(in));
+            }
+            return new JournalRecord(userId, null, latestUpdateTime, changes);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public byte[] encode() {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            if (userProfile != null) {
+                out.writeByte(TYPE_PUT);
+                UserProfileBinaryCodec.writeUserProfile(out, userProfile);
+            } else {
+                out.writeByte(TYPE_UPDATE);
+                UserProfileBinaryCodec.writeUserId(out, userId);
+                UserProfileBinaryCodec.writeInstant(out, latestUpdateTime);
+                out.writeInt(changes.size());
+                for (Change change : changes) {
+                    writeChange(out, change);
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param current the stored profile or {@code null} if there is none
+     * @return the profile after this record
+     */
+    public UserProfile applyTo(UserProfile current) {
+        if (userProfile != null) {
+            return userProfile;
+        }
+        var base = current != null ? current : new UserProfile(userId, latestUpdateTime, Map.of());
+        Map<UserProfilePropertyName, UserProfilePropertyValue> properties = new LinkedHashMap<>(base.userProfileProperties());
+        for (Change change : changes) {
+            switch (change.kind()) {
+                case CHANGE_SET -> properties.put(change.name(), change.value());
+                case CHANGE_REMOVE -> properties.remove(change.name());
+                default -> applyAppend(properties, change);
+            }
+        }
+        return new UserProfile(userId, latestUpdateTime, properties);
+    }
+
+    /**
+     * Appends only the items the list does not hold yet. A list shorter than the offset or a value which is not a list any more was
+     * replaced after this record was written; a later record of the journal restores it, so the append is skipped.
+     */
+    private static void applyAppend(Map<UserProfilePropertyName, UserProfilePropertyValue> properties, Change change) {
+        var current = properties.get(change.name());
+        if (current == null || !current.isList()) {
+            return;
+        }
+        int size = ((List<?>) current.getValue()).size();
+        int end = change.offset() + change.items().size();
+        if (size < change.offset() || size >= end) {
+            return;
+        }
+        properties.put(change.name(), current.append(change.items().subList(size - change.offset(), change.items().size())));
+    }
+
+    private static Change changeOf(UserProfilePropertyName name, UserProfilePropertyValue previousValue, UserProfilePropertyValue value) {
+        if (previousValue != null && previousValue.isList() && value.isList()
+                && previousValue.getValue() instanceof AppendOnlyList<?> previousList
+                && value.getValue() instanceof AppendOnlyList<?> list
+                && previousList.isPrefixOf(list)) {
+            return new Change(CHANGE_APPEND, name, null, previousList.size(), list.subList(previousList.size(), list.size()));
+        }
+        return new Change(CHANGE_SET, name, value, 0, List.of());
+    }
+
+    private static void writeChange(DataOutputStream out, Change change) throws IOException {
+        out.writeByte(change.kind());
+        UserProfileBinaryCodec.writePropertyName(out, change.name());
+        switch (change.kind()) {
+            case CHANGE_SET -> UserProfileBinaryCodec.writePropertyValue(out, change.value());
+            case CHANGE_APPEND -> {
+                out.writeInt(change.offset());
+                UserProfileBinaryCodec.writeList(out, change.items());
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static Change readChange(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        var name = UserProfileBinaryCodec.readPropertyName(in);
+        return switch (kind) {
+            case CHANGE_SET -> new Change(kind, name, UserProfileBinaryCodec.readPropertyValue(in), 0, List.of());
+            case CHANGE_APPEND -> {
+                int offset = in.readInt();
+                yield new Change(kind, name, null, offset, UserProfileBinaryCodec.readList(in));
+            }
+            case CHANGE_REMOVE -> new Change(kind, name, null, 0, List.of());
+            default -> throw new IOException("Unknown journal change " + kind);
+        };
+    }
+
+    private record Change(byte kind, UserProfilePropertyName name, UserProfilePropertyValue value, int offset, List<?> items) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.core.command.StripedUserLock;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Makes the writes of an in-memory DAO durable. Each write is recorded in the {@link UserProfileJournal} before it is applied to the
+ * delegate and the call returns only once the journal acknowledged the record; a record the journal refuses right away is not applied.
+ * <p>
+ * Records of one user are enqueued under a per-user lock in the same order in which they are applied, the wait for the disk happens
+ * outside of the lock so that concurrent writers share one sync.
+ * <p>
+ * Every {@code snapshotInterval} the whole store is written to a snapshot in the background and the journal segments it covers are
+ * deleted, so a restart loads the snapshot and replays only the journal written since. Writers are paused only for the moment it takes
+ * to enqueue a segment roll; the snapshot itself is taken from the live map while they run, which is safe because journal records
+ * replayed on top of a newer state converge to the same profile.
+ * <p>
+ * A delegate that is {@link Managed} itself is started before the state is loaded into it and stopped after the journal is closed.
+ */
+public class UserProfileDaoJournaled implements UserProfileDao, Managed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserProfileDaoJournaled.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private final UserProfileDao delegate;
+    private final UserProfileJournal journal;
+    private final UserProfileSnapshotStore snapshotStore;
+    private final Duration snapshotInterval;
+    private final StripedUserLock userLock = new StripedUserLock();
+    private ScheduledExecutorService snapshotScheduler;
+
+    public UserProfileDaoJournaled(UserProfileDao delegate, UserProfileJournal journal, UserProfileSnapshotStore snapshotStore,
+            Duration snapshotInterval) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.snapshotStore = snapshotStore;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.start();
+        }
+        long snapshotOffset = snapshotStore.load(delegate::put).orElse(0);
+        long records = journal.replay(snapshotOffset, payload -> apply(JournalRecord.decode(payload)));
+        journal.deleteSegmentsBefore(snapshotOffset);
+        LOGGER.info("Loaded snapshot at journal offset {} and replayed {} journal records", snapshotOffset, records);
+        journal.open();
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "user-profile-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotInBackground, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            snapshotScheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        journal.close();
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.stop();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current state and deletes the journal segments it makes obsolete.
+     */
+    public synchronized void snapshot() throws IOException {
+        long snapshotOffset = await(userLock.executeWithAllLocked(journal::rollSegment));
+        snapshotStore.write(snapshotOffset, delegate);
+        journal.deleteSegmentsBefore(snapshotOffset);
+        LOGGER.info("Wrote snapshot at journal offset {}", snapshotOffset);
+    }
+
+    @Override
+    public Optional<UserProfile> get(UserId userId) {
+        return delegate.get(userId);
+    }
+
+    @Override
+    public Map<UserId, UserProfile> getAll(Collection<UserId> userIds) {
+        return delegate.getAll(userIds);
+    }
+
+    @Override
+    public void put(UserProfile userProfile) {
+        putAll(List.of(userProfile));
+    }
+
+    /**
+     * Journals every profile as the difference to its stored version, so writing back a profile read and changed by the caller costs
+     * the same as the equivalent {@link #update}. The records of the whole batch are enqueued before waiting, so the batch shares as
+     * few syncs as the journal can manage.
+     */
+    @Override
+    public void putAll(Collection<UserProfile> userProfiles) {
+        await(putAllDeferringDurability(userProfiles));
+    }
+
+    /**
+     * Applies and enqueues the batch like {@link #putAll} and returns without waiting for the sync. The future fails right away when
+     * the journal refused a record; the profiles it accepted are applied nevertheless.
+     */
+    @Override
+    public CompletableFuture<Void> putAllDeferringDurability(Collection<UserProfile> userProfiles) {
+        var userIds = userProfiles.stream().map(UserProfile::userId).toList();
+        var pending = userLock.executeLocked(userIds, () -> {
+            Map<UserId, UserProfile> stored = new HashMap<>(delegate.getAll(userIds));
+            List<UserProfile> accepted = new ArrayList<>(userProfiles.size());
+            List<CompletableFuture<Long>> durable = new ArrayList<>(userProfiles.size());
+            for (UserProfile userProfile : userProfiles) {
+                var previous = stored.put(userProfile.userId(), userProfile);
+                var record = previous == null ? Optional.of(JournalRecord.put(userProfile)) : JournalRecord.diff(previous, userProfile);
+                if (record.isPresent()) {
+                    var appended = journal.append(record.get().encode());
+                    if (!appended.isCompletedExceptionally()) {
+                        accepted.add(userProfile);
+                    }
+                    durable.add(appended);
+                }
+            }
+            delegate.putAll(accepted);
+            return durable;
+        });
+        return pending.stream()
+                .filter(CompletableFuture::isCompletedExceptionally)
+                .findFirst()
+                .map(refused -> refused.<Void>thenApply(offset -> null))
+                .orElseGet(() -> CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)));
+    }
+
+    @Override
+    public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+        return await(updateDeferringDurability(userId, updater));
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserProfile>> updateDeferringDurability(UserId userId, UnaryOperator<UserProfile> updater) {
+        var pendingUpdate = userLock.executeLocked(userId, () -> delegate.get(userId).map(current -> {
+            var updated = updater.apply(current);
+            var durable = JournalRecord.diff(current, updated)
+                    .map(record -> journal.append(record.encode()))
+                    .orElseGet(() -> CompletableFuture.completedFuture(null));
+            if (!durable.isCompletedExceptionally()) {
+                delegate.put(updated);
+            }
+            return new PendingUpdate(updated, durable);
+        }));
+        return pendingUpdate.map(update -> update.durable().thenApply(offset -> Optional.of(update.userProfile())))
+                .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+    }
+
+    @Override
+    public void forEach(Consumer<UserProfile> action) {
+        delegate.forEach(action);
+    }
+
+    private void apply(JournalRecord record) {
+        delegate.put(record.applyTo(delegate.get(record.userId()).orElse(null)));
+    }
+
+    private void snapshotInBackground() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException exception) {
+            LOGGER.error("Snapshot failed, the journal keeps growing until the next one succeeds", exception);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private record PendingUpdate(UserProfile userProfile, CompletableFuture<Long> durable) {
+    }
+}
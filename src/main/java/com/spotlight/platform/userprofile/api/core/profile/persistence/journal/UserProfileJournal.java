@@ -0,0 +1,381 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.model.configuration.JournalConfiguration;
+import com.spotlight.platform.userprofile.api.model.configuration.JournalConfiguration.SyncMode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary log split into segment files named after the journal offset of their first byte. Every entry is framed as
+ * {@code [int length][int crc32c][payload]}.
+ * <p>
+ * Writes use group commit: callers only frame their entry and enqueue it, a single writer thread takes everything queued so far (up to
+ * {@code maxBatchSize} entries), writes it with one gathering {@link FileChannel#write(ByteBuffer[])} and forces the file once for the
+ * whole group. The more writers wait for the disk, the larger the groups get, so throughput does not drop with the cost of a sync.
+ * <p>
+ * Usage: {@link #replay(long, Consumer)} once, then {@link #open()}, then {@link #append(byte[])} from any thread, finally
+ * {@link #close()}.
+ */
+public class UserProfileJournal implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserProfileJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final PendingWrite CLOSE = new PendingWrite(null, null);
+
+    private final Path directory;
+    private final SyncMode syncMode;
+    private final long syncIntervalNanos;
+    private final int maxBatchSize;
+    private final long segmentSize;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean accepting;
+    private volatile boolean stopped;
+    private volatile IOException failure;
+    private Thread writer;
+    private FileChannel channel;
+    private long segmentBase;
+    private long replayedFrom;
+    private long unsyncedSince = -1;
+
+    public UserProfileJournal(JournalConfiguration configuration) {
+        this(Paths.get(configuration.getDirectory()), configuration.getSyncMode(), configuration.getSyncInterval().toJavaDuration(),
+                configuration.getMaxBatchSize(), configuration.getSegmentSize().toBytes());
+    }
+
+    public UserProfileJournal(Path directory, SyncMode syncMode, Duration syncInterval, int maxBatchSize, long segmentSize) {
+        this.directory = directory;
+        this.syncMode = syncMode;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.segmentSize = segmentSize;
+    }
+
+    public long replay(Consumer<byte[]> consumer) throws IOException {
+        return replay(0, consumer);
+    }
+
+    /**
+     * Passes the payload of every intact entry from the segment starting at {@code fromOffset} on to {@code consumer} in write order. A
+     * torn entry at the end of the last segment, left by a crash in the middle of a write, is cut off; corruption anywhere else fails the
+     * replay.
+     *
+     * @return number of replayed entries
+     */
+    public long replay(long fromOffset, Consumer<byte[]> consumer) throws IOException {
+        replayedFrom = fromOffset;
+        var segments = listSegments();
+        long entries = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            var segment = segments.get(i);
+            if (baseOffsetOf(segment) < fromOffset) {
+                continue;
+            }
+            try (var segmentChannel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                var buffer = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentChannel.size());
+                entries += readEntries(buffer, consumer);
+                int validLength = buffer.position();
+                if (validLength < buffer.limit()) {
+                    if (i < segments.size() - 1) {
+                        throw new IOException("Journal segment %s is corrupted at position %d".formatted(segment, validLength));
+                    }
+                    LOGGER.warn("Truncating torn entry at the end of journal segment {} at position {}", segment, validLength);
+                    segmentChannel.truncate(validLength);
+                    segmentChannel.force(true);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads entries until the end of the buffer or the first damaged entry, leaving the buffer positioned after the last intact one.
+     */
+    private static long readEntries(MappedByteBuffer buffer, Consumer<byte[]> consumer) {
+        long entries = 0;
+        var crc = new CRC32C();
+        while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                return entries;
+            }
+            var payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                return entries;
+            }
+            consumer.accept(payload);
+            entries++;
+        }
+        return entries;
+    }
+
+    /**
+     * Opens the last segment for appending, or a new one at the replayed offset if there is none at or above it, and starts the writer
+     * thread.
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        var segments = listSegments();
+        segmentBase = Math.max(replayedFrom, segments.isEmpty() ? 0 : baseOffsetOf(segments.get(segments.size() - 1)));
+        channel = openSegment(segmentBase);
+        writer = new Thread(this::writeLoop, "user-profile-journal-writer");
+        writer.setDaemon(true);
+        accepting = true;
+        writer.start();
+    }
+
+    /**
+     * Enqueues the payload for writing.
+     *
+     * @return future completed with the journal offset following the entry once the entry is durable according to the sync mode, or
+     *         failed if the journal can not write it
+     */
+    public CompletableFuture<Long> append(byte[] payload) {
+        if (!accepting) {
+            return CompletableFuture.failedFuture(notAcceptingException());
+        }
+        var crc = new CRC32C();
+        crc.update(payload);
+        var frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return enqueue(new PendingWrite(frame, new CompletableFuture<>()));
+    }
+
+    /**
+     * Starts a new segment after all entries enqueued so far. Everything appended before this call lies in segments below the returned
+     * offset, everything appended after it at or above.
+     *
+     * @return future completed with the base offset of the new segment
+     */
+    public CompletableFuture<Long> rollSegment() {
+        if (!accepting) {
+            return CompletableFuture.failedFuture(notAcceptingException());
+        }
+        return enqueue(new PendingWrite(null, new CompletableFuture<>()));
+    }
+
+    /**
+     * Deletes the segments which lie entirely below {@code offset}, an offset returned by {@link #rollSegment()}.
+     */
+    public void deleteSegmentsBefore(long offset) throws IOException {
+        for (Path segment : listSegments()) {
+            if (baseOffsetOf(segment) < offset) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting entries, writes and forces everything enqueued before and stops the writer thread.
+     */
+    @Override
+    public synchronized void close() throws IOException, InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        accepting = false;
+        queue.add(CLOSE);
+        writer.join();
+        writer = null;
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private CompletableFuture<Long> enqueue(PendingWrite write) {
+        queue.add(write);
+        if (stopped && queue.remove(write)) {
+            write.future().completeExceptionally(notAcceptingException());
+        }
+        return write.future();
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        try {
+            boolean closing = false;
+            while (!closing) {
+                var first = unsyncedSince < 0 ? queue.take() : pollUntil(unsyncedSince + syncIntervalNanos);
+                if (first == null) {
+                    channel.force(false);
+                    unsyncedSince = -1;
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                closing = processBatch(batch);
+                if (!closing) {
+                    batch.clear();
+                }
+            }
+            channel.force(false);
+        } catch (IOException exception) {
+            LOGGER.error("Journal write failed, no more entries are accepted", exception);
+            failure = exception;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            failure = new IOException("Journal writer interrupted", exception);
+        } finally {
+            accepting = false;
+            stopped = true;
+            batch.forEach(this::fail);
+            queue.forEach(this::fail);
+            queue.clear();
+        }
+    }
+
+    /**
+     * Writes the entries of the batch in groups separated by roll and close markers.
+     *
+     * @return whether the batch contained the close marker; entries after it are left unprocessed
+     */
+    private boolean processBatch(List<PendingWrite> batch) throws IOException {
+        int groupStart = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            var marker = batch.get(i);
+            if (marker.frame() != null) {
+                continue;
+            }
+            writeGroup(batch.subList(groupStart, i));
+            groupStart = i + 1;
+            if (marker == CLOSE) {
+                return true;
+            }
+            if (channel.position() > 0) {
+                rollSegment(channel.position());
+            }
+            marker.future().complete(segmentBase);
+        }
+        writeGroup(batch.subList(groupStart, batch.size()));
+        return false;
+    }
+
+    private void writeGroup(List<PendingWrite> writes) throws IOException {
+        if (writes.isEmpty()) {
+            return;
+        }
+        var ends = write(writes);
+        if (syncMode == SyncMode.BATCH) {
+            channel.force(false);
+        } else if (unsyncedSince < 0) {
+            unsyncedSince = System.nanoTime();
+        }
+        for (int i = 0; i < ends.length; i++) {
+            writes.get(i).future().complete(ends[i]);
+        }
+    }
+
+    private PendingWrite pollUntil(long deadlineNanos) throws InterruptedException {
+        long timeout = deadlineNanos - System.nanoTime();
+        return timeout > 0 ? queue.poll(timeout, TimeUnit.NANOSECONDS) : null;
+    }
+
+    /**
+     * @return journal offsets following each of the written entries
+     */
+    private long[] write(List<PendingWrite> writes) throws IOException {
+        var buffers = new ByteBuffer[writes.size()];
+        var ends = new long[writes.size()];
+        long length = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = writes.get(i).frame();
+            length += buffers[i].remaining();
+            ends[i] = length;
+        }
+        long position = channel.position();
+        if (position > 0 && position + length > segmentSize) {
+            rollSegment(position);
+            position = 0;
+        }
+        long written = 0;
+        while (written < length) {
+            written += channel.write(buffers);
+        }
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] += segmentBase + position;
+        }
+        return ends;
+    }
+
+    private void rollSegment(long position) throws IOException {
+        channel.force(false);
+        channel.close();
+        segmentBase += position;
+        channel = openSegment(segmentBase);
+    }
+
+    private FileChannel openSegment(long baseOffset) throws IOException {
+        var segmentChannel = FileChannel.open(directory.resolve(segmentName(baseOffset)), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segmentChannel.position(segmentChannel.size());
+        return segmentChannel;
+    }
+
+    private void fail(PendingWrite write) {
+        if (write != CLOSE) {
+            write.future().completeExceptionally(failure != null ? failure : notAcceptingException());
+        }
+    }
+
+    private IllegalStateException notAcceptingException() {
+        return new IllegalStateException("Journal is not open");
+    }
+
+    private List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(UserProfileJournal::isSegment).sorted().toList();
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        var name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long baseOffsetOf(Path segment) {
+        var name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static String segmentName(long baseOffset) {
+        return SEGMENT_PREFIX + "%020d".formatted(baseOffset) + SEGMENT_SUFFIX;
+    }
+
+    /**
+     * An entry to write, or a marker to roll the segment when {@code frame} is {@code null}.
+     */
+    private record PendingWrite(ByteBuffer frame, CompletableFuture<Long> future) {
+    }
+}
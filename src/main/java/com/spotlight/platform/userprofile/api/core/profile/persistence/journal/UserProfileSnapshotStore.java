@@ -0,0 +1,223 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.ByteBufferDataInput;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileBinaryCodec;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compacted images of the whole profile store, named after the journal offset from which the journal has to be replayed on top of them.
+ * <p>
+ * File layout: {@code [int magic][long journalOffset]} followed by {@code [int length][profile]} entries, closed by
+ * {@code [int 0][long count][int crc32c]} where the checksum covers everything before it. A snapshot is written to a temporary file,
+ * forced and atomically renamed, so a crash never leaves a partial snapshot behind. Loading maps the file in windows of at most 1 GiB
+ * and decodes the profiles straight from the mapping.
+ */
+public class UserProfileSnapshotStore {
+    private static final int MAGIC = 0x55505331;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final long LOAD_WINDOW_SIZE = 1L << 30;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final long loadWindowSize;
+
+    public UserProfileSnapshotStore(Path directory) {
+        this(directory, LOAD_WINDOW_SIZE);
+    }
+
+    UserProfileSnapshotStore(Path directory, long loadWindowSize) {
+        this.directory = directory;
+        this.loadWindowSize = loadWindowSize;
+    }
+
+    /**
+     * Passes every profile of the latest snapshot to {@code consumer}.
+     *
+     * @return journal offset the snapshot was taken at, or empty if there is no snapshot
+     */
+    public OptionalLong load(Consumer<UserProfile> consumer) throws IOException {
+        var snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        var snapshot = snapshots.get(snapshots.size() - 1);
+        try (var channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return OptionalLong.of(load(snapshot, new MappedReader(channel, loadWindowSize), consumer));
+        }
+    }
+
+    /**
+     * Writes all profiles of {@code source} as the snapshot taken at {@code journalOffset} and deletes older snapshots.
+     */
+    public void write(long journalOffset, UserProfileDao source) throws IOException {
+        Files.createDirectories(directory);
+        var snapshot = directory.resolve(snapshotName(journalOffset));
+        var temporary = directory.resolve(snapshotName(journalOffset) + TEMPORARY_SUFFIX);
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var crc = new CRC32C();
+            var out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    OUTPUT_BUFFER_SIZE), crc));
+            out.writeInt(MAGIC);
+            out.writeLong(journalOffset);
+            long count = writeProfiles(out, source);
+            out.writeInt(0);
+            out.writeLong(count);
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        for (Path older : listSnapshots()) {
+            if (!older.equals(snapshot)) {
+                Files.delete(older);
+            }
+        }
+    }
+
+    /**
+     * Makes the rename durable before the journal segments covered by the snapshot are deleted.
+     */
+    private void syncDirectory() throws IOException {
+        try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static long writeProfiles(DataOutputStream out, UserProfileDao source) throws IOException {
+        var entry = new ByteArrayOutputStream();
+        var entryOut = new DataOutputStream(entry);
+        long[] count = {0};
+        try {
+            source.forEach(userProfile -> {
+                try {
+                    entry.reset();
+                    UserProfileBinaryCodec.writeUserProfile(entryOut, userProfile);
+                    out.writeInt(entry.size());
+                    entry.writeTo(out);
+                    count[0]++;
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        return count[0];
+    }
+
+    private static long load(Path snapshot, MappedReader reader, Consumer<UserProfile> consumer) throws IOException {
+        var crc = new CRC32C();
+        var header = checked(reader.next(HEADER_SIZE), crc);
+        if (header.getInt() != MAGIC) {
+            throw corrupted(snapshot);
+        }
+        long journalOffset = header.getLong();
+        long count = 0;
+        int length;
+        while ((length = checked(reader.next(Integer.BYTES), crc).getInt()) != 0) {
+            if (length < 0) {
+                throw corrupted(snapshot);
+            }
+            consumer.accept(decode(snapshot, checked(reader.next(length), crc)));
+            count++;
+        }
+        long expectedCount = checked(reader.next(Long.BYTES), crc).getLong();
+        if (expectedCount != count || reader.next(Integer.BYTES).getInt() != (int) crc.getValue()) {
+            throw corrupted(snapshot);
+        }
+        return journalOffset;
+    }
+
+    private static UserProfile decode(Path snapshot, ByteBuffer entry) throws IOException {
+        try {
+            return UserProfileBinaryCodec.readUserProfile(new ByteBufferDataInput(entry));
+        } catch (RuntimeException exception) {
+            throw new IOException("Snapshot %s is corrupted".formatted(snapshot), exception);
+        }
+    }
+
+    private static ByteBuffer checked(ByteBuffer buffer, CRC32C crc) {
+        crc.update(buffer.duplicate());
+        return buffer;
+    }
+
+    private static IOException corrupted(Path snapshot) {
+        return new IOException("Snapshot %s is corrupted".formatted(snapshot));
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(UserProfileSnapshotStore::isSnapshot).sorted().toList();
+        }
+    }
+
+    private static boolean isSnapshot(Path path) {
+        var name = path.getFileName().toString();
+        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+    }
+
+    private static String snapshotName(long journalOffset) {
+        return SNAPSHOT_PREFIX + "%020d".formatted(journalOffset) + SNAPSHOT_SUFFIX;
+    }
+
+    /**
+     * Sequential reader over a file mapped window by window; a window is remapped at the current position when the next read does not
+     * fit into it.
+     */
+    private static final class MappedReader {
+        private final FileChannel channel;
+        private final long windowSize;
+        private final long size;
+        private long windowStart;
+        private ByteBuffer window = ByteBuffer.allocate(0);
+
+        private MappedReader(FileChannel channel, long windowSize) throws IOException {
+            this.channel = channel;
+            this.windowSize = windowSize;
+            this.size = channel.size();
+        }
+
+        private ByteBuffer next(int length) throws IOException {
+            if (window.remaining() < length) {
+                long position = windowStart + window.position();
+                if (position + length > size) {
+                    throw new EOFException("Unexpected end of snapshot");
+                }
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(windowSize, length), size - position));
+            }
+            var slice = window.slice(window.position(), length);
+            window.position(window.position() + length);
+            return slice;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.mapped;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap slots holding encoded profiles, carved out of memory-mapped segment files. Slot sizes are powers of two starting at
+ * {@link #SLOT_ALIGNMENT} bytes; freed slots are reused for the same size class, so rewriting profiles does not grow the files.
+ * <p>
+ * Slot layout: {@code [int sequence][byte sizeClass][3 bytes padding][int length][payload]}. Writes are guarded by the sequence as a
+ * seqlock: it is odd while a write is in progress, and a reader retries until it copied the payload between two reads of the same even
+ * sequence. Readers therefore never block, and a writer only needs to be exclusive with other writers of the same slot.
+ */
+class MappedProfileSlots {
+    static final int SLOT_ALIGNMENT = 64;
+
+    private static final String SEGMENT_PREFIX = "profiles-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int SIZE_CLASS_OFFSET = 4;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int HEADER_SIZE = 12;
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long[][] freeSlots = new long[Integer.SIZE][];
+    private final int[] freeSlotCounts = new int[Integer.SIZE];
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int nextOffset;
+    private long allocatedBytes;
+
+    MappedProfileSlots(Path directory, int segmentSize) {
+        if (segmentSize % SLOT_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + SLOT_ALIGNMENT);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Removes segment files left over by a previous run. The slots only back the in-memory view of the store, they are not recovered.
+     */
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        deleteSegmentFiles();
+        segments = new MappedByteBuffer[0];
+        Arrays.fill(freeSlotCounts, 0);
+        allocatedBytes = 0;
+    }
+
+    synchronized void close() throws IOException {
+        segments = new MappedByteBuffer[0];
+        deleteSegmentFiles();
+    }
+
+    /**
+     * @return address of a slot with room for a payload of {@code length} bytes; addresses are multiples of {@link #SLOT_ALIGNMENT}
+     *         and never 0
+     */
+    synchronized long allocate(int length) throws IOException {
+        int sizeClass = sizeClassFor(length);
+        if (freeSlotCounts[sizeClass] > 0) {
+            return freeSlots[sizeClass][--freeSlotCounts[sizeClass]];
+        }
+        int slotSize = slotSize(sizeClass);
+        if (segments.length == 0 || nextOffset + slotSize > segmentSize) {
+            addSegment();
+        }
+        long address = (long) (segments.length - 1) * segmentSize + nextOffset;
+        segment(address).put(offset(address) + SIZE_CLASS_OFFSET, (byte) sizeClass);
+        nextOffset += slotSize;
+        allocatedBytes += slotSize;
+        return address;
+    }
+
+    synchronized void free(long address) {
+        int sizeClass = sizeClassOf(address);
+        var slots = freeSlots[sizeClass];
+        if (slots == null || slots.length == freeSlotCounts[sizeClass]) {
+            slots = Arrays.copyOf(slots == null ? new long[0] : slots, Math.max(16, freeSlotCounts[sizeClass] * 2));
+            freeSlots[sizeClass] = slots;
+        }
+        slots[freeSlotCounts[sizeClass]++] = address;
+    }
+
+    boolean fits(long address, int length) {
+        return length <= slotSize(sizeClassOf(address)) - HEADER_SIZE;
+    }
+
+    /**
+     * Overwrites the payload of the slot. Callers must not write the same slot concurrently.
+     */
+    void write(long address, byte[] payload) {
+        var segment = segment(address);
+        int offset = offset(address);
+        int sequence = (int) INT.getVolatile(segment, offset + SEQUENCE_OFFSET);
+        INT.setVolatile(segment, offset + SEQUENCE_OFFSET, sequence + 1);
+        VarHandle.storeStoreFence();
+        segment.putInt(offset + LENGTH_OFFSET, payload.length);
+        segment.put(offset + HEADER_SIZE, payload, 0, payload.length);
+        INT.setRelease(segment, offset + SEQUENCE_OFFSET, sequence + 2);
+    }
+
+    /**
+     * @return copy of a payload the slot held at one point in time, never a mix of two writes
+     */
+    byte[] read(long address) {
+        var segment = segment(address);
+        int offset = offset(address);
+        int capacity = slotSize(sizeClassOf(address)) - HEADER_SIZE;
+        while (true) {
+            int sequence = (int) INT.getAcquire(segment, offset + SEQUENCE_OFFSET);
+            if ((sequence & 1) == 0) {
+                int length = segment.getInt(offset + LENGTH_OFFSET);
+                if (length >= 0 && length <= capacity) {
+                    var payload = new byte[length];
+                    segment.get(offset + HEADER_SIZE, payload, 0, length);
+                    VarHandle.loadLoadFence();
+                    if ((int) INT.getVolatile(segment, offset + SEQUENCE_OFFSET) == sequence) {
+                        return payload;
+                    }
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private void addSegment() throws IOException {
+        var file = directory.resolve(SEGMENT_PREFIX + "%05d".formatted(segments.length) + SEGMENT_SUFFIX);
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var extended = Arrays.copyOf(segments, segments.length + 1);
+            extended[segments.length] = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segments = extended;
+        }
+        nextOffset = segments.length == 1 ? SLOT_ALIGNMENT : 0;
+    }
+
+    private void deleteSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(MappedProfileSlots::isSegment).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private int sizeClassFor(int length) {
+        int slotSize = Math.max(SLOT_ALIGNMENT, Integer.highestOneBit(Math.max(1, length + HEADER_SIZE - 1)) << 1);
+        if (slotSize > segmentSize || slotSize <= 0) {
+            throw new IllegalArgumentException("Profile of %d bytes does not fit into a segment".formatted(length));
+        }
+        return Integer.numberOfTrailingZeros(slotSize / SLOT_ALIGNMENT);
+    }
+
+    private int sizeClassOf(long address) {
+        return segment(address).get(offset(address) + SIZE_CLASS_OFFSET);
+    }
+
+    private static int slotSize(int sizeClass) {
+        return SLOT_ALIGNMENT << sizeClass;
+    }
+
+    private MappedByteBuffer segment(long address) {
+        return segments[(int) (address / segmentSize)];
+    }
+
+    private int offset(long address) {
+        return (int) (address % segmentSize);
+    }
+
+    private static boolean isSegment(Path path) {
+        var name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+}
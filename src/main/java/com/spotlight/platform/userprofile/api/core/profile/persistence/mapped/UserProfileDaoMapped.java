@@ -0,0 +1,318 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.mapped;
+
+import com.spotlight.platform.userprofile.api.core.command.StripedUserLock;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.ByteBufferDataInput;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileBinaryCodec;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.configuration.MappedStorageConfiguration;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Keeps profiles off the Java heap: every profile is stored encoded in a {@link MappedProfileSlots} slot and decoded only when it is
+ * read, so the heap holds neither the profiles nor one object per user. Users are found through an open-addressing table in direct
+ * memory whose entries pack the hash of the {@link UserId} with the address of its slot.
+ * <p>
+ * Reads take no lock. Writes of one user are serialized by a per-user lock; a profile is rewritten in place while it fits its slot and
+ * moved to a larger one otherwise. Inserting users and moving slots changes the table under a single lock, which also covers growing it.
+ * <p>
+ * The mapped files are scratch space only and are deleted on {@link #stop()}; durability comes from wrapping the store in the journal.
+ */
+public class UserProfileDaoMapped implements UserProfileDao, Managed {
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    /**
+     * The largest table whose byte size, {@code capacity * Long.BYTES}, still fits the int that indexes a {@link ByteBuffer}.
+     */
+    static final int MAX_TABLE_CAPACITY = 1 << 27;
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    private final MappedProfileSlots slots;
+    private final int initialCapacity;
+    private final StripedUserLock userLock = new StripedUserLock();
+    private final Object tableLock = new Object();
+    private volatile Table table;
+    private int size;
+
+    public UserProfileDaoMapped(MappedStorageConfiguration configuration) {
+        this(Paths.get(configuration.getDirectory()), Math.toIntExact(configuration.getSegmentSize().toBytes()),
+                configuration.getExpectedProfiles());
+    }
+
+    public UserProfileDaoMapped(Path directory, int segmentSize, int expectedProfiles) {
+        this.slots = new MappedProfileSlots(directory, segmentSize);
+        this.initialCapacity = capacityFor(expectedProfiles);
+    }
+
+    @Override
+    public void start() throws IOException {
+        synchronized (tableLock) {
+            slots.open();
+            table = new Table(initialCapacity);
+            size = 0;
+        }
+    }
+
+    @Override
+    public void stop() throws IOException {
+        synchronized (tableLock) {
+            table = null;
+            slots.close();
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> get(UserId userId) {
+        return Optional.ofNullable(find(userId, true).profile());
+    }
+
+    @Override
+    public void put(UserProfile userProfile) {
+        userLock.executeLocked(userProfile.userId(), () -> {
+            store(userProfile, find(userProfile.userId(), false).address());
+            return null;
+        });
+    }
+
+    /**
+     * Writes of one user are serialized, so the updater runs exactly once.
+     */
+    @Override
+    public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+        return userLock.executeLocked(userId, () -> {
+            var current = find(userId, true);
+            if (current.profile() == null) {
+                return Optional.empty();
+            }
+            var updated = updater.apply(current.profile());
+            store(updated, current.address());
+            return Optional.of(updated);
+        });
+    }
+
+    @Override
+    public void forEach(Consumer<UserProfile> action) {
+        var current = started();
+        for (int position = 0; position < current.capacity(); position++) {
+            long entry = current.get(position);
+            if (entry != 0) {
+                action.accept(decode(slots.read(addressOf(entry))));
+            }
+        }
+    }
+
+    /**
+     * @return number of stored profiles
+     */
+    public int size() {
+        synchronized (tableLock) {
+            return size;
+        }
+    }
+
+    /**
+     * @return bytes of mapped memory handed out to profiles, including the unused tail of every slot
+     */
+    public long allocatedBytes() {
+        return slots.allocatedBytes();
+    }
+
+    private void store(UserProfile userProfile, long currentAddress) {
+        var payload = encode(userProfile);
+        if (currentAddress != 0 && slots.fits(currentAddress, payload.length)) {
+            slots.write(currentAddress, payload);
+            return;
+        }
+        long address = allocate(payload.length);
+        try {
+            slots.write(address, payload);
+            index(userProfile.userId(), address);
+        } catch (RuntimeException exception) {
+            slots.free(address);
+            throw exception;
+        }
+        if (currentAddress != 0) {
+            slots.free(currentAddress);
+        }
+    }
+
+    private void index(UserId userId, long address) {
+        synchronized (tableLock) {
+            int hash = hash(userId);
+            var current = started();
+            int position = hash & current.mask();
+            long entry;
+            while ((entry = current.get(position)) != 0 && !(hashOf(entry) == hash && userIdAt(addressOf(entry)).equals(userId))) {
+                position = (position + 1) & current.mask();
+            }
+            if (entry == 0 && size + 1 > current.capacity() * MAX_LOAD_FACTOR) {
+                table = current.grow();
+                position = hash & table.mask();
+                while (table.get(position) != 0) {
+                    position = (position + 1) & table.mask();
+                }
+                current = table;
+            }
+            current.set(position, entryOf(hash, address));
+            if (entry == 0) {
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Looks the user up without locking. A concurrent writer may move the slot and hand the old one to another user in the meantime,
+     * so a hash match is confirmed by the user id stored in the slot and the entry is re-read when it changed under the lookup.
+     */
+    private Lookup find(UserId userId, boolean decode) {
+        int hash = hash(userId);
+        while (true) {
+            var current = started();
+            int position = hash & current.mask();
+            long entry;
+            while ((entry = current.get(position)) != 0) {
+                if (hashOf(entry) == hash) {
+                    long address = addressOf(entry);
+                    var payload = slots.read(address);
+                    var profile = decode ? decode(payload) : null;
+                    if ((decode ? profile.userId() : decodeUserId(payload)).equals(userId)) {
+                        return new Lookup(address, profile);
+                    }
+                    if (current.get(position) != entry) {
+                        continue;
+                    }
+                }
+                position = (position + 1) & current.mask();
+            }
+            if (current == table) {
+                return Lookup.MISSING;
+            }
+        }
+    }
+
+    private long allocate(int length) {
+        try {
+            return slots.allocate(length);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private Table started() {
+        var current = table;
+        if (current == null) {
+            throw new IllegalStateException("Mapped profile store is not started");
+        }
+        return current;
+    }
+
+    private UserId userIdAt(long address) {
+        return decodeUserId(slots.read(address));
+    }
+
+    private static byte[] encode(UserProfile userProfile) {
+        var bytes = new ByteArrayOutputStream();
+        try {
+            UserProfileBinaryCodec.writeUserProfile(new DataOutputStream(bytes), userProfile);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static UserProfile decode(byte[] payload) {
+        try {
+            return UserProfileBinaryCodec.readUserProfile(new ByteBufferDataInput(ByteBuffer.wrap(payload)));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static UserId decodeUserId(byte[] payload) {
+        try {
+            return UserProfileBinaryCodec.readUserId(new ByteBufferDataInput(ByteBuffer.wrap(payload)));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static int hash(UserId userId) {
+        int hash = userId.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long entryOf(int hash, long address) {
+        return ((long) hash << Integer.SIZE) | (address / MappedProfileSlots.SLOT_ALIGNMENT);
+    }
+
+    private static int hashOf(long entry) {
+        return (int) (entry >>> Integer.SIZE);
+    }
+
+    private static long addressOf(long entry) {
+        return (entry & 0xFFFFFFFFL) * MappedProfileSlots.SLOT_ALIGNMENT;
+    }
+
+    static int capacityFor(int expectedProfiles) {
+        long capacity = Long.highestOneBit(Math.max(1, (long) Math.ceil(expectedProfiles / MAX_LOAD_FACTOR)) - 1) << 1;
+        return (int) Math.min(MAX_TABLE_CAPACITY, Math.max(16, capacity));
+    }
+
+    private record Lookup(long address, UserProfile profile) {
+        private static final Lookup MISSING = new Lookup(0, null);
+    }
+
+    /**
+     * Entries are 0 when free and never removed, so a probe ends at the first free entry.
+     */
+    private record Table(ByteBuffer entries, int capacity) {
+        private Table(int capacity) {
+            this(ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()), capacity);
+        }
+
+        private int mask() {
+            return capacity - 1;
+        }
+
+        private long get(int position) {
+            return (long) LONG.getAcquire(entries, position * Long.BYTES);
+        }
+
+        private void set(int position, long entry) {
+            LONG.setRelease(entries, position * Long.BYTES, entry);
+        }
+
+        private Table grow() {
+            if (capacity == MAX_TABLE_CAPACITY) {
+                throw new IllegalStateException("Mapped profile store is full");
+            }
+            var grown = new Table(capacity * 2);
+            for (int position = 0; position < capacity; position++) {
+                long entry = get(position);
+                if (entry != 0) {
+                    int target = hashOf(entry) & grown.mask();
+                    while (grown.get(target) != 0) {
+                        target = (target + 1) & grown.mask();
+                    }
+                    grown.set(target, entry);
+                }
+            }
+            return grown;
+        }
+    }
+}
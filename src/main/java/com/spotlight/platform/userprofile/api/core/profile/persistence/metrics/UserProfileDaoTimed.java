@@ -0,0 +1,144 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingWindowReservoir;
+import com.codahale.metrics.Timer;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Times every call to the wrapped {@link UserProfileDao}, failed ones included, with a timer per method named
+ * {@code UserProfileDaoTimed.<method>}. {@link #forEach} is not timed, it is a scan rather than a request. Writes deferring durability
+ * count towards {@code putAll} and {@code update}, timed until they return rather than until they are durable.
+ * <p>
+ * Timing allocates nothing: the calls are bracketed inline instead of through a lambda, and the timers keep the latest
+ * {@value #RESERVOIR_SIZE} measurements in a fixed array.
+ */
+public class UserProfileDaoTimed implements UserProfileDao, Managed {
+    static final int RESERVOIR_SIZE = 1028;
+
+    private final UserProfileDao delegate;
+    private final Timer getTime;
+    private final Timer getAllTime;
+    private final Timer putTime;
+    private final Timer putAllTime;
+    private final Timer updateTime;
+
+    public UserProfileDaoTimed(UserProfileDao delegate, MetricRegistry metrics) {
+        this.delegate = delegate;
+        getTime = timer(metrics, "get");
+        getAllTime = timer(metrics, "getAll");
+        putTime = timer(metrics, "put");
+        putAllTime = timer(metrics, "putAll");
+        updateTime = timer(metrics, "update");
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.stop();
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> get(UserId userId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.get(userId);
+        } finally {
+            stop(getTime, start);
+        }
+    }
+
+    @Override
+    public Map<UserId, UserProfile> getAll(Collection<UserId> userIds) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAll(userIds);
+        } finally {
+            stop(getAllTime, start);
+        }
+    }
+
+    @Override
+    public void put(UserProfile userProfile) {
+        long start = System.nanoTime();
+        try {
+            delegate.put(userProfile);
+        } finally {
+            stop(putTime, start);
+        }
+    }
+
+    @Override
+    public void putAll(Collection<UserProfile> userProfiles) {
+        long start = System.nanoTime();
+        try {
+            delegate.putAll(userProfiles);
+        } finally {
+            stop(putAllTime, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> putAllDeferringDurability(Collection<UserProfile> userProfiles) {
+        long start = System.nanoTime();
+        try {
+            return delegate.putAllDeferringDurability(userProfiles);
+        } finally {
+            stop(putAllTime, start);
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(userId, updater);
+        } finally {
+            stop(updateTime, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserProfile>> updateDeferringDurability(UserId userId, UnaryOperator<UserProfile> updater) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateDeferringDurability(userId, updater);
+        } finally {
+            stop(updateTime, start);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<UserProfile> action) {
+        delegate.forEach(action);
+    }
+
+    private static void stop(Timer timer, long startNanos) {
+        timer.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(MetricRegistry metrics, String method) {
+        return metrics.timer(MetricRegistry.name(UserProfileDaoTimed.class, method),
+                () -> new Timer(new SlidingWindowReservoir(RESERVOIR_SIZE)));
+    }
+}
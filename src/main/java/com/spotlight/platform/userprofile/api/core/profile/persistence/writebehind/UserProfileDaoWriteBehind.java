@@ -0,0 +1,192 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.writebehind;
+
+import com.spotlight.platform.userprofile.api.core.command.StripedUserLock;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Defers writes to a slower {@link UserProfileDao}. A write only marks the profile dirty; every {@code flushInterval} the dirty
+ * profiles are handed to {@link UserProfileDao#putAll} in batches of at most {@code maxBatchSize}, so any number of updates of one user
+ * between two flushes cost a single write of its latest version. Reads see dirty profiles before they are flushed.
+ * <p>
+ * Once {@code maxPendingProfiles} profiles are dirty the writer flushes itself instead of waiting for the interval, which bounds the
+ * memory held by unflushed profiles. A failed flush keeps the profiles dirty for the next one. {@link #stop()} drains everything.
+ * <p>
+ * Profiles that are not flushed yet are lost on a crash unless the store is wrapped in the journal.
+ * <p>
+ * It pays off only in front of a store whose writes are expensive, such as a remote one. The in-memory and mapped stores write about
+ * as fast as the dirty map, so it is off unless {@code storage.writeBehind.enabled} is set.
+ */
+public class UserProfileDaoWriteBehind implements UserProfileDao, Managed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserProfileDaoWriteBehind.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private final UserProfileDao delegate;
+    private final Duration flushInterval;
+    private final int maxBatchSize;
+    private final int maxPendingProfiles;
+    private final ConcurrentMap<UserId, UserProfile> dirty = new ConcurrentHashMap<>();
+    private final StripedUserLock userLock = new StripedUserLock();
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService flushScheduler;
+
+    public UserProfileDaoWriteBehind(UserProfileDao delegate, Duration flushInterval, int maxBatchSize, int maxPendingProfiles) {
+        this.delegate = delegate;
+        this.flushInterval = flushInterval;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPendingProfiles = maxPendingProfiles;
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.start();
+        }
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "user-profile-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        flushScheduler.scheduleWithFixedDelay(this::flushInBackground, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (flushScheduler != null) {
+            flushScheduler.shutdown();
+            flushScheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        flush();
+        if (delegate instanceof Managed managedDelegate) {
+            managedDelegate.stop();
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> get(UserId userId) {
+        var pending = dirty.get(userId);
+        return pending != null ? Optional.of(pending) : delegate.get(userId);
+    }
+
+    @Override
+    public Map<UserId, UserProfile> getAll(Collection<UserId> userIds) {
+        Map<UserId, UserProfile> userProfiles = new HashMap<>(userIds.size() * 2);
+        List<UserId> clean = new ArrayList<>(userIds.size());
+        for (UserId userId : userIds) {
+            var pending = dirty.get(userId);
+            if (pending != null) {
+                userProfiles.put(userId, pending);
+            } else {
+                clean.add(userId);
+            }
+        }
+        if (!clean.isEmpty()) {
+            userProfiles.putAll(delegate.getAll(clean));
+        }
+        return userProfiles;
+    }
+
+    @Override
+    public void put(UserProfile userProfile) {
+        userLock.executeLocked(userProfile.userId(), () -> dirty.put(userProfile.userId(), userProfile));
+        flushIfTooManyPending();
+    }
+
+    /**
+     * Writes of one user are serialized, so the updater runs exactly once.
+     */
+    @Override
+    public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+        var updated = userLock.executeLocked(userId, () -> get(userId).map(current -> {
+            var userProfile = updater.apply(current);
+            dirty.put(userId, userProfile);
+            return userProfile;
+        }));
+        flushIfTooManyPending();
+        return updated;
+    }
+
+    /**
+     * Visits the delegate with the dirty versions substituted, then the dirty profiles the delegate does not know yet. Flushes wait
+     * until the iteration is done, so no profile moves from one side to the other under it.
+     */
+    @Override
+    public void forEach(Consumer<UserProfile> action) {
+        synchronized (flushLock) {
+            delegate.forEach(userProfile -> action.accept(dirty.getOrDefault(userProfile.userId(), userProfile)));
+            dirty.forEach((userId, userProfile) -> {
+                if (delegate.get(userId).isEmpty()) {
+                    action.accept(userProfile);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return number of profiles written but not flushed yet
+     */
+    public long pendingProfiles() {
+        return dirty.size();
+    }
+
+    /**
+     * Writes every currently dirty profile to the delegate. A profile written again while the flush runs stays dirty.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Map.Entry<UserId, UserProfile>> batch = new ArrayList<>(Math.min(maxBatchSize, dirty.size()));
+            for (Map.Entry<UserId, UserProfile> entry : dirty.entrySet()) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                if (batch.size() == maxBatchSize) {
+                    flushBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                flushBatch(batch);
+            }
+        }
+    }
+
+    private void flushBatch(List<Map.Entry<UserId, UserProfile>> batch) {
+        delegate.putAll(batch.stream().map(Map.Entry::getValue).toList());
+        batch.forEach(entry -> dirty.computeIfPresent(entry.getKey(),
+                (userId, userProfile) -> userProfile == entry.getValue() ? null : userProfile));
+    }
+
+    private void flushIfTooManyPending() {
+        if (dirty.size() >= maxPendingProfiles) {
+            flush();
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (RuntimeException exception) {
+            LOGGER.error("Flushing {} pending profiles failed, retrying with the next flush", dirty.size(), exception);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.spotlight.platform.userprofile.api.core.server;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty thread pool that runs every task on a new virtual thread. A request blocked on I/O parks its virtual thread instead of holding
+ * one of a fixed number of platform threads, so the number of requests in flight is no longer bounded by the size of the pool.
+ * <p>
+ * Virtual threads are daemon threads. While the pool is started it keeps one platform thread alive, the role the workers of Jetty's
+ * own pool play otherwise, so the JVM does not exit under a running server.
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadPool.class);
+
+    private final ThreadFactory threadFactory;
+    private final AtomicInteger threads = new AtomicInteger();
+    private final AtomicInteger peakThreads = new AtomicInteger();
+    private volatile CountDownLatch stopped = new CountDownLatch(1);
+
+    public VirtualThreadPool(String name, MetricRegistry metrics) {
+        this.threadFactory = Thread.ofVirtual().name(name + "-", 0).factory();
+        metrics.register(metricName(name, "threads"), (Gauge<Integer>) this::getThreads);
+        metrics.register(metricName(name, "peakThreads"), (Gauge<Integer>) this::getPeakThreads);
+    }
+
+    @Override
+    protected void doStart() {
+        if (stopped.getCount() == 0) {
+            stopped = new CountDownLatch(1);
+        }
+        var keepAlive = new Thread(this::joinUninterruptibly, "virtual-thread-pool-keep-alive");
+        keepAlive.setDaemon(false);
+        keepAlive.start();
+    }
+
+    @Override
+    protected void doStop() {
+        stopped.countDown();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        threadFactory.newThread(() -> run(task)).start();
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * @return number of tasks running right now
+     */
+    @Override
+    public int getThreads() {
+        return threads.get();
+    }
+
+    /**
+     * A virtual thread is started per task, so none is ever idle.
+     */
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    /**
+     * @return highest number of tasks that ran at the same time since the pool was created
+     */
+    public int getPeakThreads() {
+        return peakThreads.get();
+    }
+
+    private void run(Runnable task) {
+        peakThreads.accumulateAndGet(threads.incrementAndGet(), Math::max);
+        try {
+            task.run();
+        } catch (RuntimeException | Error exception) {
+            LOGGER.warn("Task {} failed", task, exception);
+        } finally {
+            threads.decrementAndGet();
+        }
+    }
+
+    private void joinUninterruptibly() {
+        while (true) {
+            try {
+                join();
+                return;
+            } catch (InterruptedException exception) {
+                // keep the JVM alive until the pool is stopped
+            }
+        }
+    }
+
+    private static String metricName(String name, String metric) {
+        return MetricRegistry.name(VirtualThreadPool.class, name, metric);
+    }
+}
@@ -1,14 +1,27 @@
 package com.spotlight.platform.userprofile.api.model.command;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.util.Map;
 
-public record Command(@JsonProperty UserId userId,
-                      @JsonProperty CommandTypeEnum type,
-                      @JsonProperty Map<UserProfilePropertyName, UserProfilePropertyValue> properties) {
+/**
+ * @param commandId optional id chosen by the producer; a command repeating the id of one already applied to the same user is
+ *                  recognized as a retry and not applied again
+ */
+public record Command(@JsonProperty @NotNull @Valid UserId userId,
+                      @JsonProperty @NotNull CommandTypeEnum type,
+                      @JsonProperty @NotNull Map<UserProfilePropertyName, UserProfilePropertyValue> properties,
+                      @JsonProperty @JsonInclude(JsonInclude.Include.NON_NULL) @Size(min = 1, max = 128) String commandId) {
+
+    public Command(UserId userId, CommandTypeEnum type, Map<UserProfilePropertyName, UserProfilePropertyValue> properties) {
+        this(userId, type, properties, null);
+    }
 }
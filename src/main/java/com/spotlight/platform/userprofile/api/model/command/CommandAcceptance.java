@@ -0,0 +1,10 @@
+package com.spotlight.platform.userprofile.api.model.command;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+/**
+ * Receipt for a command queued for asynchronous processing. Sequence numbers grow with the order of acceptance; the status of the
+ * command, and the profile version to read once it is processed, are looked up by the sequence number.
+ */
+public record CommandAcceptance(@JsonProperty long sequenceNumber, @JsonProperty UserId userId) {}
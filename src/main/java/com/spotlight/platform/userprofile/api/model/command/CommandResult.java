@@ -3,5 +3,7 @@ package com.spotlight.platform.userprofile.api.model.command;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum;
 
-
-public record CommandResult(@JsonProperty CommandResultEnum result) {}
+/**
+ * @param version version of the user's profile after the command, which later reads can wait for; 0 when the user is unknown
+ */
+public record CommandResult(@JsonProperty CommandResultEnum result, @JsonProperty long version) {}
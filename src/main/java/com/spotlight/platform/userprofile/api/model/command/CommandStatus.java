@@ -0,0 +1,12 @@
+package com.spotlight.platform.userprofile.api.model.command;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandStatusEnum;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+/**
+ * @param result result of the command once it is {@link CommandStatusEnum#PROCESSED}, {@code null} before
+ */
+public record CommandStatus(@JsonProperty long sequenceNumber, @JsonProperty UserId userId, @JsonProperty CommandStatusEnum status,
+                            @JsonProperty @JsonInclude(JsonInclude.Include.NON_NULL) CommandResult result) {}
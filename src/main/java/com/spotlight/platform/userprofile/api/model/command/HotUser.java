@@ -0,0 +1,10 @@
+package com.spotlight.platform.userprofile.api.model.command;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+/**
+ * @param commands        commands counted for the user, at most {@code maxOverestimate} more than it actually sent
+ * @param maxOverestimate commands possibly counted for users that held the slot before
+ */
+public record HotUser(@JsonProperty UserId userId, @JsonProperty long commands, @JsonProperty long maxOverestimate) {}
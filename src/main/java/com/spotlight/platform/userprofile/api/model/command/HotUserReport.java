@@ -0,0 +1,11 @@
+package com.spotlight.platform.userprofile.api.model.command;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * @param commands all commands counted, with the same decay as the counts of the users
+ * @param users    the users with the most commands, most first
+ */
+public record HotUserReport(@JsonProperty long commands, @JsonProperty List<HotUser> users) {}
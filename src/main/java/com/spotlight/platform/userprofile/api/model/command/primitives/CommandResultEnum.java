@@ -2,5 +2,9 @@ package com.spotlight.platform.userprofile.api.model.command.primitives;
 
 public enum CommandResultEnum {
     DONE,
-    FAIL
+    FAIL,
+    /**
+     * The command repeats the id of a command already applied to the user and was skipped.
+     */
+    DUPLICATE
 }
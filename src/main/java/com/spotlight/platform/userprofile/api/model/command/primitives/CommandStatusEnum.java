@@ -0,0 +1,17 @@
+package com.spotlight.platform.userprofile.api.model.command.primitives;
+
+public enum CommandStatusEnum {
+    /**
+     * The command is queued and not processed yet.
+     */
+    PENDING,
+    PROCESSED,
+    /**
+     * The user of the command does not exist; the command was dropped.
+     */
+    UNKNOWN_USER,
+    /**
+     * Processing the batch the command was part of failed; the command may or may not have been applied.
+     */
+    FAILED
+}
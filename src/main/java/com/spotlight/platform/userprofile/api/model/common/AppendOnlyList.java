@@ -0,0 +1,139 @@
+package com.spotlight.platform.userprofile.api.model.common;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable list with amortized O(k) append of k elements. Elements live in fixed size chunks which are shared between all versions
+ * derived from each other: appending to the latest version writes into the free tail of the shared chunks, appending to an older version
+ * copies only its last, partially filled chunk. A version never observes elements appended after it was created.
+ *
+ * @param <E> type of the elements
+ */
+public final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int CHUNK_SHIFT = 5;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final AppendOnlyList<Object> EMPTY = new AppendOnlyList<>(new Storage(new Object[0][], 0), 0);
+
+    private final Storage storage;
+    private final int size;
+
+    private AppendOnlyList(Storage storage, int size) {
+        this.storage = storage;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> AppendOnlyList<E> empty() {
+        return (AppendOnlyList<E>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> AppendOnlyList<E> copyOf(Collection<? extends E> elements) {
+        if (elements instanceof AppendOnlyList<?> appendOnlyList) {
+            return (AppendOnlyList<E>) appendOnlyList;
+        }
+        return AppendOnlyList.<E>empty().appendAll(elements);
+    }
+
+    public AppendOnlyList<E> appendAll(Collection<? extends E> elements) {
+        var newElements = elements.toArray();
+        if (newElements.length == 0) {
+            return this;
+        }
+        int newSize = Math.addExact(size, newElements.length);
+        var target = size > 0 && storage.claim(size, newSize) ? storage : storage.fork(size, newSize);
+        target.write(size, newElements);
+        return new AppendOnlyList<>(target, newSize);
+    }
+
+    /**
+     * Constant time check whether {@code other} was derived from this list by appending. A {@code false} result does not mean the
+     * elements differ, only that the lists do not share their chunks.
+     */
+    public boolean isPrefixOf(AppendOnlyList<?> other) {
+        return size == 0 || (storage == other.storage && size <= other.size);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return (E) storage.chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static int chunksFor(int size) {
+        return (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+    }
+
+    /**
+     * Chunks shared by the versions of a list. {@code claimed} is the size of the longest version; only the version of exactly that size
+     * may append in place, every other version (and the shared empty list) forks.
+     */
+    private static final class Storage {
+        private final AtomicInteger claimed;
+        private volatile Object[][] chunks;
+
+        private Storage(Object[][] chunks, int claimed) {
+            this.chunks = chunks;
+            this.claimed = new AtomicInteger(claimed);
+        }
+
+        private boolean claim(int expectedSize, int newSize) {
+            return claimed.compareAndSet(expectedSize, newSize);
+        }
+
+        private Storage fork(int size, int newSize) {
+            var current = chunks;
+            int fullChunks = size >>> CHUNK_SHIFT;
+            var forkedChunks = Arrays.copyOf(current, Math.max(chunksFor(newSize), fullChunks + 1));
+            if ((size & CHUNK_MASK) != 0) {
+                var lastChunk = Arrays.copyOf(current[fullChunks], CHUNK_SIZE);
+                Arrays.fill(lastChunk, size & CHUNK_MASK, CHUNK_SIZE, null);
+                forkedChunks[fullChunks] = lastChunk;
+            } else {
+                forkedChunks[fullChunks] = null;
+            }
+            Arrays.fill(forkedChunks, fullChunks + 1, forkedChunks.length, null);
+            return new Storage(forkedChunks, newSize);
+        }
+
+        private void write(int from, Object[] elements) {
+            var target = ensureCapacity(from + elements.length);
+            int written = 0;
+            while (written < elements.length) {
+                int index = from + written;
+                var chunk = target[index >>> CHUNK_SHIFT];
+                if (chunk == null) {
+                    chunk = new Object[CHUNK_SIZE];
+                    target[index >>> CHUNK_SHIFT] = chunk;
+                }
+                int offset = index & CHUNK_MASK;
+                int length = Math.min(CHUNK_SIZE - offset, elements.length - written);
+                System.arraycopy(elements, written, chunk, offset, length);
+                written += length;
+            }
+            chunks = target;
+        }
+
+        private Object[][] ensureCapacity(int newSize) {
+            var current = chunks;
+            int required = chunksFor(newSize);
+            if (required <= current.length) {
+                return current;
+            }
+            return Arrays.copyOf(current, Math.max(required, current.length * 2));
+        }
+    }
+}
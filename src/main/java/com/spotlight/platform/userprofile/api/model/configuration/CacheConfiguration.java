@@ -0,0 +1,30 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.NotNull;
+
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.DataSizeUnit;
+import io.dropwizard.validation.MinDataSize;
+
+public class CacheConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    /**
+     * Bound on the estimated heap footprint of the cached profiles.
+     */
+    @NotNull
+    @MinDataSize(value = 1, unit = DataSizeUnit.MEBIBYTES)
+    @JsonProperty
+    private DataSize maximumSize = DataSize.mebibytes(256);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public DataSize getMaximumSize() {
+        return maximumSize;
+    }
+}
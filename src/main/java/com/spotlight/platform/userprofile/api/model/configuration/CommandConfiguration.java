@@ -0,0 +1,68 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+public class CommandConfiguration {
+    @Min(1)
+    @JsonProperty
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Command tasks that may be queued or running; asynchronous commands beyond it are rejected with 503. An asynchronous batch takes
+     * one task per partition, up to four per thread, and is admitted only as a whole.
+     */
+    @Min(1)
+    @JsonProperty
+    private int maxPendingTasks = BoundedExecutor.DEFAULT_MAX_PENDING_TASKS;
+
+    /**
+     * Number of commands of a streamed upload that are read and processed together; bounds the memory one upload holds.
+     */
+    @Min(1)
+    @JsonProperty
+    private int streamChunkSize = 1000;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private CommandQueueConfiguration queue = new CommandQueueConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private DeduplicationConfiguration deduplication = new DeduplicationConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private HotUserConfiguration hotUsers = new HotUserConfiguration();
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    public int getStreamChunkSize() {
+        return streamChunkSize;
+    }
+
+    public CommandQueueConfiguration getQueue() {
+        return queue;
+    }
+
+    public DeduplicationConfiguration getDeduplication() {
+        return deduplication;
+    }
+
+    public HotUserConfiguration getHotUsers() {
+        return hotUsers;
+    }
+}
@@ -0,0 +1,51 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+
+public class CommandQueueConfiguration {
+    /**
+     * Number of queues, each drained by its own worker. All commands of one user go to the same queue.
+     */
+    @Min(1)
+    @JsonProperty
+    private int partitions = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Commands one queue holds before further commands for it are rejected.
+     */
+    @Min(1)
+    @JsonProperty
+    private int capacityPerPartition = 4096;
+
+    /**
+     * Upper bound of commands a worker takes from its queue and processes as one batch.
+     */
+    @Min(1)
+    @JsonProperty
+    private int maxBatchSize = 256;
+
+    /**
+     * Number of most recently accepted commands whose status can be looked up.
+     */
+    @Min(1)
+    @JsonProperty
+    private int statusRetention = 65_536;
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public int getCapacityPerPartition() {
+        return capacityPerPartition;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public int getStatusRetention() {
+        return statusRetention;
+    }
+}
@@ -0,0 +1,62 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+public class DeduplicationConfiguration {
+    /**
+     * Time for which a command id is remembered at least.
+     */
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.SECONDS)
+    @JsonProperty
+    private Duration window = Duration.minutes(10);
+
+    /**
+     * Number of filters the window is split into; one of them is dropped at a time, so more generations forget more smoothly.
+     */
+    @Min(2)
+    @Max(64)
+    @JsonProperty
+    private int generations = 4;
+
+    /**
+     * Number of commands with id expected within one window; together with the false positive rate it sizes the filters.
+     */
+    @Min(1)
+    @JsonProperty
+    private long expectedCommandsPerWindow = 1_000_000;
+
+    /**
+     * Probability that a new command is mistaken for a retry while no more than the expected number of commands were seen.
+     */
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "0.1")
+    @JsonProperty
+    private double falsePositiveRate = 1e-6;
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public int getGenerations() {
+        return generations;
+    }
+
+    public long getExpectedCommandsPerWindow() {
+        return expectedCommandsPerWindow;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+}
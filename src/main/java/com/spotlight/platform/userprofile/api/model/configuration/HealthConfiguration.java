@@ -0,0 +1,74 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import io.dropwizard.util.DataSize;
+
+/**
+ * Thresholds at which the health checks report the node unhealthy, so a load balancer stops routing to it before it runs out of memory
+ * or falls too far behind.
+ */
+public class HealthConfiguration {
+    /**
+     * Number of profiles the store may hold.
+     */
+    @Min(1)
+    @JsonProperty
+    private long maxProfiles = 50_000_000;
+
+    /**
+     * Share of the maximum heap the estimated footprint of the in-memory store may take.
+     */
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "1")
+    @JsonProperty
+    private double maxStoreHeapFraction = 0.7;
+
+    /**
+     * Mapped memory the mapped store may hand out to profiles. It is backed by files, so this is bounded by the disk holding them.
+     */
+    @NotNull
+    @JsonProperty
+    private DataSize maxMappedStoreSize = DataSize.gibibytes(64);
+
+    /**
+     * Share of the command queue capacity that may be filled with commands waiting to be processed.
+     */
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "1")
+    @JsonProperty
+    private double maxCommandQueueFill = 0.8;
+
+    /**
+     * Multiple of {@code storage.writeBehind.maxPendingProfiles} that may be waiting to be flushed; writers already flush right away
+     * at 1, so more means flushing does not keep up.
+     */
+    @DecimalMin(value = "1")
+    @JsonProperty
+    private double maxWriteBehindBacklog = 2;
+
+    public long getMaxProfiles() {
+        return maxProfiles;
+    }
+
+    public double getMaxStoreHeapFraction() {
+        return maxStoreHeapFraction;
+    }
+
+    public DataSize getMaxMappedStoreSize() {
+        return maxMappedStoreSize;
+    }
+
+    public double getMaxCommandQueueFill() {
+        return maxCommandQueueFill;
+    }
+
+    public double getMaxWriteBehindBacklog() {
+        return maxWriteBehindBacklog;
+    }
+}
@@ -0,0 +1,50 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+public class HotUserConfiguration {
+    /**
+     * Number of users counted at a time; a user with more than {@code 1 / capacity} of all commands is always among them.
+     */
+    @Min(16)
+    @Max(1 << 20)
+    @JsonProperty
+    private int capacity = 1024;
+
+    /**
+     * Interval after which all counts are halved, so users that stopped sending commands drop out of the report.
+     */
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.SECONDS)
+    @JsonProperty
+    private Duration decayInterval = Duration.minutes(1);
+
+    /**
+     * Number of users reported by the admin endpoint unless asked otherwise, and summed up by the {@code topUsersShare} gauge. At most
+     * 1000, the most the admin endpoint reports.
+     */
+    @Min(1)
+    @Max(1_000)
+    @JsonProperty
+    private int reportSize = 20;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Duration getDecayInterval() {
+        return decayInterval;
+    }
+
+    public int getReportSize() {
+        return reportSize;
+    }
+}
@@ -0,0 +1,87 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.DataSizeUnit;
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MaxDataSize;
+import io.dropwizard.validation.MinDataSize;
+import io.dropwizard.validation.MinDuration;
+
+public class JournalConfiguration {
+    public enum SyncMode {
+        /**
+         * Every group of writes is forced to disk before any of its writers is acknowledged.
+         */
+        BATCH,
+        /**
+         * Writers are acknowledged once their write reached the OS, the journal is forced to disk every {@code syncInterval}.
+         */
+        INTERVAL
+    }
+
+    @JsonProperty
+    private boolean enabled = false;
+
+    @NotEmpty
+    @JsonProperty
+    private String directory = "journal";
+
+    @NotNull
+    @JsonProperty
+    private SyncMode syncMode = SyncMode.BATCH;
+
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration syncInterval = Duration.milliseconds(10);
+
+    @Min(1)
+    @JsonProperty
+    private int maxBatchSize = 1024;
+
+    @NotNull
+    @MinDataSize(value = 1, unit = DataSizeUnit.MEBIBYTES)
+    @MaxDataSize(value = 1, unit = DataSizeUnit.GIBIBYTES)
+    @JsonProperty
+    private DataSize segmentSize = DataSize.mebibytes(64);
+
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.SECONDS)
+    @JsonProperty
+    private Duration snapshotInterval = Duration.minutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+}
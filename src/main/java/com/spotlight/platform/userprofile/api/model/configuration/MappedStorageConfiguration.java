@@ -0,0 +1,46 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.DataSizeUnit;
+import io.dropwizard.validation.MaxDataSize;
+import io.dropwizard.validation.MinDataSize;
+
+public class MappedStorageConfiguration {
+    @NotEmpty
+    @JsonProperty
+    private String directory = "profiles";
+
+    /**
+     * Size of one mapped file, also the upper bound for the encoded size of a single profile.
+     */
+    @NotNull
+    @MinDataSize(value = 1, unit = DataSizeUnit.MEBIBYTES)
+    @MaxDataSize(value = 1, unit = DataSizeUnit.GIBIBYTES)
+    @JsonProperty
+    private DataSize segmentSize = DataSize.mebibytes(256);
+
+    /**
+     * Number of users the index is sized for up front; it grows beyond that by doubling.
+     */
+    @Min(1)
+    @JsonProperty
+    private int expectedProfiles = 1_000_000;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getExpectedProfiles() {
+        return expectedProfiles;
+    }
+}
@@ -0,0 +1,30 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
+
+import javax.validation.constraints.Min;
+
+public class ProfileConfiguration {
+    /**
+     * Threads reading profiles for asynchronous requests. Raise it above the number of cores for a store that blocks on I/O.
+     */
+    @Min(1)
+    @JsonProperty
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Profile reads that may be queued or running; asynchronous reads beyond it are rejected with 503.
+     */
+    @Min(1)
+    @JsonProperty
+    private int maxPendingTasks = BoundedExecutor.DEFAULT_MAX_PENDING_TASKS;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+}
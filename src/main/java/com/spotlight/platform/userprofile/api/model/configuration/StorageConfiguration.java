@@ -0,0 +1,63 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+public class StorageConfiguration {
+    public enum Type {
+        /**
+         * Profiles are kept as objects on the heap.
+         */
+        IN_MEMORY,
+        /**
+         * Profiles are kept encoded in memory-mapped files off the heap, see {@link MappedStorageConfiguration}.
+         */
+        MAPPED
+    }
+
+    @NotNull
+    @JsonProperty
+    private Type type = Type.IN_MEMORY;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private MappedStorageConfiguration mapped = new MappedStorageConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private WriteBehindConfiguration writeBehind = new WriteBehindConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private CacheConfiguration cache = new CacheConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private JournalConfiguration journal = new JournalConfiguration();
+
+    public Type getType() {
+        return type;
+    }
+
+    public MappedStorageConfiguration getMapped() {
+        return mapped;
+    }
+
+    public WriteBehindConfiguration getWriteBehind() {
+        return writeBehind;
+    }
+
+    public CacheConfiguration getCache() {
+        return cache;
+    }
+
+    public JournalConfiguration getJournal() {
+        return journal;
+    }
+}
@@ -1,7 +1,48 @@
 package com.spotlight.platform.userprofile.api.model.configuration;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
 import io.dropwizard.Configuration;
 
 public class UserProfileApiConfiguration extends Configuration {
     public static final String APPLICATION_NAME = "User Profile API";
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private CommandConfiguration command = new CommandConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private ProfileConfiguration profile = new ProfileConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private StorageConfiguration storage = new StorageConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private HealthConfiguration health = new HealthConfiguration();
+
+    public CommandConfiguration getCommand() {
+        return command;
+    }
+
+    public ProfileConfiguration getProfile() {
+        return profile;
+    }
+
+    public StorageConfiguration getStorage() {
+        return storage;
+    }
+
+    public HealthConfiguration getHealth() {
+        return health;
+    }
 }
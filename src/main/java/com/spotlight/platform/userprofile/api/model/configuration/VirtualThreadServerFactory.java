@@ -0,0 +1,26 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.spotlight.platform.userprofile.api.core.server.VirtualThreadPool;
+
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import io.dropwizard.server.DefaultServerFactory;
+
+/**
+ * The default Dropwizard server with requests running on virtual threads instead of a bounded platform thread pool, selected with
+ * {@code server.type: virtual-threads}. All other settings of the default server apply unchanged; the thread pool limits
+ * {@code minThreads}, {@code maxThreads} and {@code maxQueuedRequests} are ignored.
+ */
+@JsonTypeName(VirtualThreadServerFactory.TYPE)
+public class VirtualThreadServerFactory extends DefaultServerFactory {
+    public static final String TYPE = "virtual-threads";
+
+    private static final String THREAD_NAME = "dw-virtual";
+
+    @Override
+    protected ThreadPool createThreadPool(MetricRegistry metricRegistry) {
+        return new VirtualThreadPool(THREAD_NAME, metricRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+public class WriteBehindConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    @NotNull
+    @MinDuration(value = 10, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration flushInterval = Duration.seconds(1);
+
+    @Min(1)
+    @JsonProperty
+    private int maxBatchSize = 1000;
+
+    /**
+     * Number of dirty profiles at which writers flush right away instead of waiting for the next interval.
+     */
+    @Min(1)
+    @JsonProperty
+    private int maxPendingProfiles = 100_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public int getMaxPendingProfiles() {
+        return maxPendingProfiles;
+    }
+}
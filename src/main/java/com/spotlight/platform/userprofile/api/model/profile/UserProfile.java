@@ -7,8 +7,40 @@ import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfi
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Immutable snapshot of the user profile. Properties are copied into an unmodifiable map, so a profile handed out to readers never
+ * changes; updates produce a new snapshot instead. The copy keeps the order of the given map, so properties are serialized in the
+ * order they were first set.
+ */
 public record UserProfile(@JsonProperty UserId userId, @JsonProperty @JsonFormat(shape = JsonFormat.Shape.STRING) Instant latestUpdateTime,
                           @JsonProperty Map<UserProfilePropertyName, UserProfilePropertyValue> userProfileProperties) {
-}
\ No newline at end of file
+
+    public UserProfile {
+        userProfileProperties = userProfileProperties == null || userProfileProperties.isEmpty()
+                ? Map.of()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(userProfileProperties));
+    }
+
+    public UserProfile withUserProfileProperties(Map<UserProfilePropertyName, UserProfilePropertyValue> userProfileProperties) {
+        return new UserProfile(userId, latestUpdateTime, userProfileProperties);
+    }
+
+    /**
+     * @return the profile reduced to those of {@code propertyNames} it has; only the requested properties are looked up and copied
+     */
+    public UserProfile withOnlyProperties(Collection<UserProfilePropertyName> propertyNames) {
+        Map<UserProfilePropertyName, UserProfilePropertyValue> projected = new LinkedHashMap<>();
+        for (UserProfilePropertyName propertyName : propertyNames) {
+            var value = userProfileProperties.get(propertyName);
+            if (value != null) {
+                projected.put(propertyName, value);
+            }
+        }
+        return new UserProfile(userId, latestUpdateTime, projected);
+    }
+}
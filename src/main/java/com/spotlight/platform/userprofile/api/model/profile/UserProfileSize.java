@@ -0,0 +1,12 @@
+package com.spotlight.platform.userprofile.api.model.profile;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+/**
+ * @param properties     number of properties
+ * @param listElements   elements of all list properties together
+ * @param estimatedBytes rough heap footprint of the profile
+ */
+public record UserProfileSize(@JsonProperty UserId userId, @JsonProperty int properties, @JsonProperty long listElements,
+                              @JsonProperty long estimatedBytes) {}
@@ -2,36 +2,201 @@ package com.spotlight.platform.userprofile.api.model.profile.primitives;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.spotlight.platform.userprofile.api.model.common.AppendOnlyList;
 
-public class UserProfilePropertyValue {
+import java.util.Collection;
+import java.util.List;
 
-    private final Object value;
+/**
+ * Value of a profile property. Whole numbers are kept as a primitive {@code long}, floating point numbers as a primitive {@code double},
+ * lists as an {@link AppendOnlyList}; everything else is kept as deserialized by Jackson.
+ */
+public abstract class UserProfilePropertyValue {
 
-    @JsonCreator
-    private UserProfilePropertyValue(Object value) {
-        this.value = value;
+    private UserProfilePropertyValue() {
     }
 
+    @JsonCreator
     public static UserProfilePropertyValue valueOf(Object value) {
-        return new UserProfilePropertyValue(value);
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return new LongValue(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return new DoubleValue(((Number) value).doubleValue());
+        }
+        if (value instanceof List<?> list) {
+            return new ListValue(AppendOnlyList.copyOf(list));
+        }
+        return new ObjectValue(value);
+    }
+
+    public static UserProfilePropertyValue valueOf(long value) {
+        return new LongValue(value);
+    }
+
+    public static UserProfilePropertyValue valueOf(double value) {
+        return new DoubleValue(value);
     }
 
     @JsonValue
-    public Object getValue() {
-        return value;
+    public abstract Object getValue();
+
+    public boolean isLong() {
+        return false;
+    }
+
+    public boolean isNumber() {
+        return false;
+    }
+
+    public boolean isList() {
+        return false;
+    }
+
+    public long longValue() {
+        throw new IllegalStateException("Value is not a whole number");
+    }
+
+    public double doubleValue() {
+        throw new IllegalStateException("Value is not a number");
     }
 
-    @Override
-    public int hashCode() {
-        return value.hashCode();
+    /**
+     * Appends the items to a list value, sharing the already collected elements with this value.
+     */
+    public UserProfilePropertyValue append(Collection<?> items) {
+        throw new IllegalStateException("Only list values can be appended to");
     }
 
-    @Override
-    public boolean equals(Object obj) {
-        if (obj == null || this.getClass() != obj.getClass()) {
-            return false;
+    private static final class LongValue extends UserProfilePropertyValue {
+        private final long value;
+
+        private LongValue(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean isLong() {
+            return true;
+        }
+
+        @Override
+        public boolean isNumber() {
+            return true;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof LongValue other && value == other.value;
         }
-        return value.equals(((UserProfilePropertyValue) obj).getValue());
     }
-}
 
+    private static final class DoubleValue extends UserProfilePropertyValue {
+        private final double value;
+
+        private DoubleValue(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean isNumber() {
+            return true;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof DoubleValue other && Double.compare(value, other.value) == 0;
+        }
+    }
+
+    private static final class ListValue extends UserProfilePropertyValue {
+        private final AppendOnlyList<Object> value;
+
+        private ListValue(AppendOnlyList<Object> value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean isList() {
+            return true;
+        }
+
+        @Override
+        public UserProfilePropertyValue append(Collection<?> items) {
+            return new ListValue(value.appendAll(items));
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ListValue other && value.equals(other.value);
+        }
+    }
+
+    private static final class ObjectValue extends UserProfilePropertyValue {
+        private final Object value;
+
+        private ObjectValue(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ObjectValue other && value.equals(other.value);
+        }
+    }
+}
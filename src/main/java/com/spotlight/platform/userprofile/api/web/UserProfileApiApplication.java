@@ -1,12 +1,33 @@
 package com.spotlight.platform.userprofile.api.web;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+import com.spotlight.platform.userprofile.api.core.command.CommandQueue;
+import com.spotlight.platform.userprofile.api.core.command.CommandService;
+import com.spotlight.platform.userprofile.api.core.command.UserVersionIndex;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
 import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
+import com.spotlight.platform.userprofile.api.core.profile.UserProfileService;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.mapped.UserProfileDaoMapped;
 import com.spotlight.platform.userprofile.api.model.configuration.UserProfileApiConfiguration;
+import com.spotlight.platform.userprofile.api.web.admin.HotUsersServlet;
+import com.spotlight.platform.userprofile.api.web.admin.LargestProfilesServlet;
+import com.spotlight.platform.userprofile.api.web.exceptionmappers.CommandQueueFullExceptionMapper;
 import com.spotlight.platform.userprofile.api.web.exceptionmappers.EntityNotFoundExceptionMapper;
+import com.spotlight.platform.userprofile.api.web.exceptionmappers.ExecutorFullExceptionMapper;
+import com.spotlight.platform.userprofile.api.web.healthchecks.BacklogHealthCheck;
 import com.spotlight.platform.userprofile.api.web.healthchecks.PreventStartupWarningHealthCheck;
+import com.spotlight.platform.userprofile.api.web.healthchecks.StoreHealthCheck;
+import com.spotlight.platform.userprofile.api.web.modules.ProfileModule;
 import com.spotlight.platform.userprofile.api.web.modules.UserProfileApiModule;
 
 import io.dropwizard.Application;
+import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
 import ru.vyarus.dropwizard.guice.GuiceBundle;
@@ -34,23 +55,84 @@ public class UserProfileApiApplication extends Application<UserProfileApiConfigu
 
     @Override
     public void run(UserProfileApiConfiguration configuration, Environment environment) {
-        registerHealthChecks(environment);
+        registerHealthChecks(configuration, environment);
+        registerStoreMetrics(environment);
         registerExceptionMappers(environment);
+        registerManagedObjects(environment);
+        registerAdminServlets(environment);
     }
 
     public static void main(String[] args) throws Exception {
         new UserProfileApiApplication().run(args);
     }
 
-    private void registerHealthChecks(Environment environment) {
+    private void registerHealthChecks(UserProfileApiConfiguration configuration, Environment environment) {
         environment.healthChecks().register(PreventStartupWarningHealthCheck.NAME, getInstance(PreventStartupWarningHealthCheck.class));
+        var commandQueue = getInstance(CommandQueue.class);
+        long maxQueuedCommands = (long) (commandQueue.capacity() * configuration.getHealth().getMaxCommandQueueFill());
+        environment.healthChecks()
+                .register(BacklogHealthCheck.COMMAND_QUEUE, new BacklogHealthCheck(commandQueue::depth, maxQueuedCommands));
+        var store = getStore();
+        if (store instanceof UserProfileDaoInMemory inMemoryStore) {
+            environment.healthChecks()
+                    .register(StoreHealthCheck.NAME,
+                            new StoreHealthCheck(inMemoryStore, getInstance(UserVersionIndex.class), configuration.getHealth()));
+        } else if (store instanceof UserProfileDaoMapped mappedStore) {
+            environment.healthChecks().register(StoreHealthCheck.NAME, new StoreHealthCheck(mappedStore, configuration.getHealth()));
+        }
+    }
+
+    private void registerStoreMetrics(Environment environment) {
+        var metrics = environment.metrics();
+        var versionIndex = getInstance(UserVersionIndex.class);
+        metrics.register(MetricRegistry.name(UserVersionIndex.class, "users"), (Gauge<Integer>) versionIndex::size);
+        metrics.register(MetricRegistry.name(UserVersionIndex.class, "retainedBytes"), (Gauge<Long>) versionIndex::retainedBytes);
+        var store = getStore();
+        if (store instanceof UserProfileDaoInMemory inMemoryStore) {
+            metrics.register(MetricRegistry.name(UserProfileDaoInMemory.class, "profiles"), (Gauge<Integer>) inMemoryStore::size);
+            metrics.register(MetricRegistry.name(UserProfileDaoInMemory.class, "retainedBytes"),
+                    (Gauge<Long>) inMemoryStore::retainedBytes);
+        } else if (store instanceof UserProfileDaoMapped mappedStore) {
+            metrics.register(MetricRegistry.name(UserProfileDaoMapped.class, "profiles"), (Gauge<Integer>) mappedStore::size);
+            metrics.register(MetricRegistry.name(UserProfileDaoMapped.class, "allocatedBytes"),
+                    (Gauge<Long>) mappedStore::allocatedBytes);
+        }
     }
 
     private void registerExceptionMappers(Environment environment) {
         environment.jersey().register(getInstance(EntityNotFoundExceptionMapper.class));
+        environment.jersey().register(getInstance(CommandQueueFullExceptionMapper.class));
+        environment.jersey().register(getInstance(ExecutorFullExceptionMapper.class));
+    }
+
+    private void registerManagedObjects(Environment environment) {
+        if (getInstance(UserProfileDao.class) instanceof Managed managedDao) {
+            environment.lifecycle().manage(managedDao);
+        }
+        environment.lifecycle().manage(getInstance(Key.get(BoundedExecutor.class, Names.named(CommandService.EXECUTOR))));
+        environment.lifecycle().manage(getInstance(Key.get(BoundedExecutor.class, Names.named(UserProfileService.EXECUTOR))));
+        environment.lifecycle().manage(getInstance(CommandQueue.class));
+    }
+
+    private void registerAdminServlets(Environment environment) {
+        environment.admin().addServlet(HotUsersServlet.NAME, getInstance(HotUsersServlet.class)).addMapping(HotUsersServlet.PATH);
+        environment.admin()
+                .addServlet(LargestProfilesServlet.NAME, getInstance(LargestProfilesServlet.class))
+                .addMapping(LargestProfilesServlet.PATH);
     }
 
     private <T> T getInstance(Class<T> clazz) {
         return guiceBundle.getInjector().getInstance(clazz);
     }
+
+    /**
+     * @return the store the profiles are kept in, without the decorators in front of it
+     */
+    private UserProfileDao getStore() {
+        return getInstance(Key.get(UserProfileDao.class, Names.named(ProfileModule.STORE)));
+    }
+
+    private <T> T getInstance(Key<T> key) {
+        return guiceBundle.getInjector().getInstance(key);
+    }
 }
@@ -0,0 +1,34 @@
+package com.spotlight.platform.userprofile.api.web.admin;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Parses the request parameters the admin servlets have in common.
+ */
+final class AdminParameters {
+    static final int MAX_LIMIT = 1_000;
+
+    private AdminParameters() {
+    }
+
+    /**
+     * @return the {@code limit} parameter, {@code defaultLimit} when it is absent, or {@code -1} once the request has been answered with
+     *         400 because it is not a number from 1 to {@value #MAX_LIMIT}
+     */
+    static int limit(HttpServletRequest request, HttpServletResponse response, int defaultLimit) throws IOException {
+        int limit;
+        try {
+            var limitParameter = request.getParameter("limit");
+            limit = limitParameter == null ? defaultLimit : Integer.parseInt(limitParameter);
+        } catch (NumberFormatException exception) {
+            limit = -1;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "limit must be a number from 1 to " + MAX_LIMIT);
+            return -1;
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,42 @@
+package com.spotlight.platform.userprofile.api.web.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotlight.platform.userprofile.api.core.command.HotUserTracker;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+
+/**
+ * Reports the users sending the most commands on the admin port, as counted by the {@link HotUserTracker}. The number of users is
+ * taken from the {@code limit} parameter, the configured report size otherwise.
+ */
+public class HotUsersServlet extends HttpServlet {
+    public static final String NAME = "hot-users";
+    public static final String PATH = "/hot-users";
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient HotUserTracker hotUserTracker;
+    private final transient ObjectMapper objectMapper;
+
+    @Inject
+    public HotUsersServlet(HotUserTracker hotUserTracker, ObjectMapper objectMapper) {
+        this.hotUserTracker = hotUserTracker;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int limit = AdminParameters.limit(request, response, hotUserTracker.getReportSize());
+        if (limit < 0) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON);
+        response.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        objectMapper.writeValue(response.getOutputStream(), hotUserTracker.report(limit));
+    }
+}
@@ -0,0 +1,60 @@
+package com.spotlight.platform.userprofile.api.web.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotlight.platform.userprofile.api.core.profile.UserProfileService;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfileSize;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reports the largest profiles on the admin port, by {@code properties}, {@code listElements} or {@code estimatedBytes} as given by
+ * the {@code by} parameter. Walks the whole store on every request, so it is meant for looking into a node that grows unexpectedly,
+ * not for polling.
+ */
+public class LargestProfilesServlet extends HttpServlet {
+    public static final String NAME = "largest-profiles";
+    public static final String PATH = "/largest-profiles";
+    static final int DEFAULT_LIMIT = 20;
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient UserProfileService userProfileService;
+    private final transient ObjectMapper objectMapper;
+
+    @Inject
+    public LargestProfilesServlet(UserProfileService userProfileService, ObjectMapper objectMapper) {
+        this.userProfileService = userProfileService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int limit = AdminParameters.limit(request, response, DEFAULT_LIMIT);
+        if (limit < 0) {
+            return;
+        }
+        var measure = measure(request.getParameter("by"));
+        if (measure == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "by must be one of properties, listElements, estimatedBytes");
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON);
+        response.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        objectMapper.writeValue(response.getOutputStream(), userProfileService.largestProfiles(limit, measure));
+    }
+
+    private static ToLongFunction<UserProfileSize> measure(String by) {
+        return switch (by == null ? "estimatedBytes" : by) {
+            case "properties" -> UserProfileSize::properties;
+            case "listElements" -> UserProfileSize::listElements;
+            case "estimatedBytes" -> UserProfileSize::estimatedBytes;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.spotlight.platform.userprofile.api.web.exceptionmappers;
+
+import com.spotlight.platform.userprofile.api.core.exceptions.CommandQueueFullException;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+
+public class CommandQueueFullExceptionMapper implements ExceptionMapper<CommandQueueFullException> {
+    static final int RETRY_AFTER_SECONDS = 1;
+
+    @Override
+    public Response toResponse(CommandQueueFullException exception) {
+        return Response.status(Response.Status.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.spotlight.platform.userprofile.api.web.exceptionmappers;
+
+import com.spotlight.platform.userprofile.api.core.exceptions.ExecutorFullException;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+
+public class ExecutorFullExceptionMapper implements ExceptionMapper<ExecutorFullException> {
+    static final int RETRY_AFTER_SECONDS = 1;
+
+    @Override
+    public Response toResponse(ExecutorFullException exception) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.spotlight.platform.userprofile.api.web.healthchecks;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Unhealthy once more work is waiting than the limit, meaning the node falls behind and should get no more traffic until it caught up.
+ */
+public class BacklogHealthCheck extends HealthCheck {
+    public static final String COMMAND_QUEUE = "command-queue-backlog";
+    public static final String WRITE_BEHIND = "write-behind-backlog";
+
+    private final LongSupplier backlog;
+    private final long limit;
+
+    public BacklogHealthCheck(LongSupplier backlog, long limit) {
+        this.backlog = backlog;
+        this.limit = limit;
+    }
+
+    @Override
+    protected Result check() {
+        long waiting = backlog.getAsLong();
+        var result = waiting > limit
+                ? Result.builder().unhealthy().withMessage("%d waiting, more than %d", waiting, limit)
+                : Result.builder().healthy();
+        return result.withDetail("backlog", waiting).withDetail("limit", limit).build();
+    }
+}
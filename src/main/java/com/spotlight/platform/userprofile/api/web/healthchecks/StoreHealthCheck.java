@@ -0,0 +1,87 @@
+package com.spotlight.platform.userprofile.api.web.healthchecks;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.spotlight.platform.userprofile.api.core.command.UserVersionIndex;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.mapped.UserProfileDaoMapped;
+import com.spotlight.platform.userprofile.api.model.configuration.HealthConfiguration;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Unhealthy once the store holds more profiles than allowed or takes more memory than allowed, so the node is taken out of rotation
+ * before it runs out of it. The in-memory store may take a share of the maximum heap, the mapped store a configured amount of mapped
+ * memory. Both are read from counters kept on write, so the check is cheap enough for every poll of a load balancer.
+ */
+public class StoreHealthCheck extends HealthCheck {
+    public static final String NAME = "store";
+
+    private final IntSupplier profiles;
+    private final long maxProfiles;
+    private final Footprint footprint;
+    private final LongSupplier bytes;
+    private final long maxBytes;
+
+    /**
+     * The versions of the changed users live on the heap next to the profiles, so they count against the same share of it.
+     */
+    public StoreHealthCheck(UserProfileDaoInMemory store, UserVersionIndex versionIndex, HealthConfiguration configuration) {
+        this(store::size, configuration.getMaxProfiles(), Footprint.RETAINED, () -> store.retainedBytes() + versionIndex.retainedBytes(),
+                (long) (Runtime.getRuntime().maxMemory() * configuration.getMaxStoreHeapFraction()));
+    }
+
+    public StoreHealthCheck(UserProfileDaoMapped store, HealthConfiguration configuration) {
+        this(store::size, configuration.getMaxProfiles(), Footprint.ALLOCATED, store::allocatedBytes,
+                configuration.getMaxMappedStoreSize().toBytes());
+    }
+
+    StoreHealthCheck(UserProfileDaoInMemory store, long maxProfiles, long maxRetainedBytes) {
+        this(store::size, maxProfiles, Footprint.RETAINED, store::retainedBytes, maxRetainedBytes);
+    }
+
+    StoreHealthCheck(IntSupplier profiles, long maxProfiles, Footprint footprint, LongSupplier bytes, long maxBytes) {
+        this.profiles = profiles;
+        this.maxProfiles = maxProfiles;
+        this.footprint = footprint;
+        this.bytes = bytes;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    protected Result check() {
+        int profileCount = profiles.getAsInt();
+        long byteCount = bytes.getAsLong();
+        ResultBuilder result;
+        if (profileCount > maxProfiles) {
+            result = Result.builder().unhealthy().withMessage("Store holds %d profiles, more than %d", profileCount, maxProfiles);
+        } else if (byteCount > maxBytes) {
+            result = Result.builder().unhealthy().withMessage(footprint.message, byteCount, maxBytes);
+        } else {
+            result = Result.builder().healthy();
+        }
+        return result.withDetail("profiles", profileCount)
+                .withDetail("maxProfiles", maxProfiles)
+                .withDetail(footprint.detail, byteCount)
+                .withDetail(footprint.maxDetail, maxBytes)
+                .build();
+    }
+
+    /**
+     * How the memory taken by a store is measured and reported.
+     */
+    enum Footprint {
+        RETAINED("retainedBytes", "maxRetainedBytes", "Store retains about %d bytes, more than %d"),
+        ALLOCATED("allocatedBytes", "maxAllocatedBytes", "Store has allocated %d mapped bytes, more than %d");
+
+        private final String detail;
+        private final String maxDetail;
+        private final String message;
+
+        Footprint(String detail, String maxDetail, String message) {
+            this.detail = detail;
+            this.maxDetail = maxDetail;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.spotlight.platform.userprofile.api.web.modules;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotlight.platform.userprofile.api.core.command.CommandDeduplicator;
+import com.spotlight.platform.userprofile.api.core.command.CommandMetrics;
+import com.spotlight.platform.userprofile.api.core.command.CommandQueue;
+import com.spotlight.platform.userprofile.api.core.command.CommandService;
+import com.spotlight.platform.userprofile.api.core.command.CommandStreamProcessor;
+import com.spotlight.platform.userprofile.api.core.command.HotUserTracker;
+import com.spotlight.platform.userprofile.api.core.command.UserVersionIndex;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
+import com.spotlight.platform.userprofile.api.model.configuration.UserProfileApiConfiguration;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import io.dropwizard.setup.Environment;
+
+public class CommandModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bind(CommandService.class).in(Singleton.class);
+        bind(UserVersionIndex.class).in(Singleton.class);
+        bind(CommandDeduplicator.class).in(Singleton.class);
+    }
+
+    @Provides
+    @Singleton
+    @Named(CommandService.EXECUTOR)
+    public BoundedExecutor getCommandExecutor(UserProfileApiConfiguration configuration) {
+        return new BoundedExecutor(configuration.getCommand().getParallelism(), configuration.getCommand().getMaxPendingTasks());
+    }
+
+    @Provides
+    @Singleton
+    public CommandMetrics getCommandMetrics(Environment environment, HotUserTracker hotUserTracker) {
+        return new CommandMetrics(environment.metrics(), hotUserTracker);
+    }
+
+    @Provides
+    @Singleton
+    public CommandStreamProcessor getCommandStreamProcessor(UserProfileApiConfiguration configuration, CommandService commandService,
+            ObjectMapper objectMapper, Environment environment) {
+        return new CommandStreamProcessor(commandService, objectMapper, environment.getValidator(),
+                configuration.getCommand().getStreamChunkSize());
+    }
+
+    @Provides
+    @Singleton
+    public HotUserTracker getHotUserTracker(UserProfileApiConfiguration configuration, Environment environment) {
+        return new HotUserTracker(configuration.getCommand().getHotUsers(), environment.metrics());
+    }
+
+    @Provides
+    @Singleton
+    public CommandQueue getCommandQueue(UserProfileApiConfiguration configuration, CommandService commandService, Environment environment) {
+        var queueConfiguration = configuration.getCommand().getQueue();
+        return new CommandQueue(commandService, queueConfiguration.getPartitions(), queueConfiguration.getCapacityPerPartition(),
+                queueConfiguration.getMaxBatchSize(), queueConfiguration.getStatusRetention(), environment.metrics());
+    }
+}
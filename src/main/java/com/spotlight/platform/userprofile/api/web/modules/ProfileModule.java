@@ -1,17 +1,91 @@
 package com.spotlight.platform.userprofile.api.web.modules;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
 import com.spotlight.platform.userprofile.api.core.profile.UserProfileService;
 import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
 import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.cache.UserProfileDaoCached;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.journal.UserProfileDaoJournaled;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.journal.UserProfileJournal;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.journal.UserProfileSnapshotStore;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.mapped.UserProfileDaoMapped;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.metrics.UserProfileDaoTimed;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.writebehind.UserProfileDaoWriteBehind;
+import com.spotlight.platform.userprofile.api.model.configuration.UserProfileApiConfiguration;
+import com.spotlight.platform.userprofile.api.web.healthchecks.BacklogHealthCheck;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
+import java.nio.file.Paths;
+
+import io.dropwizard.setup.Environment;
 
 public class ProfileModule extends AbstractModule {
+    public static final String STORE = "store";
+
     @Override
     protected void configure() {
-        bind(UserProfileDao.class).to(UserProfileDaoInMemory.class).in(Singleton.class);
         bind(UserProfileService.class).in(Singleton.class);
     }
+
+    @Provides
+    @Singleton
+    @Named(UserProfileService.EXECUTOR)
+    public BoundedExecutor getProfileExecutor(UserProfileApiConfiguration configuration) {
+        return new BoundedExecutor(configuration.getProfile().getParallelism(), configuration.getProfile().getMaxPendingTasks());
+    }
+
+    /**
+     * The store itself, without the cache and journal in front of it; its health and size are reported from it.
+     */
+    @Provides
+    @Singleton
+    @Named(STORE)
+    public UserProfileDao getStore(UserProfileApiConfiguration configuration) {
+        var storageConfiguration = configuration.getStorage();
+        return switch (storageConfiguration.getType()) {
+            case IN_MEMORY -> new UserProfileDaoInMemory();
+            case MAPPED -> new UserProfileDaoMapped(storageConfiguration.getMapped());
+        };
+    }
+
+    /**
+     * Stacks the optional layers on the store: write-behind, cache and journal, innermost first. Each layer starts and stops the one
+     * below it, so managing the returned dao also drains the write-behind on shutdown.
+     */
+    @Provides
+    @Singleton
+    public UserProfileDao getUserProfileDao(UserProfileApiConfiguration configuration, @Named(STORE) UserProfileDao store,
+            Environment environment) {
+        var storageConfiguration = configuration.getStorage();
+        var writeBehindConfiguration = storageConfiguration.getWriteBehind();
+        if (writeBehindConfiguration.isEnabled()) {
+            var writeBehind = new UserProfileDaoWriteBehind(store, writeBehindConfiguration.getFlushInterval().toJavaDuration(),
+                    writeBehindConfiguration.getMaxBatchSize(), writeBehindConfiguration.getMaxPendingProfiles());
+            environment.metrics()
+                    .register(MetricRegistry.name(UserProfileDaoWriteBehind.class, "pendingProfiles"),
+                            (Gauge<Long>) writeBehind::pendingProfiles);
+            long maxPendingProfiles =
+                    (long) (writeBehindConfiguration.getMaxPendingProfiles() * configuration.getHealth().getMaxWriteBehindBacklog());
+            environment.healthChecks()
+                    .register(BacklogHealthCheck.WRITE_BEHIND, new BacklogHealthCheck(writeBehind::pendingProfiles, maxPendingProfiles));
+            store = writeBehind;
+        }
+        var cacheConfiguration = storageConfiguration.getCache();
+        if (cacheConfiguration.isEnabled()) {
+            store = new UserProfileDaoCached(store, cacheConfiguration.getMaximumSize().toBytes(), environment.metrics());
+        }
+        var journalConfiguration = storageConfiguration.getJournal();
+        if (journalConfiguration.isEnabled()) {
+            store = new UserProfileDaoJournaled(store, new UserProfileJournal(journalConfiguration),
+                    new UserProfileSnapshotStore(Paths.get(journalConfiguration.getDirectory())),
+                    journalConfiguration.getSnapshotInterval().toJavaDuration());
+        }
+        return new UserProfileDaoTimed(store, environment.metrics());
+    }
 }
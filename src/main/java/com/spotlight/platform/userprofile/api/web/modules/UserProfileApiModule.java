@@ -8,5 +8,6 @@ public class UserProfileApiModule implements Module {
     public void configure(Binder binder) {
         binder.install(new JsonModule());
         binder.install(new ProfileModule());
+        binder.install(new CommandModule());
     }
 }
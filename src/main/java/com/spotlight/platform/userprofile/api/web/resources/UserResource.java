@@ -1,48 +1,200 @@
 package com.spotlight.platform.userprofile.api.web.resources;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spotlight.platform.userprofile.api.core.command.CommandQueue;
 import com.spotlight.platform.userprofile.api.core.command.CommandService;
+import com.spotlight.platform.userprofile.api.core.command.CommandStreamProcessor;
+import com.spotlight.platform.userprofile.api.core.command.UserVersionIndex;
+import com.spotlight.platform.userprofile.api.core.exceptions.EntityNotFoundException;
 import com.spotlight.platform.userprofile.api.core.profile.UserProfileService;
 import com.spotlight.platform.userprofile.api.model.command.Command;
-import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.CommandStatus;
 import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.UnaryOperator;
 
 @Path("/users")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public class UserResource {
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String PROFILE_VERSION_HEADER = "Profile-Version";
+    static final int MAX_BULK_USER_IDS = 10_000;
+    static final long MAX_WAIT_MILLIS = 30_000;
 
     private final UserProfileService userProfileService;
     private final CommandService commandService;
+    private final CommandStreamProcessor commandStreamProcessor;
+    private final CommandQueue commandQueue;
+    private final UserVersionIndex versionIndex;
+    private final ObjectMapper objectMapper;
 
     @Inject
-    public UserResource(UserProfileService userProfileService, CommandService commandService) {
+    public UserResource(UserProfileService userProfileService, CommandService commandService,
+            CommandStreamProcessor commandStreamProcessor, CommandQueue commandQueue, UserVersionIndex versionIndex,
+            ObjectMapper objectMapper) {
         this.userProfileService = userProfileService;
         this.commandService = commandService;
+        this.commandStreamProcessor = commandStreamProcessor;
+        this.commandQueue = commandQueue;
+        this.versionIndex = versionIndex;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Returns the profile with the version it has at least in the {@value #PROFILE_VERSION_HEADER} header. With {@code minVersion}
+     * the request waits up to {@code timeoutMillis} for a command to bring the user to that version, and returns the profile as it is
+     * after the timeout otherwise; the header tells which case it was. An unknown user is answered with 404 without waiting. No thread
+     * is held while waiting, and the profile is read on the profile executor.
+     *
+     * @param fields names of the properties to return, repeated or comma separated; all properties are returned when absent
+     */
     @Path("/{userId}/profile")
     @GET
-    public UserProfile getUserProfile(@Valid @PathParam("userId") UserId userId) {
-        return userProfileService.get(userId);
+    public void getUserProfile(@Suspended AsyncResponse asyncResponse, @Valid @PathParam("userId") UserId userId,
+            @QueryParam("fields") List<String> fields, @QueryParam("minVersion") @Min(1) Long minVersion,
+            @QueryParam("timeoutMillis") @DefaultValue("10000") @Min(0) @Max(MAX_WAIT_MILLIS) long timeoutMillis) {
+        var projection = projection(fields);
+        long currentVersion = versionIndex.version(userId);
+        // a user with a version exists; any other one is read first, so an unknown user gets 404 instead of waiting out the timeout
+        var version = minVersion == null || currentVersion >= minVersion
+                ? CompletableFuture.completedFuture(currentVersion)
+                : userProfileService.getAsync(userId)
+                        .thenCompose(existing -> versionIndex.awaitVersion(userId, minVersion, Duration.ofMillis(timeoutMillis)));
+        resume(asyncResponse, version.thenCompose(reachedVersion -> userProfileService.getAsync(userId).thenApply(userProfile ->
+                Response.ok(projection.apply(userProfile)).header(PROFILE_VERSION_HEADER, reachedVersion).build())));
+    }
+
+    /**
+     * Returns the profiles of the existing users among {@code userIds} as a JSON array, in request order. Profiles are written to the
+     * response as they are read instead of being collected first.
+     *
+     * @param fields names of the properties to return, as for {@link #getUserProfile}
+     */
+    @Path("/profiles")
+    @POST
+    public StreamingOutput getUserProfiles(@Valid @NotNull @Size(max = MAX_BULK_USER_IDS) List<UserId> userIds,
+            @QueryParam("fields") List<String> fields) {
+        var projection = projection(fields);
+        return output -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+                generator.writeStartArray();
+                userProfileService.forEachExisting(userIds, userProfile -> writeProfile(generator, projection.apply(userProfile)));
+                generator.writeEndArray();
+            }
+        };
     }
 
     @Path("/command")
     @POST
-    public CommandResult postCommandToUpdateProfile(@Valid Command command) {
-        return commandService.processSingleCommand(command);
+    public void postCommandToUpdateProfile(@Suspended AsyncResponse asyncResponse, @Valid Command command) {
+        resume(asyncResponse, commandService.processSingleCommandAsync(command));
+    }
+
+    /**
+     * Queues the command and answers 202 with its sequence number and user without waiting for it to be processed, or 429 when the
+     * queue of the user is full. The status of the command is found at the {@code Location} given in the response.
+     */
+    @Path("/command-async")
+    @POST
+    public Response postCommandToUpdateProfileAsync(@Valid @NotNull Command command) {
+        var acceptance = commandQueue.enqueue(command);
+        return Response.accepted(acceptance)
+                .location(UriBuilder.fromResource(UserResource.class)
+                        .path(UserResource.class, "getAsyncCommandStatus")
+                        .build(acceptance.sequenceNumber()))
+                .build();
+    }
+
+    /**
+     * Returns the status of a command queued with {@code /command-async}; once it is processed, its result holds the profile version
+     * to pass as {@code minVersion} when reading the profile. Answers 404 for commands not accepted or no longer retained.
+     */
+    @Path("/command-async/{sequenceNumber}")
+    @GET
+    public CommandStatus getAsyncCommandStatus(@PathParam("sequenceNumber") long sequenceNumber) {
+        return commandQueue.status(sequenceNumber).orElseThrow(EntityNotFoundException::new);
     }
 
     //Maybe not necessary endpoint
     @Path("/command-batch")
     @POST
-    public List<CommandResult> postCommandsBatchToUpdateProfile(@Valid List<Command> commands) {
-        return commandService.processBatchOfCommand(commands);
+    public void postCommandsBatchToUpdateProfile(@Suspended AsyncResponse asyncResponse, @Valid List<Command> commands) {
+        resume(asyncResponse, commandService.processBatchOfCommandAsync(commands));
+    }
+
+    /**
+     * Takes one command per line and answers with one result per line in the same order, while the upload is still being read.
+     * Commands of unknown users fail individually instead of failing the upload.
+     */
+    @Path("/command-stream")
+    @POST
+    @Consumes(APPLICATION_NDJSON)
+    @Produces(APPLICATION_NDJSON)
+    public StreamingOutput postCommandStreamToUpdateProfiles(InputStream commands) {
+        return results -> commandStreamProcessor.process(commands, results);
+    }
+
+    /**
+     * Resumes the suspended request once {@code result} completes, on the thread completing it. Failures are unwrapped from
+     * {@link CompletionException}, so they reach the exception mappers as if the resource had thrown them.
+     */
+    private static void resume(AsyncResponse asyncResponse, CompletionStage<?> result) {
+        result.whenComplete((value, failure) -> {
+            if (failure == null) {
+                asyncResponse.resume(value);
+            } else {
+                asyncResponse.resume(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            }
+        });
+    }
+
+    private static UnaryOperator<UserProfile> projection(List<String> fields) {
+        if (fields == null) {
+            return UnaryOperator.identity();
+        }
+        Set<UserProfilePropertyName> propertyNames = new LinkedHashSet<>();
+        for (String field : fields) {
+            for (String propertyName : field.split(",")) {
+                if (!propertyName.isBlank()) {
+                    propertyNames.add(UserProfilePropertyName.valueOf(propertyName.strip()));
+                }
+            }
+        }
+        return propertyNames.isEmpty() ? UnaryOperator.identity() : userProfile -> userProfile.withOnlyProperties(propertyNames);
+    }
+
+    private static void writeProfile(JsonGenerator generator, UserProfile userProfile) {
+        try {
+            generator.writeObject(userProfile);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
     }
 }
@@ -0,0 +1,69 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.model.configuration.DeduplicationConfiguration;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandDeduplicatorTest {
+    private static final Duration WINDOW = Duration.ofMinutes(10);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final CommandDeduplicator deduplicator = new CommandDeduplicator(WINDOW, 3, 10_000, 1e-3, nanoTime::get);
+
+    @Test
+    void recordedCommand_IsRecognized() {
+        deduplicator.record(UserProfileFixtures.USER_ID, "command-1");
+
+        assertThat(deduplicator.mightContain(UserProfileFixtures.USER_ID, "command-1")).isTrue();
+        assertThat(deduplicator.mightContain(UserProfileFixtures.USER_ID, "command-2")).isFalse();
+        assertThat(deduplicator.mightContain(UserProfileFixtures.NON_EXISTING_USER_ID, "command-1")).isFalse();
+    }
+
+    @Test
+    void recordedCommand_RememberedForWindowAndForgottenAfterwards() {
+        deduplicator.record(UserProfileFixtures.USER_ID, "command-1");
+
+        nanoTime.addAndGet(WINDOW.toNanos() - 1);
+        assertThat(deduplicator.mightContain(UserProfileFixtures.USER_ID, "command-1")).isTrue();
+
+        nanoTime.addAndGet(WINDOW.toNanos() / 2 + 1);
+        assertThat(deduplicator.mightContain(UserProfileFixtures.USER_ID, "command-1")).isFalse();
+    }
+
+    @Test
+    void longIdle_AllGenerationsForgotten() {
+        deduplicator.record(UserProfileFixtures.USER_ID, "command-1");
+
+        nanoTime.addAndGet(WINDOW.toNanos() * 100);
+
+        assertThat(deduplicator.mightContain(UserProfileFixtures.USER_ID, "command-1")).isFalse();
+        deduplicator.record(UserProfileFixtures.USER_ID, "command-2");
+        assertThat(deduplicator.mightContain(UserProfileFixtures.USER_ID, "command-2")).isTrue();
+    }
+
+    @Test
+    void expectedNumberOfCommands_FalsePositiveRateKept() {
+        IntStream.range(0, 10_000).forEach(i -> deduplicator.record(UserProfileFixtures.USER_ID, "recorded-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> deduplicator.mightContain(UserProfileFixtures.USER_ID, "new-" + i))
+                .count();
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void memoryFootprint_FollowsConfiguration() {
+        var defaults = new CommandDeduplicator(new DeduplicationConfiguration());
+
+        assertThat(defaults.memoryBytes()).isBetween(12_000_000L, 20_000_000L);
+        assertThat(deduplicator.memoryBytes()).isLessThan(defaults.memoryBytes());
+    }
+}
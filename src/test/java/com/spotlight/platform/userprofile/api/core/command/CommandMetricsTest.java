@@ -0,0 +1,91 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.DONE;
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.FAIL;
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandMetricsTest {
+    private static final UserProfilePropertyName GOLD = UserProfilePropertyName.valueOf("currentGold");
+    private static final UserProfilePropertyName GEMS = UserProfilePropertyName.valueOf("currentGems");
+    private static final Command INCREMENT = new Command(USER_ID, CommandTypeEnum.INCREMENT,
+            Map.of(GOLD, UserProfilePropertyValue.valueOf(1), GEMS, UserProfilePropertyValue.valueOf(2)));
+    private static final Command REPLACE = new Command(USER_ID, CommandTypeEnum.REPLACE, null);
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final CommandMetrics commandMetrics = new CommandMetrics(metrics);
+
+    @Test
+    void metrics_RegisteredForEveryTypeAndResult() {
+        assertThat(metrics.getTimers()).containsKeys(name("REPLACE", "time"), name("INCREMENT", "time"), name("COLLECT", "time"),
+                name("batch", "time"));
+        assertThat(metrics.getMeters()).containsKeys(name("REPLACE", "DONE"), name("INCREMENT", "FAIL"), name("COLLECT", "DUPLICATE"));
+        assertThat(metrics.getHistograms()).containsKeys(name("COLLECT", "properties"), name("batch", "size"));
+    }
+
+    @Test
+    void singleCommandProcessed_TimedByTypeAndCountedByResult() {
+        commandMetrics.singleCommandProcessed(INCREMENT, new CommandResult(DONE, 1), System.nanoTime());
+
+        assertThat(metrics.timer(name("INCREMENT", "time")).getCount()).isEqualTo(1);
+        assertThat(metrics.timer(name("REPLACE", "time")).getCount()).isZero();
+        assertThat(metrics.meter(name("INCREMENT", "DONE")).getCount()).isEqualTo(1);
+        assertThat(metrics.histogram(name("INCREMENT", "properties")).getSnapshot().getValues()).containsExactly(2);
+    }
+
+    @Test
+    void singleCommandNotProcessed_TimedButNotCounted() {
+        commandMetrics.singleCommandProcessed(REPLACE, null, System.nanoTime());
+
+        assertThat(metrics.timer(name("REPLACE", "time")).getCount()).isEqualTo(1);
+        assertThat(metrics.meter(name("REPLACE", "DONE")).getCount()).isZero();
+        assertThat(metrics.meter(name("REPLACE", "FAIL")).getCount()).isZero();
+    }
+
+    @Test
+    void batchProcessed_TimedAndEveryProcessedCommandCounted() {
+        var commands = List.of(INCREMENT, REPLACE, INCREMENT);
+        var results = new CommandResult[] {new CommandResult(DONE, 1), new CommandResult(FAIL, 1), null};
+
+        commandMetrics.batchProcessed(commands, results, System.nanoTime());
+
+        assertThat(metrics.timer(name("batch", "time")).getCount()).isEqualTo(1);
+        assertThat(metrics.histogram(name("batch", "size")).getSnapshot().getValues()).containsExactly(3);
+        assertThat(metrics.meter(name("INCREMENT", "DONE")).getCount()).isEqualTo(1);
+        assertThat(metrics.meter(name("REPLACE", "FAIL")).getCount()).isEqualTo(1);
+        assertThat(metrics.histogram(name("REPLACE", "properties")).getSnapshot().getValues()).containsExactly(0);
+        assertThat(metrics.timer(name("INCREMENT", "time")).getCount()).isZero();
+    }
+
+    @Test
+    void reservoir_KeepsOnlyLatestMeasurements() {
+        var commands = Arrays.asList(new Command[CommandMetrics.RESERVOIR_SIZE + 1]);
+        var results = new CommandResult[commands.size()];
+
+        commandMetrics.batchProcessed(List.of(INCREMENT), new CommandResult[1], System.nanoTime());
+        for (int i = 0; i < CommandMetrics.RESERVOIR_SIZE; i++) {
+            commandMetrics.batchProcessed(commands, results, System.nanoTime());
+        }
+
+        var batchSizes = metrics.histogram(name("batch", "size"));
+        assertThat(batchSizes.getCount()).isEqualTo(CommandMetrics.RESERVOIR_SIZE + 1);
+        assertThat(batchSizes.getSnapshot().getMin()).isEqualTo(CommandMetrics.RESERVOIR_SIZE + 1);
+    }
+
+    private static String name(String... names) {
+        return MetricRegistry.name(CommandService.class, names);
+    }
+}
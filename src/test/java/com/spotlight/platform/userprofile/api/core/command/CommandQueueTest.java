@@ -0,0 +1,158 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.core.exceptions.CommandQueueFullException;
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.CommandStatus;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandStatusEnum;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommandQueueTest {
+    private static final Command COMMAND = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.REPLACE, Map.of());
+    private static final CommandResult DONE = new CommandResult(CommandResultEnum.DONE, 1);
+
+    private final CommandService commandService = mock(CommandService.class);
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final List<Command> processed = new ArrayList<>();
+
+    @Test
+    void enqueue_ReturnsIncreasingSequenceNumbers() {
+        var queue = new CommandQueue(commandService, 2, 10, 10, 100, metrics);
+
+        var first = queue.enqueue(COMMAND);
+        var second = queue.enqueue(COMMAND);
+
+        assertThat(second.sequenceNumber()).isGreaterThan(first.sequenceNumber());
+        assertThat(second.userId()).isEqualTo(UserProfileFixtures.USER_ID);
+        assertThat(queue.depth()).isEqualTo(2);
+        assertThat(gauge("depth")).isEqualTo(2);
+    }
+
+    @Test
+    void enqueueIntoFullPartition_Rejected() {
+        var queue = new CommandQueue(commandService, 1, 1, 10, 100, metrics);
+        queue.enqueue(COMMAND);
+
+        assertThatThrownBy(() -> queue.enqueue(COMMAND)).isExactlyInstanceOf(CommandQueueFullException.class);
+        assertThat(metrics.getMeters().get(metricName("accepted")).getCount()).isEqualTo(1);
+        assertThat(metrics.getMeters().get(metricName("rejected")).getCount()).isEqualTo(1);
+        assertThat(gauge("depth", "partition-0")).isEqualTo(1);
+        assertThat(queue.status(2)).isEmpty();
+    }
+
+    @Test
+    void status_PendingUntilProcessedThenWithResult() throws InterruptedException {
+        when(commandService.processBatchOfCommandReportingUnknownUsers(anyList())).thenReturn(List.of(DONE));
+        var queue = new CommandQueue(commandService, 1, 10, 1, 100, metrics);
+
+        var acceptance = queue.enqueue(COMMAND);
+
+        assertThat(queue.status(acceptance.sequenceNumber())).contains(
+                new CommandStatus(acceptance.sequenceNumber(), UserProfileFixtures.USER_ID, CommandStatusEnum.PENDING, null));
+        queue.start();
+        queue.stop();
+        assertThat(queue.status(acceptance.sequenceNumber())).contains(
+                new CommandStatus(acceptance.sequenceNumber(), UserProfileFixtures.USER_ID, CommandStatusEnum.PROCESSED, DONE));
+    }
+
+    @Test
+    void unknownUser_ReportedInStatusAndMeter() throws InterruptedException {
+        when(commandService.processBatchOfCommandReportingUnknownUsers(anyList())).thenReturn(Arrays.asList(DONE, null));
+        var queue = new CommandQueue(commandService, 1, 10, 10, 100, metrics);
+        var known = queue.enqueue(COMMAND);
+        var unknown = queue.enqueue(new Command(UserProfileFixtures.NON_EXISTING_USER_ID, CommandTypeEnum.REPLACE, Map.of()));
+
+        queue.start();
+        queue.stop();
+
+        assertThat(queue.status(known.sequenceNumber())).map(CommandStatus::status).contains(CommandStatusEnum.PROCESSED);
+        assertThat(queue.status(unknown.sequenceNumber())).map(CommandStatus::status).contains(CommandStatusEnum.UNKNOWN_USER);
+        assertThat(metrics.getMeters().get(metricName("unknownUser")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void olderThanRetention_StatusNoLongerKept() {
+        var queue = new CommandQueue(commandService, 1, 10, 10, 2, metrics);
+        var first = queue.enqueue(COMMAND);
+        queue.enqueue(COMMAND);
+        var third = queue.enqueue(COMMAND);
+
+        assertThat(queue.status(first.sequenceNumber())).isEmpty();
+        assertThat(queue.status(third.sequenceNumber())).isPresent();
+    }
+
+    @Test
+    void stop_ProcessesAllAcceptedCommandsInOrderPerUser() throws InterruptedException {
+        doAnswer(invocation -> {
+            List<Command> batch = invocation.getArgument(0);
+            synchronized (processed) {
+                processed.addAll(batch);
+            }
+            return Collections.nCopies(batch.size(), DONE);
+        }).when(commandService).processBatchOfCommandReportingUnknownUsers(anyList());
+        var queue = new CommandQueue(commandService, 4, 1000, 7, 100, metrics);
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            commands.add(new Command(UserId.valueOf("user-" + i % 3), CommandTypeEnum.REPLACE, Map.of()));
+        }
+
+        queue.start();
+        commands.forEach(queue::enqueue);
+        queue.stop();
+
+        assertThat(queue.depth()).isZero();
+        assertThat(metrics.getMeters().get(metricName("processed")).getCount()).isEqualTo(100);
+        for (int user = 0; user < 3; user++) {
+            var userId = UserId.valueOf("user-" + user);
+            assertThat(processed.stream().filter(command -> command.userId().equals(userId)))
+                    .containsExactlyElementsOf(commands.stream().filter(command -> command.userId().equals(userId)).toList());
+        }
+    }
+
+    @Test
+    void failingBatch_WorkerKeepsDraining() throws InterruptedException {
+        doAnswer(invocation -> {
+            List<Command> batch = invocation.getArgument(0);
+            synchronized (processed) {
+                processed.addAll(batch);
+            }
+            throw new IllegalStateException("Store unavailable");
+        }).when(commandService).processBatchOfCommandReportingUnknownUsers(anyList());
+        var queue = new CommandQueue(commandService, 1, 10, 1, 100, metrics);
+
+        queue.start();
+        queue.enqueue(COMMAND);
+        queue.enqueue(COMMAND);
+        queue.stop();
+
+        assertThat(processed).hasSize(2);
+        assertThat(queue.status(1)).map(CommandStatus::status).contains(CommandStatusEnum.FAILED);
+    }
+
+    private Object gauge(String... names) {
+        return metrics.getGauges().get(metricName(names)).getValue();
+    }
+
+    private static String metricName(String... names) {
+        return MetricRegistry.name(CommandQueue.class, names);
+    }
+}
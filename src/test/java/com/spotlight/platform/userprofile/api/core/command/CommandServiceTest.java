@@ -1,59 +1,427 @@
 package com.spotlight.platform.userprofile.api.core.command;
 
+import com.codahale.metrics.MetricRegistry;
 import com.spotlight.platform.userprofile.api.core.exceptions.EntityNotFoundException;
+import com.spotlight.platform.userprofile.api.core.exceptions.ExecutorFullException;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
 import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
 import com.spotlight.platform.userprofile.api.model.command.Command;
 import com.spotlight.platform.userprofile.api.model.command.CommandResult;
 import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.configuration.DeduplicationConfiguration;
 import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
-import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
 
 import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.DONE;
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.DUPLICATE;
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.FAIL;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @Execution(ExecutionMode.SAME_THREAD)
 public class CommandServiceTest {
-    private final UserProfileDao userProfileDaoMock = mock(UserProfileDao.class);
-    private final CommandService commandService = new CommandService(userProfileDaoMock);
+    private final List<BoundedExecutor> executors = new ArrayList<>();
+    private final UserProfileDao userProfileDao = new UserProfileDaoInMemory();
+    private final CommandService commandService = new CommandService(userProfileDao, executor(4));
 
+    @AfterEach
+    void stopExecutors() throws InterruptedException {
+        for (BoundedExecutor executor : executors) {
+            executor.stop();
+        }
+    }
+
+    private BoundedExecutor executor(int parallelism) {
+        return executor(parallelism, BoundedExecutor.DEFAULT_MAX_PENDING_TASKS);
+    }
+
+    private BoundedExecutor executor(int parallelism, int maxPendingTasks) {
+        var executor = new BoundedExecutor(parallelism, maxPendingTasks);
+        executors.add(executor);
+        return executor;
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private List<Command> replaceForNewUsers(int users, UserProfilePropertyName propertyName) {
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            var userId = UserId.valueOf("user" + i);
+            userProfileDao.put(new UserProfile(userId, Instant.EPOCH, Map.of()));
+            commands.add(new Command(userId, CommandTypeEnum.REPLACE, Map.of(propertyName, UserProfilePropertyValue.valueOf(i))));
+        }
+        return commands;
+    }
+
+    private UserProfile givenProfile(Map<UserProfilePropertyName, UserProfilePropertyValue> properties) {
+        var userProfile = UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(properties);
+        userProfileDao.put(userProfile);
+        return userProfile;
+    }
+
+    private UserProfilePropertyValue storedValue(UserProfilePropertyName propertyName) {
+        return userProfileDao.get(UserProfileFixtures.USER_ID).orElseThrow().userProfileProperties().get(propertyName);
+    }
 
     @Test
     void processBatchReplaceCommand_ProfileFound_returnDone() {
-        UserProfile userProfile = UserProfileFixtures.USER_PROFILE_FOR_COMMANDS;
         var userPropKey1 = UserProfilePropertyName.valueOf("currentGold");
         var userPropKey2 = UserProfilePropertyName.valueOf("currentGems");
-
-        userProfile.userProfileProperties().clear();
-        userProfile.userProfileProperties().put(userPropKey1, UserProfilePropertyValue.valueOf(10));
-        userProfile.userProfileProperties().put(userPropKey2, UserProfilePropertyValue.valueOf(20));
-        when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.of(userProfile));
+        givenProfile(Map.of(userPropKey1, UserProfilePropertyValue.valueOf(10), userPropKey2, UserProfilePropertyValue.valueOf(20)));
 
         Map<UserProfilePropertyName, UserProfilePropertyValue> propertiesMap = new HashMap<>();
         int i1 = 100;
         int i2 = 200;
         propertiesMap.put(userPropKey1, UserProfilePropertyValue.valueOf(i1));
         propertiesMap.put(userPropKey2, UserProfilePropertyValue.valueOf(i2));
-        Command command1 = new Command(UserId.valueOf("any"), CommandTypeEnum.REPLACE, propertiesMap);
-        Command command2 = new Command(UserId.valueOf("any"), CommandTypeEnum.INCREMENT, propertiesMap);
+        Command command1 = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.REPLACE, propertiesMap);
+        Command command2 = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, propertiesMap);
 
-        assertEquals(List.of(new CommandResult(DONE), new CommandResult(DONE)), commandService.processBatchOfCommand(List.of(command1,command2)));
+        assertEquals(List.of(new CommandResult(DONE, 1), new CommandResult(DONE, 2)), commandService.processBatchOfCommand(List.of(command1,command2)));
+        assertEquals(UserProfilePropertyValue.valueOf(i1 + i1), storedValue(userPropKey1));
+        assertEquals(UserProfilePropertyValue.valueOf(i2 + i2), storedValue(userPropKey2));
     }
 
     @Test
-    void processSingleReplaceCommand_noProfileFound_returnException() {
-        when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.empty());
+    void processBatchOfCommand_manyUsers_resultsInInputOrderAndPerUserOrderKept() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        int users = 50;
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userProfileDao.put(new UserProfile(UserId.valueOf("user" + i), Instant.EPOCH, Map.of()));
+        }
+        for (int i = 0; i < users; i++) {
+            var userId = UserId.valueOf("user" + i);
+            commands.add(new Command(userId, CommandTypeEnum.REPLACE, Map.of(counter, UserProfilePropertyValue.valueOf(i))));
+        }
+        for (int i = 0; i < users; i++) {
+            var userId = UserId.valueOf("user" + i);
+            commands.add(new Command(userId, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1))));
+            commands.add(new Command(userId, CommandTypeEnum.COLLECT, Map.of(counter, UserProfilePropertyValue.valueOf(List.of("x")))));
+        }
+
+        var results = commandService.processBatchOfCommand(commands);
+
+        assertEquals(commands.size(), results.size());
+        for (int i = 0; i < users; i++) {
+            assertEquals(new CommandResult(DONE, 1), results.get(i));
+            assertEquals(new CommandResult(DONE, 2), results.get(users + 2 * i));
+            assertEquals(new CommandResult(FAIL, 2), results.get(users + 2 * i + 1));
+            assertEquals(UserProfilePropertyValue.valueOf(i + 1),
+                    userProfileDao.get(UserId.valueOf("user" + i)).orElseThrow().userProfileProperties().get(counter));
+        }
+    }
+
+    @Test
+    void processBatchOfCommand_sameUser_foldedIntoSingleUpdate() {
+        var userProfileDaoSpy = spy(new UserProfileDaoInMemory());
+        var service = new CommandService(userProfileDaoSpy, executor(4));
+        var counter = UserProfilePropertyName.valueOf("counter");
+        userProfileDaoSpy.put(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(
+                Map.of(counter, UserProfilePropertyValue.valueOf(0))));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+
+        var results = service.processBatchOfCommand(Collections.nCopies(100, increment));
+
+        assertEquals(LongStream.rangeClosed(1, 100).mapToObj(version -> new CommandResult(DONE, version)).toList(), results);
+        assertEquals(UserProfilePropertyValue.valueOf(100),
+                userProfileDaoSpy.get(UserProfileFixtures.USER_ID).orElseThrow().userProfileProperties().get(counter));
+        // the read that checks that the user exists is the one the commands are folded into
+        verify(userProfileDaoSpy, times(1)).getAll(Set.of(UserProfileFixtures.USER_ID));
+        verify(userProfileDaoSpy, times(1)).putAll(any());
+        verify(userProfileDaoSpy, never()).update(eq(UserProfileFixtures.USER_ID), any());
+    }
+
+    @Test
+    void processBatchOfCommand_waitingForDurability_userNoLongerLocked() throws Exception {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        var written = new CountDownLatch(1);
+        var durable = new CompletableFuture<Void>();
+        var slowSyncDao = new UserProfileDaoInMemory() {
+            @Override
+            public CompletableFuture<Void> putAllDeferringDurability(Collection<UserProfile> userProfiles) {
+                putAll(userProfiles);
+                written.countDown();
+                return durable;
+            }
+        };
+        slowSyncDao.put(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(
+                Map.of(counter, UserProfilePropertyValue.valueOf(0))));
+        var service = new CommandService(slowSyncDao, executor(2));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+
+        var batch = CompletableFuture.supplyAsync(() -> service.processBatchOfCommand(List.of(increment)));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+
+        assertEquals(new CommandResult(DONE, 2),
+                assertTimeoutPreemptively(Duration.ofSeconds(10), () -> service.processSingleCommand(increment)));
+        assertFalse(batch.isDone());
+        durable.complete(null);
+        assertEquals(List.of(new CommandResult(DONE, 1)), batch.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void processSingleCommand_updaterRunTwice_onlyTheWrittenRunCounts() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        var withCounter = UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(Map.of(counter, UserProfilePropertyValue.valueOf(0)));
+        var retried = new AtomicBoolean();
+        var retryingDao = new UserProfileDaoInMemory() {
+            @Override
+            public Optional<UserProfile> update(UserId userId, UnaryOperator<UserProfile> updater) {
+                if (retried.compareAndSet(false, true)) {
+                    // a first run against a profile that a concurrent write replaced before it could be stored
+                    updater.apply(withCounter);
+                }
+                return super.update(userId, updater);
+            }
+        };
+        retryingDao.put(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(Map.of()));
+        var service = new CommandService(retryingDao, executor(1));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)),
+                UUID.randomUUID().toString());
+
+        assertEquals(FAIL, service.processSingleCommand(increment).result());
+        retryingDao.put(withCounter);
+        assertEquals(new CommandResult(DONE, 1), service.processSingleCommand(increment));
+    }
+
+    @Test
+    void processBatchOfCommand_unknownUser_nothingApplied() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+        var commands = List.of(new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1))),
+                new Command(UserProfileFixtures.NON_EXISTING_USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1))));
+        var service = new CommandService(userProfileDao, executor(1));
+
+        assertThrows(EntityNotFoundException.class, () -> service.processBatchOfCommand(commands));
+        assertEquals(UserProfilePropertyValue.valueOf(1), storedValue(counter));
+    }
+
+    @Test
+    void processBatchOfCommandSkippingUnknownUsers_unknownUser_failsOnlyItsCommands() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+        var commands = List.of(new Command(UserProfileFixtures.NON_EXISTING_USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1))),
+                new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1))));
+
+        var results = commandService.processBatchOfCommandSkippingUnknownUsers(commands);
+
+        assertEquals(List.of(new CommandResult(FAIL, 0), new CommandResult(DONE, 1)), results);
+        assertEquals(UserProfilePropertyValue.valueOf(2), storedValue(counter));
+    }
+
+    @Test
+    void processBatchOfCommand_unknownUser_returnException() {
+        givenProfile(Map.of());
+        var commands = List.of(new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.REPLACE, Map.of()),
+                new Command(UserProfileFixtures.NON_EXISTING_USER_ID, CommandTypeEnum.REPLACE, Map.of()));
+
+        assertThrows(EntityNotFoundException.class, () -> commandService.processBatchOfCommand(commands));
+    }
+
+    @Test
+    void processCommands_versionsArePublished() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(0)));
+        var versionIndex = new UserVersionIndex();
+        var service = new CommandService(userProfileDao, executor(2), versionIndex,
+                new CommandDeduplicator(new DeduplicationConfiguration()));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+
+        service.processBatchOfCommand(List.of(increment, increment));
+        assertEquals(2, versionIndex.version(UserProfileFixtures.USER_ID));
+
+        assertEquals(new CommandResult(DONE, 3), service.processSingleCommand(increment));
+        assertEquals(3, versionIndex.version(UserProfileFixtures.USER_ID));
+    }
+
+    @Test
+    void processCommands_metricsRecorded() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(0)));
+        var metrics = new MetricRegistry();
+        var service = new CommandService(userProfileDao, executor(2), new UserVersionIndex(),
+                new CommandDeduplicator(new DeduplicationConfiguration()), new CommandMetrics(metrics));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+
+        service.processSingleCommand(increment);
+        service.processBatchOfCommand(List.of(increment, increment));
+
+        assertEquals(1, metrics.timer(MetricRegistry.name(CommandService.class, "INCREMENT", "time")).getCount());
+        assertEquals(1, metrics.timer(MetricRegistry.name(CommandService.class, "batch", "time")).getCount());
+        assertEquals(3, metrics.meter(MetricRegistry.name(CommandService.class, "INCREMENT", "DONE")).getCount());
+    }
+
+    @Test
+    void processRetriedCommand_appliedOnce() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(0)));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)),
+                "command-1");
+
+        assertEquals(new CommandResult(DONE, 1), commandService.processSingleCommand(increment));
+        assertEquals(List.of(new CommandResult(DUPLICATE, 1)), commandService.processBatchOfCommand(List.of(increment)));
+        assertEquals(UserProfilePropertyValue.valueOf(1), storedValue(counter));
+    }
+
+    @Test
+    void processBatchOfCommand_repeatedCommandIdInBatch_appliedOnce() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(0)));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)),
+                "command-1");
+        var otherIncrement = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT,
+                Map.of(counter, UserProfilePropertyValue.valueOf(1)), "command-2");
+
+        var results = commandService.processBatchOfCommand(List.of(increment, increment, otherIncrement));
+
+        assertEquals(List.of(new CommandResult(DONE, 1), new CommandResult(DUPLICATE, 1), new CommandResult(DONE, 2)), results);
+        assertEquals(UserProfilePropertyValue.valueOf(2), storedValue(counter));
+    }
+
+    @Test
+    void processFailedCommandWithId_retryIsApplied() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of());
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)),
+                "command-1");
+
+        assertEquals(new CommandResult(FAIL, 0), commandService.processSingleCommand(increment));
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(0)));
+        assertEquals(new CommandResult(DONE, 1), commandService.processSingleCommand(increment));
+    }
+
+    @Test
+    void processBatchOfCommand_emptyBatch_returnsEmptyList() {
+        assertEquals(List.of(), commandService.processBatchOfCommand(List.of()));
+    }
+
+    @Test
+    void processSingleCommandAsync_ProfileFound_completesWithResult() throws Exception {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+        var increment = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+
+        assertEquals(new CommandResult(DONE, 1), commandService.processSingleCommandAsync(increment).get(10, TimeUnit.SECONDS));
+        assertEquals(UserProfilePropertyValue.valueOf(2), storedValue(counter));
+    }
+
+    @Test
+    void processBatchOfCommandAsync_manyUsers_resultsInInputOrder() throws Exception {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            var userId = UserId.valueOf("user" + i);
+            userProfileDao.put(new UserProfile(userId, Instant.EPOCH, Map.of()));
+            commands.add(new Command(userId, CommandTypeEnum.REPLACE, Map.of(counter, UserProfilePropertyValue.valueOf(i))));
+            commands.add(new Command(userId, CommandTypeEnum.COLLECT, Map.of(counter, UserProfilePropertyValue.valueOf(List.of("x")))));
+        }
+
+        var results = commandService.processBatchOfCommandAsync(commands).get(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(new CommandResult(DONE, 1), results.get(2 * i));
+            assertEquals(new CommandResult(FAIL, 1), results.get(2 * i + 1));
+            assertEquals(UserProfilePropertyValue.valueOf(i),
+                    userProfileDao.get(UserId.valueOf("user" + i)).orElseThrow().userProfileProperties().get(counter));
+        }
+    }
+
+    @Test
+    void processBatchOfCommandAsync_unknownUser_completesExceptionallyAndNothingApplied() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        givenProfile(Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+        var commands = List.of(new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1))),
+                new Command(UserProfileFixtures.NON_EXISTING_USER_ID, CommandTypeEnum.REPLACE, Map.of()));
+
+        var failure = assertThrows(ExecutionException.class,
+                () -> commandService.processBatchOfCommandAsync(commands).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(EntityNotFoundException.class, failure.getCause());
+        assertEquals(UserProfilePropertyValue.valueOf(1), storedValue(counter));
+    }
+
+    @Test
+    void processSingleCommandAsync_noProfileFound_completesExceptionally() {
+        var command = new Command(UserProfileFixtures.NON_EXISTING_USER_ID, CommandTypeEnum.REPLACE, Map.of());
+
+        var failure = assertThrows(ExecutionException.class,
+                () -> commandService.processSingleCommandAsync(command).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(EntityNotFoundException.class, failure.getCause());
+    }
+
+    @Test
+    void processBatchOfCommandAsync_executorFull_rejectedAndNothingApplied() throws Exception {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        var commands = replaceForNewUsers(20, counter);
+        var fullExecutor = executor(1, 1);
+        var release = new CountDownLatch(1);
+        var blocking = fullExecutor.submit(() -> awaitQuietly(release));
+        var saturatedService = new CommandService(userProfileDao, fullExecutor);
+
+        assertThrows(ExecutorFullException.class, () -> saturatedService.processBatchOfCommandAsync(commands));
+        release.countDown();
+        blocking.get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(userProfileDao.get(UserId.valueOf("user" + i)).orElseThrow().userProfileProperties().isEmpty());
+        }
+    }
+
+    @Test
+    void processBatchOfCommand_noRoomForAllPartitions_restProcessedByCaller() {
+        var counter = UserProfilePropertyName.valueOf("counter");
+        var commands = replaceForNewUsers(20, counter);
+        var saturatedService = new CommandService(userProfileDao, executor(4, 1));
+
+        var results = saturatedService.processBatchOfCommand(commands);
 
+        for (int i = 0; i < 20; i++) {
+            assertEquals(new CommandResult(DONE, 1), results.get(i));
+            assertEquals(UserProfilePropertyValue.valueOf(i),
+                    userProfileDao.get(UserId.valueOf("user" + i)).orElseThrow().userProfileProperties().get(counter));
+        }
+    }
+
+    @Test
+    void processBatchOfCommandAsync_emptyBatch_completesWithEmptyList() throws Exception {
+        assertEquals(List.of(), commandService.processBatchOfCommandAsync(List.of()).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void processSingleReplaceCommand_noProfileFound_returnException() {
         Command command = new Command(UserId.valueOf("any"), CommandTypeEnum.REPLACE, new HashMap<>());
         assertThrows(EntityNotFoundException.class, () ->
                 commandService.processSingleCommand(command));
@@ -61,15 +429,11 @@ public class CommandServiceTest {
 
     @Test
     void processSingleReplaceCommand_ProfileFound_returnDoneResult() {
-        UserProfile userProfile = UserProfileFixtures.USER_PROFILE_FOR_COMMANDS;
-
         var userPropKey1 = UserProfilePropertyName.valueOf("currentGold");
         var userPropKey2 = UserProfilePropertyName.valueOf("currentGems");
         //initial 10 and 20
-        userProfile.userProfileProperties().clear();
-        userProfile.userProfileProperties().put(userPropKey1, UserProfilePropertyValue.valueOf(10));
-        userProfile.userProfileProperties().put(userPropKey2, UserProfilePropertyValue.valueOf(20));
-        when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.of(userProfile));
+        var initialProfile = givenProfile(
+                Map.of(userPropKey1, UserProfilePropertyValue.valueOf(10), userPropKey2, UserProfilePropertyValue.valueOf(20)));
 
         Map<UserProfilePropertyName, UserProfilePropertyValue> propertiesMap = new HashMap<>();
         //after should be 100 and 200
@@ -77,17 +441,30 @@ public class CommandServiceTest {
         int i2 = 200;
         propertiesMap.put(userPropKey1, UserProfilePropertyValue.valueOf(i1));
         propertiesMap.put(userPropKey2, UserProfilePropertyValue.valueOf(i2));
-        Command command = new Command(UserId.valueOf("any"), CommandTypeEnum.REPLACE, propertiesMap);
+        Command command = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.REPLACE, propertiesMap);
 
-        assertEquals(new CommandResult(DONE), commandService.processSingleCommand(command));
-        assertEquals(i1, userProfile.userProfileProperties().get(userPropKey1).getValue());
-        assertEquals(i2, userProfile.userProfileProperties().get(userPropKey2).getValue());
+        assertEquals(new CommandResult(DONE, 1), commandService.processSingleCommand(command));
+        assertEquals(UserProfilePropertyValue.valueOf(i1), storedValue(userPropKey1));
+        assertEquals(UserProfilePropertyValue.valueOf(i2), storedValue(userPropKey2));
+        //snapshot handed out before the command is not changed
+        assertEquals(UserProfilePropertyValue.valueOf(10), initialProfile.userProfileProperties().get(userPropKey1));
     }
 
     @Test
-    void processSingleIncrementCommand_ProfileFound_returnException() {
-        when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.empty());
+    void processSingleReplaceCommand_nullValue_returnFailAndKeepsProfile() {
+        var userPropKey = UserProfilePropertyName.valueOf("currentGold");
+        givenProfile(Map.of(userPropKey, UserProfilePropertyValue.valueOf(10)));
+
+        Map<UserProfilePropertyName, UserProfilePropertyValue> propertiesMap = new HashMap<>();
+        propertiesMap.put(userPropKey, null);
+        Command command = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.REPLACE, propertiesMap);
+
+        assertEquals(new CommandResult(FAIL, 0), commandService.processSingleCommand(command));
+        assertEquals(UserProfilePropertyValue.valueOf(10), storedValue(userPropKey));
+    }
 
+    @Test
+    void processSingleIncrementCommand_ProfileFound_returnException() {
         Command command = new Command(UserId.valueOf("any"), CommandTypeEnum.INCREMENT, new HashMap<>());
         assertThrows(EntityNotFoundException.class, () ->
                 commandService.processSingleCommand(command));
@@ -95,16 +472,12 @@ public class CommandServiceTest {
 
     @Test
     void processSingleIncrementCommand_ProfileFound_returnDoneResult() {
-        UserProfile userProfile = UserProfileFixtures.USER_PROFILE_FOR_COMMANDS;
         var userPropKey1 = UserProfilePropertyName.valueOf("battleFought");
         var userPropKey2 = UserProfilePropertyName.valueOf("questsNotCompleted");
         //initial 10 and 20
         int i11 = 10;
         int i21 = 20;
-        userProfile.userProfileProperties().clear();
-        userProfile.userProfileProperties().put(userPropKey1, UserProfilePropertyValue.valueOf(i11));
-        userProfile.userProfileProperties().put(userPropKey2, UserProfilePropertyValue.valueOf(i21));
-        when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.of(userProfile));
+        givenProfile(Map.of(userPropKey1, UserProfilePropertyValue.valueOf(i11), userPropKey2, UserProfilePropertyValue.valueOf(i21)));
 
         Map<UserProfilePropertyName, UserProfilePropertyValue> propertiesMap = new HashMap<>();
         //increment/decrement battleFought : 10 and questsNotCompleted : -1
@@ -112,17 +485,31 @@ public class CommandServiceTest {
         int i22 = -1;
         propertiesMap.put(userPropKey1, UserProfilePropertyValue.valueOf(i12));
         propertiesMap.put(userPropKey2, UserProfilePropertyValue.valueOf(i22));
-        Command command = new Command(UserId.valueOf("any"), CommandTypeEnum.INCREMENT, propertiesMap);
+        Command command = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, propertiesMap);
 
-        assertEquals(new CommandResult(DONE), commandService.processSingleCommand(command));
-        assertEquals(UserProfilePropertyValue.valueOf(i11 + i12), userProfile.userProfileProperties().get(userPropKey1));
-        assertEquals(UserProfilePropertyValue.valueOf(i21 + i22), userProfile.userProfileProperties().get(userPropKey2));
+        assertEquals(new CommandResult(DONE, 1), commandService.processSingleCommand(command));
+        assertEquals(UserProfilePropertyValue.valueOf(i11 + i12), storedValue(userPropKey1));
+        assertEquals(UserProfilePropertyValue.valueOf(i21 + i22), storedValue(userPropKey2));
     }
 
     @Test
-    void processSingleCollectCommand_ProfileFound_returnException() {
-        when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.empty());
+    void processSingleIncrementCommand_missingProperty_returnFailAndNothingApplied() {
+        var existingKey = UserProfilePropertyName.valueOf("battleFought");
+        var missingKey = UserProfilePropertyName.valueOf("missing");
+        givenProfile(Map.of(existingKey, UserProfilePropertyValue.valueOf(10)));
 
+        Map<UserProfilePropertyName, UserProfilePropertyValue> propertiesMap = new LinkedHashMap<>();
+        propertiesMap.put(existingKey, UserProfilePropertyValue.valueOf(1));
+        propertiesMap.put(missingKey, UserProfilePropertyValue.valueOf(1));
+        Command command = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT, propertiesMap);
+
+        assertEquals(new CommandResult(FAIL, 0), commandService.processSingleCommand(command));
+        assertEquals(UserProfilePropertyValue.valueOf(10), storedValue(existingKey));
+        assertNull(storedValue(missingKey));
+    }
+
+    @Test
+    void processSingleCollectCommand_ProfileFound_returnException() {
         Command command = new Command(UserId.valueOf("any"), CommandTypeEnum.COLLECT, new HashMap<>());
         assertThrows(EntityNotFoundException.class, () ->
                 commandService.processSingleCommand(command));
@@ -130,17 +517,12 @@ public class CommandServiceTest {
 
     @Test
     void processSingleCollectCommand_ProfileFound_returnDoneResult() {
-        UserProfile userProfile = UserProfileFixtures.USER_PROFILE_FOR_COMMANDS;
         var userPropKey1 = UserProfilePropertyName.valueOf("inventory");
         var userPropKey2 = UserProfilePropertyName.valueOf("tools");
         //initial "sword1", "sword2" and "tool1"
         var list11 = List.of("sword1", "sword2");
         var list21 = List.of("tool1");
-
-        userProfile.userProfileProperties().clear();
-        userProfile.userProfileProperties().put(userPropKey1, UserProfilePropertyValue.valueOf(list11));
-        userProfile.userProfileProperties().put(userPropKey2, UserProfilePropertyValue.valueOf(list21));
-        when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.of(userProfile));
+        givenProfile(Map.of(userPropKey1, UserProfilePropertyValue.valueOf(list11), userPropKey2, UserProfilePropertyValue.valueOf(list21)));
 
         Map<UserProfilePropertyName, UserProfilePropertyValue> propertiesMap = new HashMap<>();
         //collect shield1 and shield1
@@ -148,9 +530,9 @@ public class CommandServiceTest {
         var list22 = List.of("tool2");
         propertiesMap.put(userPropKey1, UserProfilePropertyValue.valueOf(list12));
         propertiesMap.put(userPropKey2, UserProfilePropertyValue.valueOf(list22));
-        Command command = new Command(UserId.valueOf("any"), CommandTypeEnum.COLLECT, propertiesMap);
+        Command command = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.COLLECT, propertiesMap);
 
-        assertEquals(new CommandResult(DONE), commandService.processSingleCommand(command));
+        assertEquals(new CommandResult(DONE, 1), commandService.processSingleCommand(command));
 
         var list13 = new ArrayList<>();
         list13.addAll(list11);
@@ -158,11 +540,55 @@ public class CommandServiceTest {
         var list23 = new ArrayList<>();
         list23.addAll(list21);
         list23.addAll(list22);
-        List<String> result1 = (List<String>) userProfile.userProfileProperties().get(userPropKey1).getValue();
-        List<String> result2 = (List<String>) userProfile.userProfileProperties().get(userPropKey2).getValue();
 
-        assertTrue(result1.containsAll(list13));
-        assertTrue(result2.containsAll(list23));
+        assertEquals(list13, storedValue(userPropKey1).getValue());
+        assertEquals(list23, storedValue(userPropKey2).getValue());
     }
 
+    @Test
+    void processSingleCollectCommand_notAList_returnFail() {
+        var userPropKey = UserProfilePropertyName.valueOf("inventory");
+        givenProfile(Map.of(userPropKey, UserProfilePropertyValue.valueOf("sword1")));
+
+        Command command = new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.COLLECT,
+                Map.of(userPropKey, UserProfilePropertyValue.valueOf(List.of("shield1"))));
+
+        assertEquals(new CommandResult(FAIL, 0), commandService.processSingleCommand(command));
+        assertEquals(UserProfilePropertyValue.valueOf("sword1"), storedValue(userPropKey));
+    }
+
+    @Test
+    void processConcurrentIncrementCommands_sameUser_noIncrementIsLost() throws Exception {
+        var userId = UserId.valueOf("contended-user");
+        var counter = UserProfilePropertyName.valueOf("counter");
+        userProfileDao.put(new UserProfile(userId, Instant.EPOCH, Map.of(counter, UserProfilePropertyValue.valueOf(0))));
+
+        int threads = 8;
+        int incrementsPerThread = 2_000;
+        var command = new Command(userId, CommandTypeEnum.INCREMENT, Map.of(counter, UserProfilePropertyValue.valueOf(1)));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        assertEquals(DONE, commandService.processSingleCommand(command).result());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(UserProfilePropertyValue.valueOf(threads * incrementsPerThread),
+                userProfileDao.get(userId).orElseThrow().userProfileProperties().get(counter));
+        assertEquals(new CommandResult(DONE, threads * incrementsPerThread + 1L), commandService.processSingleCommand(command));
+    }
 }
@@ -0,0 +1,109 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
+import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import io.dropwizard.jersey.validation.Validators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CommandStreamProcessorTest {
+    private static final UserProfilePropertyName COUNTER = UserProfilePropertyName.valueOf("counter");
+    private static final String INCREMENT_COMMAND = """
+            {"userId":"%s","type":"INCREMENT","properties":{"counter":1}}
+            """;
+
+    private final UserProfileDao userProfileDao = new UserProfileDaoInMemory();
+    private final BoundedExecutor commandExecutor = new BoundedExecutor(2);
+    private final CommandService commandService = spy(new CommandService(userProfileDao, commandExecutor));
+    private final CommandStreamProcessor processor = new CommandStreamProcessor(commandService, JsonMapper.getInstance(),
+            Validators.newValidator(), 2);
+
+    @AfterEach
+    void stopExecutor() throws InterruptedException {
+        commandExecutor.stop();
+    }
+
+    @Test
+    void commands_resultsAreWrittenOnePerLineInInputOrder() throws IOException {
+        givenCounter(0);
+        var input = INCREMENT_COMMAND.formatted(UserProfileFixtures.USER_ID)
+                + INCREMENT_COMMAND.formatted(UserProfileFixtures.NON_EXISTING_USER_ID)
+                + "\n"
+                + "{\"type\":\"INCREMENT\",\"properties\":{\"counter\":1}}\n"
+                + INCREMENT_COMMAND.formatted(UserProfileFixtures.USER_ID);
+
+        var output = process(input);
+
+        assertThat(output.lines()).containsExactly("{\"result\":\"DONE\",\"version\":1}", "{\"result\":\"FAIL\",\"version\":0}",
+                "{\"result\":\"FAIL\",\"version\":0}", "{\"result\":\"DONE\",\"version\":2}");
+        assertThat(storedCounter()).isEqualTo(UserProfilePropertyValue.valueOf(2));
+    }
+
+    @Test
+    void invalidCommands_failIndividuallyAndTheStreamGoesOn() throws IOException {
+        givenCounter(0);
+        var input = "{\"userId\":\"%s\",\"type\":\"INCREMENT\",\"properties\":null}\n".formatted(UserProfileFixtures.USER_ID)
+                + INCREMENT_COMMAND.replace("%s", "not a user id!")
+                + "{\"userId\":\"%s\",\"type\":\"UNKNOWN\",\"properties\":{}}\n".formatted(UserProfileFixtures.USER_ID)
+                + "null\n"
+                + INCREMENT_COMMAND.formatted(UserProfileFixtures.USER_ID);
+
+        var output = process(input);
+
+        assertThat(output.lines()).containsExactly("{\"result\":\"FAIL\",\"version\":0}", "{\"result\":\"FAIL\",\"version\":0}",
+                "{\"result\":\"FAIL\",\"version\":0}", "{\"result\":\"FAIL\",\"version\":0}", "{\"result\":\"DONE\",\"version\":1}");
+        assertThat(storedCounter()).isEqualTo(UserProfilePropertyValue.valueOf(1));
+    }
+
+    @Test
+    void manyCommands_areProcessedInChunks() throws IOException {
+        givenCounter(0);
+        var input = INCREMENT_COMMAND.formatted(UserProfileFixtures.USER_ID).repeat(5);
+
+        var output = process(input);
+
+        assertThat(output.lines()).hasSize(5);
+        assertThat(storedCounter()).isEqualTo(UserProfilePropertyValue.valueOf(5));
+        verify(commandService, times(3)).processBatchOfCommandSkippingUnknownUsers(anyList());
+    }
+
+    @Test
+    void emptyInput_writesNothing() throws IOException {
+        assertThat(process("")).isEmpty();
+    }
+
+    private String process(String input) throws IOException {
+        var output = new ByteArrayOutputStream();
+        processor.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private void givenCounter(long value) {
+        userProfileDao.put(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(
+                Map.of(COUNTER, UserProfilePropertyValue.valueOf(value))));
+    }
+
+    private UserProfilePropertyValue storedCounter() {
+        return userProfileDao.get(UserProfileFixtures.USER_ID).orElseThrow().userProfileProperties().get(COUNTER);
+    }
+}
@@ -0,0 +1,113 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.model.command.HotUser;
+import com.spotlight.platform.userprofile.api.model.configuration.HotUserConfiguration;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotUserTrackerTest {
+    private static final Duration DECAY_INTERVAL = Duration.ofMinutes(1);
+    private static final UserId BOT = UserId.valueOf("bot");
+    private static final UserId PLAYER = UserId.valueOf("player");
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final HotUserTracker tracker = new HotUserTracker(64, DECAY_INTERVAL, 3, nanoTime::get);
+
+    @Test
+    void report_UsersOrderedByCommands() {
+        record(BOT, 30);
+        record(PLAYER, 10);
+
+        var report = tracker.report(10);
+
+        assertThat(report.commands()).isEqualTo(40);
+        assertThat(report.users()).containsExactly(new HotUser(BOT, 30, 0), new HotUser(PLAYER, 10, 0));
+    }
+
+    @Test
+    void report_LimitedToRequestedUsers() {
+        record(BOT, 30);
+        record(PLAYER, 10);
+
+        assertThat(tracker.report(1).users()).extracting(HotUser::userId).containsExactly(BOT);
+    }
+
+    @Test
+    void manyMoreUsersThanCounters_HeavyHitterStillFoundWithBoundedOverestimate() {
+        int users = 100_000;
+        for (int i = 0; i < users; i++) {
+            tracker.record(UserId.valueOf("user-" + i));
+            if (i % 10 == 0) {
+                tracker.record(BOT);
+            }
+        }
+
+        var report = tracker.report(1);
+
+        var hottest = report.users().get(0);
+        assertThat(hottest.userId()).isEqualTo(BOT);
+        assertThat(hottest.commands() - hottest.maxOverestimate()).isLessThanOrEqualTo(users / 10);
+        assertThat(hottest.commands()).isGreaterThanOrEqualTo(users / 10);
+    }
+
+    @Test
+    void decayInterval_CountsHalved() {
+        record(BOT, 30);
+        record(PLAYER, 11);
+
+        nanoTime.addAndGet(DECAY_INTERVAL.toNanos());
+
+        var report = tracker.report(10);
+        assertThat(report.users()).containsExactly(new HotUser(BOT, 15, 0), new HotUser(PLAYER, 5, 0));
+    }
+
+    @Test
+    void longIdle_UsersDropOut() {
+        record(BOT, 30);
+
+        nanoTime.addAndGet(Duration.ofDays(365).toNanos());
+
+        var report = tracker.report(10);
+        assertThat(report.commands()).isZero();
+        assertThat(report.users()).isEmpty();
+    }
+
+    @Test
+    void gauges_ReportHottestUserAndShares() {
+        var metrics = new MetricRegistry();
+        var registeredTracker = new HotUserTracker(new HotUserConfiguration(), metrics);
+        IntStream.range(0, 3).forEach(i -> registeredTracker.record(BOT));
+        registeredTracker.record(PLAYER);
+
+        assertThat(gauge(metrics, "hottestUser")).isEqualTo("bot");
+        assertThat(gauge(metrics, "hottestUserShare")).isEqualTo(0.75);
+        assertThat(gauge(metrics, "topUsersShare")).isEqualTo(1.0);
+    }
+
+    @Test
+    void gauges_NoCommands_Empty() {
+        var metrics = new MetricRegistry();
+        new HotUserTracker(new HotUserConfiguration(), metrics);
+
+        assertThat(gauge(metrics, "hottestUser")).isEqualTo("");
+        assertThat(gauge(metrics, "hottestUserShare")).isEqualTo(0.0);
+    }
+
+    private void record(UserId userId, int commands) {
+        for (int i = 0; i < commands; i++) {
+            tracker.record(userId);
+        }
+    }
+
+    private static Object gauge(MetricRegistry metrics, String name) {
+        return metrics.getGauges().get(MetricRegistry.name(HotUserTracker.class, name)).getValue();
+    }
+}
@@ -0,0 +1,90 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedUserLockTest {
+
+    private final StripedUserLock userLock = new StripedUserLock(5);
+
+    @Test
+    void stripes_roundedUpToPowerOfTwo() {
+        assertThat(userLock.stripes()).isEqualTo(8);
+        assertThat(new StripedUserLock(1).stripes()).isEqualTo(1);
+        assertThat(new StripedUserLock(16).stripes()).isEqualTo(16);
+    }
+
+    @Test
+    void nonPositiveStripes_throwsException() {
+        assertThatThrownBy(() -> new StripedUserLock(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sameUser_alwaysGetsSameLock() {
+        assertThat(userLock.lockFor(UserId.valueOf("user"))).isSameAs(userLock.lockFor(UserId.valueOf("user")));
+    }
+
+    @Test
+    void executeLocked_holdsLockDuringActionAndReturnsResult() {
+        var userId = UserId.valueOf("user");
+
+        var result = userLock.executeLocked(userId, () -> userLock.lockFor(userId).isHeldByCurrentThread());
+
+        assertThat(result).isTrue();
+        assertThat(userLock.lockFor(userId).isLocked()).isFalse();
+    }
+
+    @Test
+    void executeLocked_releasesLockOnException() {
+        var userId = UserId.valueOf("user");
+
+        assertThatThrownBy(() -> userLock.executeLocked(userId, () -> {
+            throw new IllegalStateException();
+        })).isExactlyInstanceOf(IllegalStateException.class);
+        assertThat(userLock.lockFor(userId).isLocked()).isFalse();
+    }
+
+    @Test
+    void executeWithAllLocked_holdsEveryStripeAndReleasesThem() {
+        var users = List.of(UserId.valueOf("user"), UserId.valueOf("other"), UserId.valueOf("third"));
+
+        var result = userLock.executeWithAllLocked(() -> users.stream().allMatch(userId -> userLock.lockFor(userId).isHeldByCurrentThread()));
+
+        assertThat(result).isTrue();
+        assertThat(users).noneMatch(userId -> userLock.lockFor(userId).isLocked());
+    }
+
+    @Test
+    void executeLockedForUsers_holdsTheirStripesAndReleasesThem() {
+        var users = List.of(UserId.valueOf("user"), UserId.valueOf("other"), UserId.valueOf("user"));
+
+        var result = userLock.executeLocked(users, () -> users.stream().allMatch(userId -> userLock.lockFor(userId).isHeldByCurrentThread()));
+
+        assertThat(result).isTrue();
+        assertThat(users).noneMatch(userId -> userLock.lockFor(userId).isLocked());
+    }
+
+    @Test
+    void executeLockedForUsers_releasesLocksOnException() {
+        var users = List.of(UserId.valueOf("user"), UserId.valueOf("other"));
+
+        assertThatThrownBy(() -> userLock.executeLocked(users, () -> {
+            throw new IllegalStateException();
+        })).isExactlyInstanceOf(IllegalStateException.class);
+        assertThat(users).noneMatch(userId -> userLock.lockFor(userId).isLocked());
+    }
+
+    @Test
+    void stripeOf_identifiesLockOfUser() {
+        var userId = UserId.valueOf("user");
+
+        assertThat(userLock.stripeOf(userId)).isBetween(0, userLock.stripes() - 1);
+        assertThat(userLock.stripeOf(userId)).isEqualTo(userLock.stripeOf(UserId.valueOf("user")));
+    }
+}
@@ -0,0 +1,117 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.DONE;
+import static com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum.FAIL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserProfileMutationTest {
+    private static final UserProfilePropertyName GOLD = UserProfilePropertyName.valueOf("currentGold");
+    private static final UserProfilePropertyName INVENTORY = UserProfilePropertyName.valueOf("inventory");
+
+    private final UserProfileMutation mutation = new UserProfileMutation(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(
+            Map.of(GOLD, UserProfilePropertyValue.valueOf(10), INVENTORY, UserProfilePropertyValue.valueOf(List.of("sword1")))));
+
+    @Test
+    void increments_areSummed() {
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 5))).isEqualTo(DONE);
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, -2))).isEqualTo(DONE);
+
+        assertThat(property(GOLD)).isEqualTo(UserProfilePropertyValue.valueOf(13));
+    }
+
+    @Test
+    void incrementOverflowingLong_returnFailAndKeepsValue() {
+        mutation.apply(command(CommandTypeEnum.REPLACE, GOLD, Long.MAX_VALUE - 1));
+
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 1))).isEqualTo(DONE);
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 1))).isEqualTo(FAIL);
+
+        assertThat(property(GOLD)).isEqualTo(UserProfilePropertyValue.valueOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void incrementWithFloatingPoint_turnsCounterIntoDouble() {
+        mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 1));
+        mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 0.5d));
+        mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 1));
+
+        assertThat(property(GOLD)).isEqualTo(UserProfilePropertyValue.valueOf(12.5d));
+    }
+
+    @Test
+    void incrementOfNonNumber_returnFail() {
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, INVENTORY, 1))).isEqualTo(FAIL);
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, "1"))).isEqualTo(FAIL);
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, UserProfilePropertyName.valueOf("missing"), 1))).isEqualTo(FAIL);
+    }
+
+    @Test
+    void replaceAfterIncrement_replacedValueWins() {
+        mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 5));
+        mutation.apply(command(CommandTypeEnum.REPLACE, GOLD, 1));
+        mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 1));
+
+        assertThat(property(GOLD)).isEqualTo(UserProfilePropertyValue.valueOf(2));
+    }
+
+    @Test
+    void replaces_lastValueWins() {
+        mutation.apply(command(CommandTypeEnum.REPLACE, GOLD, 1));
+        mutation.apply(command(CommandTypeEnum.REPLACE, GOLD, 2));
+
+        assertThat(property(GOLD)).isEqualTo(UserProfilePropertyValue.valueOf(2));
+    }
+
+    @Test
+    void collects_areConcatenatedWithoutTouchingOriginalSnapshot() {
+        var original = UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.withUserProfileProperties(
+                Map.of(INVENTORY, UserProfilePropertyValue.valueOf(List.of("sword1"))));
+        var collectMutation = new UserProfileMutation(original);
+
+        collectMutation.apply(command(CommandTypeEnum.COLLECT, INVENTORY, List.of("shield1")));
+        collectMutation.apply(command(CommandTypeEnum.COLLECT, INVENTORY, List.of("tool1", "tool2")));
+
+        assertThat(collectMutation.toUserProfile().userProfileProperties().get(INVENTORY).getValue()).isEqualTo(
+                List.of("sword1", "shield1", "tool1", "tool2"));
+        assertThat(original.userProfileProperties().get(INVENTORY).getValue()).isEqualTo(List.of("sword1"));
+    }
+
+    @Test
+    void replaceBetweenCollects_collectStartsFromReplacedList() {
+        mutation.apply(command(CommandTypeEnum.COLLECT, INVENTORY, List.of("shield1")));
+        mutation.apply(command(CommandTypeEnum.REPLACE, INVENTORY, List.of("bow1")));
+        mutation.apply(command(CommandTypeEnum.COLLECT, INVENTORY, List.of("arrow1")));
+
+        assertThat(property(INVENTORY).getValue()).isEqualTo(List.of("bow1", "arrow1"));
+    }
+
+    @Test
+    void failingCommand_leavesPreviousAndFollowingCommandsApplied() {
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 5))).isEqualTo(DONE);
+        assertThat(mutation.apply(new Command(UserProfileFixtures.USER_ID, CommandTypeEnum.INCREMENT,
+                Map.of(GOLD, UserProfilePropertyValue.valueOf(1), INVENTORY, UserProfilePropertyValue.valueOf(1))))).isEqualTo(FAIL);
+        assertThat(mutation.apply(command(CommandTypeEnum.INCREMENT, GOLD, 5))).isEqualTo(DONE);
+
+        assertThat(property(GOLD)).isEqualTo(UserProfilePropertyValue.valueOf(20));
+        assertThat(property(INVENTORY).getValue()).isEqualTo(List.of("sword1"));
+    }
+
+    private UserProfilePropertyValue property(UserProfilePropertyName propertyName) {
+        return mutation.toUserProfile().userProfileProperties().get(propertyName);
+    }
+
+    private static Command command(CommandTypeEnum type, UserProfilePropertyName propertyName, Object value) {
+        return new Command(UserProfileFixtures.USER_ID, type, Map.of(propertyName, UserProfilePropertyValue.valueOf(value)));
+    }
+}
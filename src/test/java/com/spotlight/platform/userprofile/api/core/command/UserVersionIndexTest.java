@@ -0,0 +1,69 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserVersionIndexTest {
+    private static final Duration LONG_TIMEOUT = Duration.ofMinutes(1);
+
+    private final UserVersionIndex versionIndex = new UserVersionIndex();
+
+    @Test
+    void unknownUser_HasVersionZero() {
+        assertThat(versionIndex.version(UserProfileFixtures.USER_ID)).isZero();
+    }
+
+    @Test
+    void publish_VersionIsVisible() {
+        versionIndex.publish(UserProfileFixtures.USER_ID, 3);
+
+        assertThat(versionIndex.version(UserProfileFixtures.USER_ID)).isEqualTo(3);
+        assertThat(versionIndex.version(UserProfileFixtures.NON_EXISTING_USER_ID)).isZero();
+    }
+
+    @Test
+    void publish_RetainedBytesGrowPerUserNotPerVersion() {
+        versionIndex.publish(UserProfileFixtures.USER_ID, 1);
+        versionIndex.publish(UserProfileFixtures.USER_ID, 2);
+
+        assertThat(versionIndex.size()).isEqualTo(1);
+        assertThat(versionIndex.retainedBytes()).isEqualTo(UserVersionIndex.USER_BYTES);
+    }
+
+    @Test
+    void awaitReachedVersion_CompletesImmediately() {
+        versionIndex.publish(UserProfileFixtures.USER_ID, 3);
+
+        var future = versionIndex.awaitVersion(UserProfileFixtures.USER_ID, 2, LONG_TIMEOUT);
+
+        assertThat(future).isCompletedWithValue(3L);
+        assertThat(versionIndex.waiting()).isZero();
+    }
+
+    @Test
+    void awaitFutureVersion_CompletesOncePublished() {
+        var future = versionIndex.awaitVersion(UserProfileFixtures.USER_ID, 2, LONG_TIMEOUT);
+
+        versionIndex.publish(UserProfileFixtures.USER_ID, 1);
+        assertThat(future).isNotDone();
+
+        versionIndex.publish(UserProfileFixtures.USER_ID, 2);
+        assertThat(future.join()).isEqualTo(2);
+        assertThat(versionIndex.waiting()).isZero();
+    }
+
+    @Test
+    void awaitVersionNeverReached_CompletesWithCurrentVersionAfterTimeout() {
+        versionIndex.publish(UserProfileFixtures.USER_ID, 1);
+
+        var future = versionIndex.awaitVersion(UserProfileFixtures.USER_ID, 5, Duration.ofMillis(10));
+
+        assertThat(future.join()).isEqualTo(1);
+        assertThat(versionIndex.waiting()).isZero();
+    }
+}
@@ -0,0 +1,117 @@
+package com.spotlight.platform.userprofile.api.core.executor;
+
+import com.spotlight.platform.userprofile.api.core.exceptions.ExecutorFullException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedExecutorTest {
+
+    @Test
+    void parallelism_asConfigured() throws Exception {
+        var executor = new BoundedExecutor(3);
+
+        assertThat(executor.getParallelism()).isEqualTo(3);
+        executor.stop();
+    }
+
+    @Test
+    void submit_runsTaskOnPoolThread() throws Exception {
+        var executor = new BoundedExecutor(2);
+        var callerThread = Thread.currentThread();
+
+        assertThat(executor.submit(Thread::currentThread).get()).isNotSameAs(callerThread);
+        executor.stop();
+    }
+
+    @Test
+    void submitAfterStop_isRejected() throws Exception {
+        var executor = new BoundedExecutor(1);
+        executor.stop();
+
+        assertThatThrownBy(() -> executor.submit(() -> 1)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void submitBeyondMaxPendingTasks_isRejectedUntilTasksFinish() throws Exception {
+        var executor = new BoundedExecutor(1, 2);
+        var release = new CountDownLatch(1);
+        var first = executor.submit(() -> await(release));
+        var second = executor.submit(() -> await(release));
+
+        assertThatThrownBy(() -> executor.submit(() -> 1)).isInstanceOf(ExecutorFullException.class);
+        assertThat(executor.pendingTasks()).isEqualTo(2);
+        release.countDown();
+        first.get();
+        second.get();
+        assertThat(executor.submit(() -> 1).get()).isEqualTo(1);
+        executor.stop();
+    }
+
+    @Test
+    void invokeAll_resultsInTaskOrder() throws Exception {
+        var executor = new BoundedExecutor(2);
+        List<Supplier<Integer>> tasks = List.of(() -> 1, () -> 2, () -> 3, () -> 4);
+
+        assertThat(executor.invokeAll(tasks)).containsExactly(1, 2, 3, 4);
+        executor.stop();
+    }
+
+    @Test
+    void invokeAllWhileWorkersAreBlocked_callerRunsAllTasks() throws Exception {
+        var executor = new BoundedExecutor(1);
+        var release = new CountDownLatch(1);
+        var blocking = executor.submit(() -> await(release));
+        var callerThread = Thread.currentThread();
+        List<Supplier<Thread>> tasks = List.of(Thread::currentThread, Thread::currentThread, Thread::currentThread);
+
+        assertThat(executor.invokeAll(tasks)).containsOnly(callerThread);
+        release.countDown();
+        blocking.get();
+        executor.stop();
+    }
+
+    @Test
+    void invokeAllWithFailingTask_failureRethrownAfterAllTasksRan() throws Exception {
+        var executor = new BoundedExecutor(2);
+        var ran = new AtomicInteger();
+        List<Supplier<Integer>> tasks = List.of(ran::incrementAndGet, () -> {
+            throw new IllegalStateException("failed");
+        }, ran::incrementAndGet);
+
+        assertThatThrownBy(() -> executor.invokeAll(tasks)).isInstanceOf(IllegalStateException.class).hasMessage("failed");
+        assertThat(ran).hasValue(2);
+        executor.stop();
+    }
+
+    @Test
+    void submitOrRunWithoutRoom_runsOnCallingThread() throws Exception {
+        var executor = new BoundedExecutor(1, 1);
+        var release = new CountDownLatch(1);
+        var blocking = executor.submit(() -> await(release));
+        var callerThread = Thread.currentThread();
+
+        assertThat(executor.submitOrRun(Thread::currentThread)).isCompletedWithValue(callerThread);
+        release.countDown();
+        blocking.get();
+        executor.stop();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
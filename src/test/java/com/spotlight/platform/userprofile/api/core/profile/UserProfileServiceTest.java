@@ -1,25 +1,48 @@
 package com.spotlight.platform.userprofile.api.core.profile;
 
 import com.spotlight.platform.userprofile.api.core.exceptions.EntityNotFoundException;
+import com.spotlight.platform.userprofile.api.core.executor.BoundedExecutor;
 import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfileSize;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class UserProfileServiceTest {
     private final UserProfileDao userProfileDaoMock = mock(UserProfileDao.class);
-    private final UserProfileService userProfileService = new UserProfileService(userProfileDaoMock);
+    private final BoundedExecutor profileExecutor = new BoundedExecutor(1);
+    private final UserProfileService userProfileService = new UserProfileService(userProfileDaoMock, profileExecutor);
+
+    @AfterEach
+    void stopExecutor() throws InterruptedException {
+        profileExecutor.stop();
+    }
 
     @Nested
     @DisplayName("get")
@@ -39,5 +62,97 @@ class UserProfileServiceTest {
             assertThatThrownBy(() -> userProfileService.get(UserProfileFixtures.USER_ID)).isExactlyInstanceOf(
                     EntityNotFoundException.class);
         }
+
+        @Test
+        void getAsyncForExistingUser_completesWithUser() {
+            when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.of(UserProfileFixtures.USER_PROFILE));
+
+            assertThat(userProfileService.getAsync(UserProfileFixtures.USER_ID)).succeedsWithin(Duration.ofSeconds(10))
+                    .isEqualTo(UserProfileFixtures.USER_PROFILE);
+        }
+
+        @Test
+        void getAsyncForNonExistingUser_completesExceptionally() {
+            when(userProfileDaoMock.get(any(UserId.class))).thenReturn(Optional.empty());
+
+            assertThat(userProfileService.getAsync(UserProfileFixtures.USER_ID)).failsWithin(Duration.ofSeconds(10))
+                    .withThrowableOfType(ExecutionException.class)
+                    .withCauseExactlyInstanceOf(EntityNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("forEachExisting")
+    class ForEachExisting {
+        @Test
+        void mixedUsers_onlyExistingUsersAreVisitedOnceInRequestOrder() {
+            var otherUserProfile = new UserProfile(UserId.valueOf("other-user-id"), UserProfileFixtures.LAST_UPDATE_TIMESTAMP,
+                    UserProfileFixtures.USER_PROFILE.userProfileProperties());
+            when(userProfileDaoMock.getAll(anyCollection())).thenReturn(
+                    Map.of(UserProfileFixtures.USER_ID, UserProfileFixtures.USER_PROFILE, otherUserProfile.userId(), otherUserProfile));
+
+            List<UserProfile> visited = new ArrayList<>();
+            userProfileService.forEachExisting(List.of(otherUserProfile.userId(), UserProfileFixtures.NON_EXISTING_USER_ID,
+                    UserProfileFixtures.USER_ID, otherUserProfile.userId()), visited::add);
+
+            assertThat(visited).containsExactly(otherUserProfile, UserProfileFixtures.USER_PROFILE);
+        }
+
+        @Test
+        void manyUsers_areReadInChunks() {
+            when(userProfileDaoMock.getAll(anyCollection())).thenReturn(Map.of());
+            var userIds = IntStream.range(0, UserProfileService.BULK_READ_CHUNK_SIZE * 2 + 1)
+                    .mapToObj(index -> UserId.valueOf("user-" + index))
+                    .toList();
+
+            userProfileService.forEachExisting(userIds, userProfile -> {});
+
+            verify(userProfileDaoMock, times(3)).getAll(anyCollection());
+        }
+    }
+
+    @Nested
+    @DisplayName("largestProfiles")
+    class LargestProfiles {
+        private final UserProfileDao store = new UserProfileDaoInMemory();
+        private final UserProfileService service = new UserProfileService(store, profileExecutor);
+
+        @Test
+        void manyProfiles_limitLargestReturnedLargestFirst() {
+            IntStream.range(0, 10).forEach(size -> store.put(profileWithProperties("user-" + size, size)));
+
+            assertThat(service.largestProfiles(3, UserProfileSize::properties)).extracting(UserProfileSize::userId)
+                    .containsExactly(UserId.valueOf("user-9"), UserId.valueOf("user-8"), UserId.valueOf("user-7"));
+        }
+
+        @Test
+        void limitAboveStoreSize_allProfilesReturned() {
+            IntStream.range(0, 3).forEach(size -> store.put(profileWithProperties("user-" + size, size)));
+
+            assertThat(service.largestProfiles(Integer.MAX_VALUE, UserProfileSize::properties)).hasSize(3);
+        }
+
+        @Test
+        void listProperties_listElementsCounted() {
+            store.put(new UserProfile(UserProfileFixtures.USER_ID, null,
+                    Map.of(UserProfilePropertyName.valueOf("inventory"), UserProfilePropertyValue.valueOf(List.of("a", "b")),
+                            UserProfilePropertyName.valueOf("gold"), UserProfilePropertyValue.valueOf(5))));
+
+            assertThat(service.largestProfiles(1, UserProfileSize::listElements)).containsExactly(
+                    new UserProfileSize(UserProfileFixtures.USER_ID, 2, 2, 128 + 2 * 64 + 2 * 24));
+        }
+
+        @Test
+        void emptyStore_nothingReturned() {
+            assertThat(service.largestProfiles(3, UserProfileSize::estimatedBytes)).isEmpty();
+        }
+
+        private static UserProfile profileWithProperties(String userId, int properties) {
+            Map<UserProfilePropertyName, UserProfilePropertyValue> values = new HashMap<>();
+            for (int i = 0; i < properties; i++) {
+                values.put(UserProfilePropertyName.valueOf("property" + i), UserProfilePropertyValue.valueOf(i));
+            }
+            return new UserProfile(UserId.valueOf(userId), null, values);
+        }
     }
-}
\ No newline at end of file
+}
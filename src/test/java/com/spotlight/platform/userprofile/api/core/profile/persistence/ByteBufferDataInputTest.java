@@ -0,0 +1,60 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteBufferDataInputTest {
+
+    @Test
+    void readsWhatDataOutputWrote() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeBoolean(true);
+            out.writeByte(-1);
+            out.writeByte(-1);
+            out.writeShort(-2);
+            out.writeShort(-2);
+            out.writeChar('c');
+            out.writeInt(3);
+            out.writeLong(4L);
+            out.writeFloat(5.5f);
+            out.writeDouble(6.5);
+            out.writeUTF("text");
+            out.write(new byte[]{7, 8, 9});
+        }
+        var in = new ByteBufferDataInput(ByteBuffer.wrap(bytes.toByteArray()));
+
+        assertThat(in.readBoolean()).isTrue();
+        assertThat(in.readByte()).isEqualTo((byte) -1);
+        assertThat(in.readUnsignedByte()).isEqualTo(255);
+        assertThat(in.readShort()).isEqualTo((short) -2);
+        assertThat(in.readUnsignedShort()).isEqualTo(65534);
+        assertThat(in.readChar()).isEqualTo('c');
+        assertThat(in.readInt()).isEqualTo(3);
+        assertThat(in.readLong()).isEqualTo(4L);
+        assertThat(in.readFloat()).isEqualTo(5.5f);
+        assertThat(in.readDouble()).isEqualTo(6.5);
+        assertThat(in.readUTF()).isEqualTo("text");
+        assertThat(in.skipBytes(1)).isEqualTo(1);
+        var rest = new byte[2];
+        in.readFully(rest);
+        assertThat(rest).containsExactly(8, 9);
+        assertThat(in.skipBytes(1)).isZero();
+    }
+
+    @Test
+    void readPastEnd_ThrowsEofException() {
+        var in = new ByteBufferDataInput(ByteBuffer.wrap(new byte[3]));
+
+        assertThatThrownBy(in::readInt).isInstanceOf(EOFException.class);
+        assertThatThrownBy(in::readLine).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence;
+
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserProfileBinaryCodecTest {
+
+    @Test
+    void userProfile_RoundTripsAllValueKinds() throws IOException {
+        var userProfile = new UserProfile(UserId.valueOf("user"), USER_PROFILE.latestUpdateTime(), Map.of(
+                property("long"), UserProfilePropertyValue.valueOf(Long.MAX_VALUE),
+                property("double"), UserProfilePropertyValue.valueOf(1.5),
+                property("string"), UserProfilePropertyValue.valueOf("\u017c\u00f3\u0142w"),
+                property("boolean"), UserProfilePropertyValue.valueOf(true),
+                property("list"), UserProfilePropertyValue.valueOf(Arrays.asList(1, 2L, 0.5, "a", false, null, List.of("nested"))),
+                property("object"), UserProfilePropertyValue.valueOf(Map.of("key", "value"))));
+
+        var decoded = UserProfileBinaryCodec.readUserProfile(input(encode(userProfile)));
+
+        assertThat(decoded).isEqualTo(userProfile);
+    }
+
+    @Test
+    void userProfileWithoutUpdateTime_RoundTrips() throws IOException {
+        var userProfile = new UserProfile(UserId.valueOf("user"), null, Map.of());
+
+        assertThat(UserProfileBinaryCodec.readUserProfile(input(encode(userProfile)))).isEqualTo(userProfile);
+    }
+
+    @Test
+    void unknownTag_ThrowsException() {
+        assertThatThrownBy(() -> UserProfileBinaryCodec.readPropertyValue(input(new byte[]{99}))).isInstanceOf(IOException.class);
+    }
+
+    private static byte[] encode(UserProfile userProfile) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            UserProfileBinaryCodec.writeUserProfile(out, userProfile);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static UserProfilePropertyName property(String name) {
+        return UserProfilePropertyName.valueOf(name);
+    }
+}
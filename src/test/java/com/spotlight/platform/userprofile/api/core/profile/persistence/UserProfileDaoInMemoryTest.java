@@ -1,14 +1,24 @@
 package com.spotlight.platform.userprofile.api.core.profile.persistence;
 
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class UserProfileDaoInMemoryTest {
 
+    private static final UserProfilePropertyName PROPERTY = UserProfilePropertyName.valueOf("property1");
+
     private final UserProfileDao dao = new UserProfileDaoInMemory();
 
     @Test
@@ -23,4 +33,89 @@ class UserProfileDaoInMemoryTest {
         assertThat(dao.get(UserProfileFixtures.USER_ID)).hasValueSatisfying(
                 userProfile -> assertThat(userProfile).usingRecursiveComparison().isEqualTo(USER_PROFILE));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateNonExistingUser_OptionalEmptyReturnedAndNothingStored() {
+        assertThat(dao.update(UserProfileFixtures.NON_EXISTING_USER_ID, userProfile -> userProfile)).isEmpty();
+        assertThat(dao.get(UserProfileFixtures.NON_EXISTING_USER_ID)).isEmpty();
+    }
+
+    @Test
+    void updateExistingUser_NewSnapshotStoredAndOldOneUnchanged() {
+        dao.put(USER_PROFILE);
+
+        var updated = dao.update(UserProfileFixtures.USER_ID, userProfile -> withProperty(userProfile, "newValue"));
+
+        assertThat(updated).hasValueSatisfying(
+                userProfile -> assertThat(userProfile.userProfileProperties()).containsEntry(PROPERTY, UserProfilePropertyValue.valueOf("newValue")));
+        assertThat(dao.get(UserProfileFixtures.USER_ID)).isEqualTo(updated);
+        assertThat(USER_PROFILE.userProfileProperties()).containsEntry(PROPERTY, UserProfilePropertyValue.valueOf("property1Value"));
+    }
+
+    @Test
+    void updateWithConcurrentWrite_UpdaterRetriedOnLatestSnapshot() {
+        dao.put(USER_PROFILE);
+        var invocations = new AtomicInteger();
+
+        var updated = dao.update(UserProfileFixtures.USER_ID, userProfile -> {
+            if (invocations.getAndIncrement() == 0) {
+                dao.put(withProperty(userProfile, "concurrentValue"));
+            }
+            return withProperty(userProfile, userProfile.userProfileProperties().get(PROPERTY).getValue() + "-updated");
+        });
+
+        assertThat(invocations).hasValue(2);
+        assertThat(updated).hasValueSatisfying(userProfile -> assertThat(userProfile.userProfileProperties()).containsEntry(PROPERTY,
+                UserProfilePropertyValue.valueOf("concurrentValue-updated")));
+    }
+
+    @Test
+    void getAll_ReturnsOnlyExistingUsers() {
+        dao.put(USER_PROFILE);
+
+        assertThat(dao.getAll(List.of(UserProfileFixtures.USER_ID, UserProfileFixtures.NON_EXISTING_USER_ID)))
+                .containsExactly(Map.entry(UserProfileFixtures.USER_ID, USER_PROFILE));
+    }
+
+    @Test
+    void putAll_StoresEveryProfile() {
+        var other = new UserProfile(UserProfileFixtures.NON_EXISTING_USER_ID, null, Map.of());
+
+        dao.putAll(List.of(USER_PROFILE, other));
+
+        assertThat(dao.get(UserProfileFixtures.USER_ID)).contains(USER_PROFILE);
+        assertThat(dao.get(UserProfileFixtures.NON_EXISTING_USER_ID)).contains(other);
+    }
+
+    @Test
+    void forEach_VisitsAllProfiles() {
+        dao.put(USER_PROFILE);
+        var other = new UserProfile(UserProfileFixtures.NON_EXISTING_USER_ID, null, Map.of());
+        dao.put(other);
+        List<UserProfile> visited = new ArrayList<>();
+
+        dao.forEach(visited::add);
+
+        assertThat(visited).containsExactlyInAnyOrder(USER_PROFILE, other);
+    }
+
+    @Test
+    void writes_SizeAndRetainedBytesFollowStoredProfiles() {
+        var inMemory = new UserProfileDaoInMemory();
+        var other = new UserProfile(UserProfileFixtures.NON_EXISTING_USER_ID, null, Map.of());
+
+        inMemory.putAll(List.of(USER_PROFILE, other));
+        long bothStored = inMemory.retainedBytes();
+        inMemory.update(UserProfileFixtures.USER_ID, userProfile -> withProperty(userProfile, "a-considerably-longer-value"));
+
+        assertThat(inMemory.size()).isEqualTo(2);
+        assertThat(bothStored).isEqualTo(
+                UserProfileFootprint.estimateBytes(USER_PROFILE) + UserProfileFootprint.estimateBytes(other) + 2 * 64);
+        assertThat(inMemory.retainedBytes() - bothStored).isEqualTo(
+                "a-considerably-longer-value".length() - "property1Value".length());
+    }
+
+    private static UserProfile withProperty(UserProfile userProfile, String value) {
+        return userProfile.withUserProfileProperties(Map.of(PROPERTY, UserProfilePropertyValue.valueOf(value)));
+    }
+}
@@ -0,0 +1,186 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.writebehind.UserProfileDaoWriteBehind;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_ID;
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class UserProfileDaoCachedTest {
+    private static final UserProfilePropertyName PROPERTY = UserProfilePropertyName.valueOf("property1");
+
+    private final UserProfileDao delegate = spy(new UserProfileDaoInMemory());
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final UserProfileDaoCached dao = new UserProfileDaoCached(delegate, 1 << 20, metrics, Runnable::run);
+
+    @Test
+    void getRepeatedly_LoadedFromDelegateOnce() {
+        delegate.put(USER_PROFILE);
+
+        assertThat(dao.get(USER_ID)).contains(USER_PROFILE);
+        assertThat(dao.get(USER_ID)).contains(USER_PROFILE);
+
+        verify(delegate, times(1)).get(USER_ID);
+        assertThat(gauge("hits")).isEqualTo(1L);
+        assertThat(gauge("misses")).isEqualTo(1L);
+        assertThat(gauge("size")).isEqualTo(1L);
+    }
+
+    @Test
+    void getNonExistingUser_NotCached() {
+        assertThat(dao.get(UserProfileFixtures.NON_EXISTING_USER_ID)).isEmpty();
+        delegate.put(new UserProfile(UserProfileFixtures.NON_EXISTING_USER_ID, null, Map.of()));
+
+        assertThat(dao.get(UserProfileFixtures.NON_EXISTING_USER_ID)).isPresent();
+    }
+
+    @Test
+    void put_WrittenThroughAndServedFromCache() {
+        dao.put(USER_PROFILE);
+
+        assertThat(delegate.get(USER_ID)).contains(USER_PROFILE);
+        assertThat(dao.get(USER_ID)).contains(USER_PROFILE);
+        verify(delegate, times(1)).get(USER_ID);
+    }
+
+    @Test
+    void putOverWriteBehind_ServedFromCacheAndWrittenBackOnFlush() {
+        var writeBehind = new UserProfileDaoWriteBehind(delegate, Duration.ofHours(1), 100, 100);
+        var writeBehindDao = new UserProfileDaoCached(writeBehind, 1 << 20, new MetricRegistry(), Runnable::run);
+
+        writeBehindDao.put(USER_PROFILE);
+
+        assertThat(writeBehindDao.get(USER_ID)).contains(USER_PROFILE);
+        verifyNoInteractions(delegate);
+        writeBehind.flush();
+        assertThat(delegate.get(USER_ID)).contains(USER_PROFILE);
+    }
+
+    @Test
+    void update_AppliedToCachedProfileAndWrittenThrough() {
+        dao.put(USER_PROFILE);
+
+        var updated = dao.update(USER_ID, userProfile -> withProperty(userProfile, "newValue"));
+
+        assertThat(updated).contains(withProperty(USER_PROFILE, "newValue"));
+        assertThat(dao.get(USER_ID)).isEqualTo(updated);
+        assertThat(delegate.get(USER_ID)).isEqualTo(updated);
+        verify(delegate, times(1)).get(USER_ID);
+    }
+
+    @Test
+    void putAll_WrittenThroughAndCached() {
+        dao.put(USER_PROFILE);
+        var updated = withProperty(USER_PROFILE, "newValue");
+        var other = profile(1);
+
+        dao.putAll(List.of(updated, other));
+
+        assertThat(delegate.get(USER_ID)).contains(updated);
+        assertThat(dao.get(USER_ID)).contains(updated);
+        assertThat(dao.get(other.userId())).contains(other);
+        verify(delegate, times(1)).get(USER_ID);
+        verify(delegate, never()).get(other.userId());
+    }
+
+    @Test
+    void getAll_ServesCachedUsersAndLoadsMissingOnesInOneCall() {
+        var other = profile(1);
+        dao.put(USER_PROFILE);
+        delegate.put(other);
+        var userIds = List.of(USER_ID, other.userId(), UserProfileFixtures.NON_EXISTING_USER_ID);
+
+        assertThat(dao.getAll(userIds)).containsOnly(Map.entry(USER_ID, USER_PROFILE), Map.entry(other.userId(), other));
+
+        verify(delegate, times(1)).getAll(List.of(other.userId(), UserProfileFixtures.NON_EXISTING_USER_ID));
+        assertThat(dao.get(other.userId())).contains(other);
+        verify(delegate, never()).get(other.userId());
+    }
+
+    @Test
+    void updateNonExistingUser_OptionalEmptyReturnedAndNothingStored() {
+        assertThat(dao.update(UserProfileFixtures.NON_EXISTING_USER_ID, userProfile -> userProfile)).isEmpty();
+        assertThat(delegate.get(UserProfileFixtures.NON_EXISTING_USER_ID)).isEmpty();
+    }
+
+    @Test
+    void moreProfilesThanFit_EvictedFromCacheButKeptInDelegate() {
+        int profileWeight = UserProfileDaoCached.weigh(profile(0));
+        var smallDao = new UserProfileDaoCached(delegate, 10L * profileWeight, new MetricRegistry(), Runnable::run);
+        var profiles = IntStream.range(0, 100).mapToObj(UserProfileDaoCachedTest::profile).toList();
+
+        profiles.forEach(smallDao::put);
+
+        profiles.forEach(profile -> assertThat(smallDao.get(profile.userId())).contains(profile));
+        assertThat(delegate.get(profiles.get(0).userId())).contains(profiles.get(0));
+    }
+
+    @Test
+    void evictions_ReportedInMetrics() {
+        int profileWeight = UserProfileDaoCached.weigh(profile(0));
+        var smallMetrics = new MetricRegistry();
+        var smallDao = new UserProfileDaoCached(delegate, 10L * profileWeight, smallMetrics, Runnable::run);
+
+        IntStream.range(0, 100).mapToObj(UserProfileDaoCachedTest::profile).forEach(smallDao::put);
+
+        assertThat((Long) smallMetrics.getGauges().get(MetricRegistry.name(UserProfileDaoCached.class, "evictions")).getValue())
+                .isPositive();
+        assertThat((Long) smallMetrics.getGauges().get(MetricRegistry.name(UserProfileDaoCached.class, "weight")).getValue())
+                .isLessThanOrEqualTo(10L * profileWeight);
+    }
+
+    @Test
+    void weigh_GrowsWithListSize() {
+        var shortList = withList(USER_PROFILE, List.of(1));
+        var longList = withList(USER_PROFILE, IntStream.range(0, 100).boxed().toList());
+
+        assertThat(UserProfileDaoCached.weigh(longList)).isGreaterThan(UserProfileDaoCached.weigh(shortList));
+    }
+
+    @Test
+    void forEach_DelegatedToBackend() {
+        delegate.put(USER_PROFILE);
+        List<UserProfile> visited = new ArrayList<>();
+
+        dao.forEach(visited::add);
+
+        assertThat(visited).containsExactly(USER_PROFILE);
+    }
+
+    private Object gauge(String name) {
+        return metrics.getGauges().get(MetricRegistry.name(UserProfileDaoCached.class, name)).getValue();
+    }
+
+    private static UserProfile profile(int index) {
+        return withProperty(new UserProfile(UserId.valueOf("user-" + index), null, Map.of()), "value");
+    }
+
+    private static UserProfile withProperty(UserProfile userProfile, String value) {
+        return userProfile.withUserProfileProperties(Map.of(PROPERTY, UserProfilePropertyValue.valueOf(value)));
+    }
+
+    private static UserProfile withList(UserProfile userProfile, List<?> list) {
+        return userProfile.withUserProfileProperties(Map.of(PROPERTY, UserProfilePropertyValue.valueOf(list)));
+    }
+}
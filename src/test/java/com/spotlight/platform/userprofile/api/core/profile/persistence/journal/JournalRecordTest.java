@@ -0,0 +1,102 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalRecordTest {
+    private static final UserProfilePropertyName LIST = UserProfilePropertyName.valueOf("list");
+    private static final UserProfilePropertyName COUNTER = UserProfilePropertyName.valueOf("counter");
+    private static final UserProfilePropertyName PROPERTY = UserProfilePropertyName.valueOf("property1");
+
+    @Test
+    void put_ReplacesStoredProfile() {
+        var record = roundTrip(JournalRecord.put(USER_PROFILE));
+
+        assertThat(record.userId()).isEqualTo(USER_PROFILE.userId());
+        assertThat(record.applyTo(null)).isEqualTo(USER_PROFILE);
+    }
+
+    @Test
+    void diffOfSameProfile_IsEmpty() {
+        assertThat(JournalRecord.diff(USER_PROFILE, USER_PROFILE)).isEmpty();
+    }
+
+    @Test
+    void diff_AppliedToPreviousProfile_ProducesUpdatedProfile() {
+        var previous = with(USER_PROFILE, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of("a")), COUNTER,
+                UserProfilePropertyValue.valueOf(1L), PROPERTY, UserProfilePropertyValue.valueOf("removed")));
+        var updated = new UserProfile(USER_PROFILE.userId(), Instant.parse("2022-01-01T00:00:00Z"), Map.of(
+                LIST, previous.userProfileProperties().get(LIST).append(List.of("b", "c")),
+                COUNTER, UserProfilePropertyValue.valueOf(2L)));
+
+        var record = roundTrip(JournalRecord.diff(previous, updated).orElseThrow());
+
+        assertThat(record.applyTo(previous)).isEqualTo(updated);
+    }
+
+    @Test
+    void append_AppliedTwice_IsIdempotent() {
+        var previous = with(USER_PROFILE, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of("a"))));
+        var updated = with(previous, Map.of(LIST, previous.userProfileProperties().get(LIST).append(List.of("b", "c"))));
+        var record = roundTrip(JournalRecord.diff(previous, updated).orElseThrow());
+        var partiallyApplied = with(previous, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of("a", "b"))));
+
+        assertThat(record.applyTo(record.applyTo(previous))).isEqualTo(updated);
+        assertThat(record.applyTo(partiallyApplied)).isEqualTo(updated);
+    }
+
+    @Test
+    void append_ToReplacedValue_IsSkipped() {
+        var previous = with(USER_PROFILE, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of("a", "b"))));
+        var updated = with(previous, Map.of(LIST, previous.userProfileProperties().get(LIST).append(List.of("c"))));
+        var record = JournalRecord.diff(previous, updated).orElseThrow();
+        var replacedWithShorterList = with(previous, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of("x"))));
+        var replacedWithString = with(previous, Map.of(LIST, UserProfilePropertyValue.valueOf("x")));
+
+        assertThat(record.applyTo(replacedWithShorterList)).isEqualTo(replacedWithShorterList);
+        assertThat(record.applyTo(replacedWithString)).isEqualTo(replacedWithString);
+    }
+
+    @Test
+    void listNotDerivedByAppending_IsStoredWhole() {
+        var previous = with(USER_PROFILE, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of("a"))));
+        var updated = with(previous, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of("a", "b"))));
+        var record = roundTrip(JournalRecord.diff(previous, updated).orElseThrow());
+
+        assertThat(record.applyTo(with(previous, Map.of(LIST, UserProfilePropertyValue.valueOf("x"))))).isEqualTo(updated);
+    }
+
+    @Test
+    void update_AppliedToMissingProfile_CreatesProfile() {
+        var updated = with(USER_PROFILE, Map.of(COUNTER, UserProfilePropertyValue.valueOf(5L)));
+        var record = JournalRecord.diff(USER_PROFILE, updated).orElseThrow();
+
+        assertThat(record.applyTo(null)).isEqualTo(updated);
+    }
+
+    @Test
+    void decodeUnknownRecord_ThrowsException() {
+        assertThatThrownBy(() -> JournalRecord.decode(new byte[]{42})).isInstanceOf(UncheckedIOException.class);
+    }
+
+    private static JournalRecord roundTrip(JournalRecord record) {
+        return JournalRecord.decode(record.encode());
+    }
+
+    private static UserProfile with(UserProfile userProfile, Map<UserProfilePropertyName, UserProfilePropertyValue> properties) {
+        return userProfile.withUserProfileProperties(new HashMap<>(properties));
+    }
+}
@@ -0,0 +1,228 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.mapped.UserProfileDaoMapped;
+import com.spotlight.platform.userprofile.api.model.configuration.JournalConfiguration.SyncMode;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_ID;
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserProfileDaoJournaledTest {
+    private static final UserProfilePropertyName LIST = UserProfilePropertyName.valueOf("list");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restart_RestoresPutAndUpdatedProfiles() throws Exception {
+        var dao = startedDao();
+        dao.put(USER_PROFILE);
+        dao.put(withList(USER_PROFILE, List.of("a")));
+        for (int i = 0; i < 100; i++) {
+            int item = i;
+            dao.update(USER_ID, userProfile -> append(userProfile, item));
+        }
+        var expected = dao.get(USER_ID).orElseThrow();
+        dao.stop();
+
+        var restarted = startedDao();
+
+        assertThat(restarted.get(USER_ID)).contains(expected);
+        assertThat((List<?>) expected.userProfileProperties().get(LIST).getValue()).hasSize(101);
+        restarted.stop();
+    }
+
+    @Test
+    void snapshot_TruncatesJournalAndRestartReplaysOnlyTail() throws Exception {
+        var dao = startedDao();
+        dao.put(withList(USER_PROFILE, List.of("a")));
+        for (int i = 0; i < 50; i++) {
+            int item = i;
+            dao.update(USER_ID, userProfile -> append(userProfile, item));
+        }
+        dao.snapshot();
+        dao.update(USER_ID, userProfile -> append(userProfile, 50));
+        var expected = dao.get(USER_ID).orElseThrow();
+        dao.stop();
+
+        assertThat(journal().replay(payload -> {
+        })).isEqualTo(1);
+        var restarted = startedDao();
+        assertThat(restarted.get(USER_ID)).contains(expected);
+        restarted.stop();
+    }
+
+    @Test
+    void concurrentWritesDuringSnapshot_AreNotLost() throws Exception {
+        var dao = startedDao(Duration.ofMillis(1));
+        dao.put(withList(USER_PROFILE, List.of()));
+        var writers = Executors.newFixedThreadPool(4);
+        var futures = IntStream.range(0, 2000)
+                .mapToObj(i -> writers.submit(() -> dao.update(USER_ID, userProfile -> append(userProfile, i))))
+                .toList();
+        for (var future : futures) {
+            future.get();
+        }
+        writers.shutdown();
+        dao.snapshot();
+        var expected = dao.get(USER_ID).orElseThrow();
+        dao.stop();
+
+        var restarted = startedDao();
+        assertThat(restarted.get(USER_ID)).contains(expected);
+        assertThat((List<?>) expected.userProfileProperties().get(LIST).getValue()).hasSize(2000);
+        restarted.stop();
+    }
+
+    @Test
+    void updateNonExistingUser_NothingJournaled() throws Exception {
+        var dao = startedDao();
+
+        assertThat(dao.update(UserProfileFixtures.NON_EXISTING_USER_ID, userProfile -> userProfile)).isEmpty();
+        assertThat(dao.update(UserProfileFixtures.NON_EXISTING_USER_ID, userProfile -> userProfile)).isEmpty();
+        dao.put(USER_PROFILE);
+        assertThat(dao.update(USER_ID, userProfile -> userProfile)).contains(USER_PROFILE);
+        dao.stop();
+
+        assertThat(journal().replay(payload -> {
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void writeAfterStop_ThrowsException() throws Exception {
+        var dao = startedDao();
+        dao.stop();
+
+        assertThatThrownBy(() -> dao.put(USER_PROFILE)).isInstanceOf(IllegalStateException.class);
+        assertThat(dao.get(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void writesDeferringDurability_VisibleOnReturnAndRefusedRightAwayAfterStop() throws Exception {
+        var dao = startedDao();
+        var updatedProfile = withList(USER_PROFILE, List.of("a"));
+
+        var put = dao.putAllDeferringDurability(List.of(USER_PROFILE));
+        assertThat(dao.get(USER_ID)).contains(USER_PROFILE);
+        assertThat(put).succeedsWithin(Duration.ofSeconds(10));
+        assertThat(dao.updateDeferringDurability(USER_ID, userProfile -> updatedProfile)).succeedsWithin(Duration.ofSeconds(10))
+                .isEqualTo(Optional.of(updatedProfile));
+        dao.stop();
+
+        assertThat(dao.putAllDeferringDurability(List.of(USER_PROFILE))).isCompletedExceptionally();
+        assertThat(dao.updateDeferringDurability(USER_ID, userProfile -> USER_PROFILE)).isCompletedExceptionally();
+        assertThat(dao.get(USER_ID)).contains(updatedProfile);
+    }
+
+    @Test
+    void putAll_StoredAndRestoredOnRestart() throws Exception {
+        var profiles = IntStream.range(0, 50)
+                .mapToObj(i -> new UserProfile(UserId.valueOf("user-" + i), null, Map.of(LIST, UserProfilePropertyValue.valueOf(List.of(i)))))
+                .toList();
+        var dao = startedDao();
+        dao.putAll(profiles);
+        profiles.forEach(profile -> assertThat(dao.get(profile.userId())).contains(profile));
+        dao.stop();
+
+        var restarted = startedDao();
+        profiles.forEach(profile -> assertThat(restarted.get(profile.userId())).contains(profile));
+        restarted.stop();
+    }
+
+    @Test
+    void putAllOfChangedProfiles_JournalsOnlyTheDifference() throws Exception {
+        var dao = startedDao();
+        dao.put(withList(USER_PROFILE, IntStream.range(0, 1000).boxed().toList()));
+        var current = dao.getAll(List.of(USER_ID)).get(USER_ID);
+        var other = new UserProfile(UserId.valueOf("other"), null, Map.of());
+        dao.putAll(List.of(append(current, 1000), other));
+        dao.putAll(List.of(dao.get(USER_ID).orElseThrow()));
+        var expected = dao.get(USER_ID).orElseThrow();
+        dao.stop();
+
+        List<Integer> recordSizes = new ArrayList<>();
+        assertThat(journal().replay(payload -> recordSizes.add(payload.length))).isEqualTo(3);
+        assertThat(recordSizes.get(1)).isLessThan(recordSizes.get(0) / 10);
+        var restarted = startedDao();
+        assertThat(restarted.get(USER_ID)).contains(expected);
+        assertThat(restarted.get(other.userId())).contains(other);
+        restarted.stop();
+    }
+
+    @Test
+    void mappedDelegate_IsStartedAndRestoredOnRestart() throws Exception {
+        var dao = new UserProfileDaoJournaled(mappedDao(), journal(), new UserProfileSnapshotStore(directory), Duration.ofHours(1));
+        dao.start();
+        dao.put(withList(USER_PROFILE, List.of("a")));
+        dao.update(USER_ID, userProfile -> append(userProfile, 1));
+        dao.stop();
+
+        var restarted = new UserProfileDaoJournaled(mappedDao(), journal(), new UserProfileSnapshotStore(directory), Duration.ofHours(1));
+        restarted.start();
+        assertThat(restarted.get(USER_ID)).contains(append(withList(USER_PROFILE, List.of("a")), 1));
+        restarted.stop();
+    }
+
+    @Test
+    void journalInUnwritableDirectory_FailsStart() throws IOException {
+        var file = Files.createFile(directory.resolve("file"));
+        var dao = new UserProfileDaoJournaled(new UserProfileDaoInMemory(),
+                new UserProfileJournal(file, SyncMode.BATCH, Duration.ofMillis(1), 16, 1024), new UserProfileSnapshotStore(file),
+                Duration.ofHours(1));
+
+        assertThatThrownBy(dao::start).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> dao.put(USER_PROFILE)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private UserProfileDaoJournaled startedDao() throws Exception {
+        return startedDao(Duration.ofHours(1));
+    }
+
+    private UserProfileDaoJournaled startedDao(Duration snapshotInterval) throws Exception {
+        var dao = new UserProfileDaoJournaled(new UserProfileDaoInMemory(), journal(), new UserProfileSnapshotStore(directory), snapshotInterval);
+        dao.start();
+        return dao;
+    }
+
+    private UserProfileDaoMapped mappedDao() {
+        return new UserProfileDaoMapped(directory.resolve("profiles"), 1 << 20, 16);
+    }
+
+    private UserProfileJournal journal() {
+        return new UserProfileJournal(directory, SyncMode.BATCH, Duration.ofMillis(1), 16, 1024);
+    }
+
+    private static UserProfile withList(UserProfile userProfile, List<?> list) {
+        var properties = new HashMap<>(userProfile.userProfileProperties());
+        properties.put(LIST, UserProfilePropertyValue.valueOf(list));
+        return userProfile.withUserProfileProperties(properties);
+    }
+
+    private static UserProfile append(UserProfile userProfile, int item) {
+        var properties = new HashMap<>(userProfile.userProfileProperties());
+        properties.put(LIST, properties.get(LIST).append(List.of(item)));
+        return userProfile.withUserProfileProperties(properties);
+    }
+}
@@ -0,0 +1,170 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.model.configuration.JournalConfiguration.SyncMode;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserProfileJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedEntriesWithBatchSync_AreReplayedInOrder() throws Exception {
+        appendAndReplay(SyncMode.BATCH);
+    }
+
+    @Test
+    void appendedEntriesWithIntervalSync_AreReplayedInOrder() throws Exception {
+        appendAndReplay(SyncMode.INTERVAL);
+    }
+
+    @Test
+    void fullSegment_RollsToNextSegment() throws Exception {
+        var journal = openJournal(64);
+        for (int i = 0; i < 20; i++) {
+            journal.append(payload(i)).join();
+        }
+        journal.close();
+
+        assertThat(segments()).hasSizeGreaterThan(1);
+        assertThat(replay(journal(SyncMode.BATCH, 64))).hasSize(20);
+    }
+
+    @Test
+    void tornTail_IsTruncatedAndAppendingContinues() throws Exception {
+        var journal = openJournal(1024);
+        journal.append(payload(1)).join();
+        journal.append(payload(2)).join();
+        journal.close();
+        var segment = segments().get(0);
+        try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        var reopened = journal(SyncMode.BATCH, 1024);
+        assertThat(replay(reopened)).containsExactly("1");
+        reopened.open();
+        reopened.append(payload(3)).join();
+        reopened.close();
+
+        assertThat(replay(journal(SyncMode.BATCH, 1024))).containsExactly("1", "3");
+    }
+
+    @Test
+    void corruptedEntryBeforeLastSegment_FailsReplay() throws Exception {
+        var journal = openJournal(16);
+        journal.append(payload(1)).join();
+        journal.append(payload(2)).join();
+        journal.close();
+        var firstSegment = segments().get(0);
+        var bytes = Files.readAllBytes(firstSegment);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(firstSegment, bytes);
+
+        assertThatThrownBy(() -> replay(journal(SyncMode.BATCH, 16))).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void rollSegment_SeparatesEarlierAndLaterEntries() throws Exception {
+        var journal = openJournal(1024);
+        journal.append(payload(1));
+        long offset = journal.rollSegment().join();
+        assertThat(journal.append(payload(2)).join()).isGreaterThan(offset);
+        assertThat(journal.rollSegment().join()).isGreaterThan(offset);
+        journal.close();
+
+        journal.deleteSegmentsBefore(offset);
+
+        assertThat(segments()).hasSize(2);
+        assertThat(replay(journal(SyncMode.BATCH, 1024))).containsExactly("2");
+    }
+
+    @Test
+    void replayFromOffset_SkipsEarlierSegmentsAndOpensAtOffset() throws Exception {
+        var journal = openJournal(1024);
+        journal.append(payload(1)).join();
+        long offset = journal.rollSegment().join();
+        journal.close();
+        journal.deleteSegmentsBefore(offset + 1);
+
+        var reopened = journal(SyncMode.BATCH, 1024);
+        List<String> entries = new ArrayList<>();
+        reopened.replay(offset + 1, payload -> entries.add(new String(payload, StandardCharsets.UTF_8)));
+        reopened.open();
+        reopened.append(payload(2)).join();
+        reopened.close();
+
+        assertThat(entries).isEmpty();
+        assertThat(segments()).hasSize(1);
+        assertThat(replay(journal(SyncMode.BATCH, 1024))).containsExactly("2");
+    }
+
+    @Test
+    void appendToClosedJournal_Fails() throws Exception {
+        var journal = journal(SyncMode.BATCH, 1024);
+
+        assertThat(journal.append(payload(1))).isCompletedExceptionally();
+        assertThat(journal.rollSegment()).isCompletedExceptionally();
+
+        journal.open();
+        journal.close();
+        journal.close();
+
+        assertThat(journal.append(payload(1))).isCompletedExceptionally();
+    }
+
+    private void appendAndReplay(SyncMode syncMode) throws Exception {
+        var journal = journal(syncMode, 1024 * 1024);
+        journal.replay(payload -> {
+        });
+        journal.open();
+        var futures = IntStream.range(0, 1000).mapToObj(i -> journal.append(payload(i))).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+        journal.close();
+
+        assertThat(replay(journal(syncMode, 1024 * 1024))).isEqualTo(IntStream.range(0, 1000).mapToObj(Integer::toString).toList());
+    }
+
+    private UserProfileJournal openJournal(long segmentSize) throws IOException {
+        var journal = journal(SyncMode.BATCH, segmentSize);
+        journal.open();
+        return journal;
+    }
+
+    private UserProfileJournal journal(SyncMode syncMode, long segmentSize) {
+        return new UserProfileJournal(directory, syncMode, Duration.ofMillis(1), 16, segmentSize);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<String> replay(UserProfileJournal journal) throws IOException {
+        List<String> entries = new ArrayList<>();
+        journal.replay(payload -> entries.add(new String(payload, StandardCharsets.UTF_8)));
+        return entries;
+    }
+
+    private static byte[] payload(int value) {
+        return Integer.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,105 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.journal;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.LAST_UPDATE_TIMESTAMP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserProfileSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void noSnapshot_LoadsNothing() throws IOException {
+        assertThat(new UserProfileSnapshotStore(directory).load(userProfile -> {
+        })).isEmpty();
+    }
+
+    @Test
+    void writtenSnapshot_LoadsAllProfilesAndOffset() throws IOException {
+        var source = daoWithProfiles(100);
+        var store = new UserProfileSnapshotStore(directory, 64);
+
+        store.write(42, source);
+        List<UserProfile> loaded = new ArrayList<>();
+        var offset = store.load(loaded::add);
+
+        assertThat(offset).hasValue(42);
+        List<UserProfile> expected = new ArrayList<>();
+        source.forEach(expected::add);
+        assertThat(loaded).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void newSnapshot_ReplacesOlderOne() throws IOException {
+        var store = new UserProfileSnapshotStore(directory);
+
+        store.write(1, daoWithProfiles(1));
+        store.write(2, daoWithProfiles(3));
+        List<UserProfile> loaded = new ArrayList<>();
+
+        assertThat(store.load(loaded::add)).hasValue(2);
+        assertThat(loaded).hasSize(3);
+        try (var files = Files.list(directory)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void corruptedSnapshot_FailsLoad() throws IOException {
+        var store = new UserProfileSnapshotStore(directory);
+        store.write(1, daoWithProfiles(10));
+        Path snapshot;
+        try (var files = Files.list(directory)) {
+            snapshot = files.findFirst().orElseThrow();
+        }
+        var bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshot, bytes);
+
+        assertThatThrownBy(() -> store.load(userProfile -> {
+        })).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void truncatedSnapshot_FailsLoad() throws IOException {
+        var store = new UserProfileSnapshotStore(directory);
+        store.write(1, daoWithProfiles(10));
+        Path snapshot;
+        try (var files = Files.list(directory)) {
+            snapshot = files.findFirst().orElseThrow();
+        }
+        var bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 6));
+
+        assertThatThrownBy(() -> store.load(userProfile -> {
+        })).isInstanceOf(IOException.class);
+    }
+
+    private static UserProfileDaoInMemory daoWithProfiles(int count) {
+        var dao = new UserProfileDaoInMemory();
+        for (int i = 0; i < count; i++) {
+            dao.put(new UserProfile(UserId.valueOf("user" + i), LAST_UPDATE_TIMESTAMP,
+                    Map.of(UserProfilePropertyName.valueOf("count"), UserProfilePropertyValue.valueOf((long) i),
+                            UserProfilePropertyName.valueOf("list"), UserProfilePropertyValue.valueOf(List.of("a", i)))));
+        }
+        return dao;
+    }
+}
@@ -0,0 +1,189 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.mapped;
+
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_ID;
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserProfileDaoMappedTest {
+    private static final UserProfilePropertyName PROPERTY = UserProfilePropertyName.valueOf("property1");
+    private static final int SEGMENT_SIZE = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    private UserProfileDaoMapped dao;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dao = new UserProfileDaoMapped(directory, SEGMENT_SIZE, 16);
+        dao.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dao.stop();
+    }
+
+    @Test
+    void getNonExistingUser_OptionalEmptyReturned() {
+        assertThat(dao.get(UserProfileFixtures.NON_EXISTING_USER_ID)).isEmpty();
+    }
+
+    @Test
+    void putAndGetUser_ReturnsDecodedCopy() {
+        dao.put(USER_PROFILE);
+
+        assertThat(dao.get(USER_ID)).contains(USER_PROFILE);
+        assertThat(dao.get(USER_ID).orElseThrow()).isNotSameAs(dao.get(USER_ID).orElseThrow());
+        assertThat(dao.size()).isEqualTo(1);
+    }
+
+    @Test
+    void updateNonExistingUser_OptionalEmptyReturnedAndNothingStored() {
+        assertThat(dao.update(UserProfileFixtures.NON_EXISTING_USER_ID, userProfile -> userProfile)).isEmpty();
+        assertThat(dao.get(UserProfileFixtures.NON_EXISTING_USER_ID)).isEmpty();
+    }
+
+    @Test
+    void updateExistingUser_UpdatedProfileStored() {
+        dao.put(USER_PROFILE);
+
+        var updated = dao.update(USER_ID, userProfile -> withProperty(userProfile, "newValue"));
+
+        assertThat(updated).contains(withProperty(USER_PROFILE, "newValue"));
+        assertThat(dao.get(USER_ID)).isEqualTo(updated);
+    }
+
+    @Test
+    void growingAndShrinkingProfile_MovedToLargerSlotAndSmallerSlotReused() {
+        dao.put(profile("user-a", "a"));
+        long smallProfileBytes = dao.allocatedBytes();
+
+        var large = profile("user-a", "x".repeat(10_000));
+        dao.put(large);
+        assertThat(dao.get(large.userId())).contains(large);
+        long afterMove = dao.allocatedBytes();
+        assertThat(afterMove).isGreaterThan(smallProfileBytes);
+
+        dao.put(profile("user-b", "b"));
+        dao.put(profile("user-a", "small"));
+
+        assertThat(dao.allocatedBytes()).isEqualTo(afterMove);
+        assertThat(dao.get(large.userId())).contains(profile("user-a", "small"));
+        assertThat(dao.size()).isEqualTo(2);
+    }
+
+    @Test
+    void moreProfilesThanExpected_IndexGrowsAndSpillsIntoNextSegment() {
+        var profiles = IntStream.range(0, 2_000).mapToObj(i -> profile("user-" + i, "v".repeat(1_000))).toList();
+
+        profiles.forEach(dao::put);
+
+        assertThat(dao.size()).isEqualTo(profiles.size());
+        assertThat(dao.allocatedBytes()).isGreaterThan(SEGMENT_SIZE);
+        profiles.forEach(profile -> assertThat(dao.get(profile.userId())).contains(profile));
+    }
+
+    @Test
+    void expectedProfilesBeyondCapacityLimit_TableCappedAtAddressableSize() {
+        assertThat(UserProfileDaoMapped.capacityFor(100_000_000)).isEqualTo(UserProfileDaoMapped.MAX_TABLE_CAPACITY);
+        assertThat(UserProfileDaoMapped.capacityFor(Integer.MAX_VALUE)).isEqualTo(UserProfileDaoMapped.MAX_TABLE_CAPACITY);
+        assertThat((long) UserProfileDaoMapped.MAX_TABLE_CAPACITY * Long.BYTES).isLessThanOrEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void forEach_VisitsAllProfiles() {
+        var other = new UserProfile(UserProfileFixtures.NON_EXISTING_USER_ID, null, Map.of());
+        dao.put(USER_PROFILE);
+        dao.put(other);
+        List<UserProfile> visited = new ArrayList<>();
+
+        dao.forEach(visited::add);
+
+        assertThat(visited).containsExactlyInAnyOrder(USER_PROFILE, other);
+    }
+
+    @Test
+    void concurrentReadsDuringWrites_AlwaysSeeCompleteProfileOfRequestedUser() throws Exception {
+        var users = IntStream.range(0, 64).mapToObj(i -> profile("user-" + i, "0")).toList();
+        users.forEach(dao::put);
+        var executor = Executors.newFixedThreadPool(4);
+        var writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        for (UserProfile user : users) {
+                            var read = dao.get(user.userId()).orElseThrow();
+                            assertThat(read.userId()).isEqualTo(user.userId());
+                            var value = (String) read.userProfileProperties().get(PROPERTY).getValue();
+                            assertThat(value.chars().distinct()).hasSize(1);
+                        }
+                    }
+                }));
+            }
+            for (int round = 1; round < 200; round++) {
+                var value = String.valueOf((char) ('0' + round % 10)).repeat(round % 7 * 100 + 1);
+                users.forEach(user -> dao.put(withProperty(user, value)));
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void profileLargerThanSegment_Rejected() {
+        assertThatThrownBy(() -> dao.put(withProperty(USER_PROFILE, "x".repeat(SEGMENT_SIZE)))).isInstanceOf(
+                IllegalArgumentException.class);
+        assertThat(dao.get(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void stop_DeletesMappedFilesAndRejectsAccess() throws Exception {
+        dao.put(USER_PROFILE);
+        assertThat(directory.toFile().list()).isNotEmpty();
+
+        dao.stop();
+
+        assertThat(directory.toFile().list()).isEmpty();
+        assertThatThrownBy(() -> dao.get(USER_ID)).isInstanceOf(IllegalStateException.class);
+        dao.start();
+        assertThat(dao.get(USER_ID)).isEmpty();
+    }
+
+    private static UserProfile profile(String userId, String value) {
+        return withProperty(new UserProfile(UserId.valueOf(userId), null, Map.of()), value);
+    }
+
+    private static UserProfile withProperty(UserProfile userProfile, String value) {
+        return userProfile.withUserProfileProperties(Map.of(PROPERTY, UserProfilePropertyValue.valueOf(value)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import io.dropwizard.lifecycle.Managed;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_ID;
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class UserProfileDaoTimedTest {
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final UserProfileDaoTimed dao = new UserProfileDaoTimed(new UserProfileDaoInMemory(), metrics);
+
+    @Test
+    void calls_DelegatedAndTimedPerMethod() {
+        dao.put(USER_PROFILE);
+        dao.putAll(List.of(USER_PROFILE));
+
+        assertThat(dao.get(USER_ID)).contains(USER_PROFILE);
+        assertThat(dao.getAll(List.of(USER_ID, UserProfileFixtures.NON_EXISTING_USER_ID))).containsOnlyKeys(USER_ID);
+        assertThat(dao.update(USER_ID, userProfile -> userProfile)).contains(USER_PROFILE);
+        assertThat(timerCount("get")).isEqualTo(1);
+        assertThat(timerCount("getAll")).isEqualTo(1);
+        assertThat(timerCount("put")).isEqualTo(1);
+        assertThat(timerCount("putAll")).isEqualTo(1);
+        assertThat(timerCount("update")).isEqualTo(1);
+    }
+
+    @Test
+    void failedCall_Timed() {
+        var failing = mock(UserProfileDao.class);
+        when(failing.get(USER_ID)).thenThrow(new IllegalStateException("Store unavailable"));
+        var failingMetrics = new MetricRegistry();
+        var timed = new UserProfileDaoTimed(failing, failingMetrics);
+
+        assertThatThrownBy(() -> timed.get(USER_ID)).isInstanceOf(IllegalStateException.class);
+        assertThat(failingMetrics.timer(MetricRegistry.name(UserProfileDaoTimed.class, "get")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lifecycle_DelegatedToManagedDelegate() throws Exception {
+        var delegate = mock(UserProfileDao.class, withSettings().extraInterfaces(Managed.class));
+        var timed = new UserProfileDaoTimed(delegate, new MetricRegistry());
+
+        timed.start();
+        timed.stop();
+
+        verify((Managed) delegate).start();
+        verify((Managed) delegate).stop();
+    }
+
+    private long timerCount(String method) {
+        return metrics.timer(MetricRegistry.name(UserProfileDaoTimed.class, method)).getCount();
+    }
+}
@@ -0,0 +1,153 @@
+package com.spotlight.platform.userprofile.api.core.profile.persistence.writebehind;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_ID;
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserProfileDaoWriteBehindTest {
+    private static final UserProfilePropertyName COUNTER = UserProfilePropertyName.valueOf("counter");
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final UserProfileDao delegate = spy(new UserProfileDaoInMemory());
+
+    @Test
+    void manyUpdatesOfOneUser_FlushedAsSingleWriteOfLatestVersion() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 100, 1000);
+        dao.put(counter(USER_ID, 0));
+        for (int i = 0; i < 100; i++) {
+            dao.update(USER_ID, userProfile -> counter(USER_ID, userProfile.userProfileProperties().get(COUNTER).longValue() + 1));
+        }
+
+        dao.flush();
+
+        verify(delegate, times(1)).putAll(List.of(counter(USER_ID, 100)));
+        assertThat(delegate.get(USER_ID)).contains(counter(USER_ID, 100));
+        assertThat(dao.pendingProfiles()).isZero();
+    }
+
+    @Test
+    void dirtyProfile_VisibleBeforeFlush() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 100, 1000);
+
+        dao.put(USER_PROFILE);
+
+        assertThat(dao.get(USER_ID)).contains(USER_PROFILE);
+        assertThat(delegate.get(USER_ID)).isEmpty();
+        assertThat(dao.pendingProfiles()).isEqualTo(1);
+    }
+
+    @Test
+    void getAll_CombinesDirtyAndFlushedProfiles() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 100, 1000);
+        var flushed = counter(UserId.valueOf("flushed"), 1);
+        delegate.put(flushed);
+        dao.put(USER_PROFILE);
+
+        var userProfiles = dao.getAll(List.of(USER_ID, flushed.userId(), UserId.valueOf("missing")));
+
+        assertThat(userProfiles).containsOnly(Map.entry(USER_ID, USER_PROFILE), Map.entry(flushed.userId(), flushed));
+        verify(delegate, times(1)).getAll(List.of(flushed.userId(), UserId.valueOf("missing")));
+    }
+
+    @Test
+    void updateNonExistingUser_OptionalEmptyReturnedAndNothingStored() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 100, 1000);
+
+        assertThat(dao.update(USER_ID, userProfile -> userProfile)).isEmpty();
+        assertThat(dao.pendingProfiles()).isZero();
+    }
+
+    @Test
+    void flush_SplitsDirtyProfilesIntoBatches() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 2, 1000);
+        var profiles = IntStream.range(0, 5).mapToObj(i -> counter(UserId.valueOf("user-" + i), i)).toList();
+        profiles.forEach(dao::put);
+
+        dao.flush();
+
+        verify(delegate, times(3)).putAll(anyCollection());
+        profiles.forEach(profile -> assertThat(delegate.get(profile.userId())).contains(profile));
+    }
+
+    @Test
+    void tooManyPendingProfiles_WriterFlushesRightAway() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 100, 3);
+
+        IntStream.range(0, 3).forEach(i -> dao.put(counter(UserId.valueOf("user-" + i), i)));
+
+        assertThat(dao.pendingProfiles()).isZero();
+        assertThat(delegate.get(UserId.valueOf("user-2"))).contains(counter(UserId.valueOf("user-2"), 2));
+    }
+
+    @Test
+    void failedFlush_ProfilesStayDirtyForNextFlush() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 100, 1000);
+        dao.put(USER_PROFILE);
+        doThrow(new IllegalStateException("backend down")).doCallRealMethod().when(delegate).putAll(anyCollection());
+
+        assertThatThrownBy(dao::flush).isInstanceOf(IllegalStateException.class);
+        assertThat(dao.pendingProfiles()).isEqualTo(1);
+
+        dao.flush();
+        assertThat(delegate.get(USER_ID)).contains(USER_PROFILE);
+    }
+
+    @Test
+    void started_FlushesInBackgroundAndDrainsOnStop() throws Exception {
+        var dao = new UserProfileDaoWriteBehind(delegate, Duration.ofMillis(10), 100, 1000);
+        dao.start();
+        dao.put(USER_PROFILE);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (delegate.get(USER_ID).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(delegate.get(USER_ID)).contains(USER_PROFILE);
+
+        dao.put(counter(USER_ID, 1));
+        dao.stop();
+
+        assertThat(delegate.get(USER_ID)).contains(counter(USER_ID, 1));
+    }
+
+    @Test
+    void forEach_VisitsFlushedAndDirtyProfilesWithLatestVersions() {
+        var dao = new UserProfileDaoWriteBehind(delegate, NEVER, 100, 1000);
+        var other = counter(UserId.valueOf("other"), 1);
+        dao.put(counter(USER_ID, 1));
+        dao.put(other);
+        dao.flush();
+        var newUser = counter(UserId.valueOf("new"), 1);
+        dao.put(counter(USER_ID, 2));
+        dao.put(newUser);
+        List<UserProfile> visited = new ArrayList<>();
+
+        dao.forEach(visited::add);
+
+        assertThat(visited).containsExactlyInAnyOrder(counter(USER_ID, 2), other, newUser);
+    }
+
+    private static UserProfile counter(UserId userId, long value) {
+        return new UserProfile(userId, null, Map.of(COUNTER, UserProfilePropertyValue.valueOf(value)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.spotlight.platform.userprofile.api.core.server;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPoolTest {
+    private static final int TASKS = 5_000;
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final VirtualThreadPool pool = new VirtualThreadPool("test", metrics);
+
+    @Test
+    void execute_RunsTaskOnVirtualThread() throws Exception {
+        var thread = new CompletableFuture<Thread>();
+
+        pool.execute(() -> thread.complete(Thread.currentThread()));
+
+        assertThat(thread.get(10, TimeUnit.SECONDS).isVirtual()).isTrue();
+        assertThat(thread.get().getName()).startsWith("test-");
+    }
+
+    @Test
+    void blockedTasks_AllRunConcurrently() throws InterruptedException {
+        var started = new CountDownLatch(TASKS);
+        var release = new CountDownLatch(1);
+        var finished = new CountDownLatch(TASKS);
+
+        for (int i = 0; i < TASKS; i++) {
+            pool.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                finished.countDown();
+            });
+        }
+
+        assertThat(started.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.getThreads()).isEqualTo(TASKS);
+        assertThat(pool.getIdleThreads()).isZero();
+        assertThat(pool.isLowOnThreads()).isFalse();
+        assertThat(gauge("threads")).isEqualTo(TASKS);
+        release.countDown();
+        assertThat(finished.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.getPeakThreads()).isEqualTo(TASKS);
+        assertThat(gauge("peakThreads")).isEqualTo(TASKS);
+    }
+
+    @Test
+    void failingTask_NextTasksStillRun() throws Exception {
+        pool.execute(() -> {
+            throw new IllegalStateException("Request failed");
+        });
+        var next = new CompletableFuture<Boolean>();
+
+        pool.execute(() -> next.complete(true));
+
+        assertThat(next.get(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void join_ReturnsOnceStoppedAndBlocksAgainAfterRestart() throws Exception {
+        pool.start();
+        var joined = CompletableFuture.runAsync(this::joinQuietly);
+        assertThat(joined).isNotDone();
+
+        pool.stop();
+        joined.get(10, TimeUnit.SECONDS);
+
+        pool.start();
+        var joinedAgain = CompletableFuture.runAsync(this::joinQuietly);
+        assertThat(joinedAgain).isNotDone();
+        pool.stop();
+        joinedAgain.get(10, TimeUnit.SECONDS);
+    }
+
+    private Object gauge(String name) {
+        return metrics.getGauges().get(MetricRegistry.name(VirtualThreadPool.class, "test", name)).getValue();
+    }
+
+    private void joinQuietly() {
+        try {
+            pool.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
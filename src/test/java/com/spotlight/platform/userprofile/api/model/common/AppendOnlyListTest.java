@@ -0,0 +1,106 @@
+package com.spotlight.platform.userprofile.api.model.common;
+
+import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AppendOnlyListTest {
+
+    @Test
+    void appendAll_returnsNewVersionAndKeepsOldOne() {
+        var first = AppendOnlyList.copyOf(List.of("a", "b"));
+
+        var second = first.appendAll(List.of("c"));
+
+        assertThat(first).containsExactly("a", "b");
+        assertThat(second).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void appendAllToOlderVersion_doesNotAffectNewerVersion() {
+        var base = AppendOnlyList.copyOf(List.of("a"));
+        var newer = base.appendAll(List.of("b"));
+
+        var forked = base.appendAll(List.of("x", "y"));
+
+        assertThat(newer).containsExactly("a", "b");
+        assertThat(forked).containsExactly("a", "x", "y");
+        assertThat(newer.appendAll(List.of("c"))).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void manySingleAppends_spanningChunks_keepAllElements() {
+        AppendOnlyList<Integer> list = AppendOnlyList.empty();
+        for (int i = 0; i < 100_000; i++) {
+            list = list.appendAll(List.of(i));
+        }
+
+        assertThat(list).hasSize(100_000).isEqualTo(IntStream.range(0, 100_000).boxed().toList());
+    }
+
+    @Test
+    void forkInTheMiddleOfChunk_keepsSharedPrefix() {
+        var base = AppendOnlyList.copyOf(IntStream.range(0, 40).boxed().toList());
+        var newer = base.appendAll(IntStream.range(40, 100).boxed().toList());
+
+        var forked = base.appendAll(List.of(-1));
+
+        var expected = new ArrayList<>(IntStream.range(0, 40).boxed().toList());
+        expected.add(-1);
+        assertThat(forked).isEqualTo(expected);
+        assertThat(newer).isEqualTo(IntStream.range(0, 100).boxed().toList());
+    }
+
+    @Test
+    void appendEmpty_returnsSameInstance() {
+        var list = AppendOnlyList.copyOf(List.of("a"));
+
+        assertThat(list.appendAll(List.of())).isSameAs(list);
+        assertThat(AppendOnlyList.copyOf(list)).isSameAs(list);
+    }
+
+    @Test
+    void equalsAndHashCode_compatibleWithOtherLists() {
+        var list = AppendOnlyList.copyOf(List.of("a", "b"));
+
+        assertThat(list).isEqualTo(List.of("a", "b"));
+        assertThat(list.hashCode()).isEqualTo(List.of("a", "b").hashCode());
+    }
+
+    @Test
+    void list_isUnmodifiableAndBoundsChecked() {
+        var list = AppendOnlyList.copyOf(List.of("a"));
+
+        assertThatThrownBy(() -> list.add("b")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> list.set(0, "b")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> list.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void serialization_plainJsonArray() throws Exception {
+        var list = AppendOnlyList.copyOf(List.of("a")).appendAll(List.of("b"));
+
+        assertThat(JsonMapper.getInstance().writeValueAsString(list)).isEqualTo("[\"a\",\"b\"]");
+    }
+
+    @Test
+    void isPrefixOf_trueOnlyForVersionsDerivedByAppending() {
+        var base = AppendOnlyList.copyOf(List.of("a", "b"));
+        var appended = base.appendAll(List.of("c"));
+        var forked = base.appendAll(List.of("x"));
+
+        assertThat(base.isPrefixOf(appended)).isTrue();
+        assertThat(base.isPrefixOf(base)).isTrue();
+        assertThat(appended.isPrefixOf(base)).isFalse();
+        assertThat(appended.isPrefixOf(forked)).isFalse();
+        assertThat(AppendOnlyList.copyOf(List.of("a", "b")).isPrefixOf(appended)).isFalse();
+        assertThat(AppendOnlyList.empty().isPrefixOf(forked)).isTrue();
+    }
+}
@@ -0,0 +1,35 @@
+package com.spotlight.platform.userprofile.api.model.configuration;
+
+import com.spotlight.platform.userprofile.api.core.server.VirtualThreadPool;
+import com.spotlight.platform.userprofile.api.web.UserProfileApiApplication;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import io.dropwizard.setup.Environment;
+import ru.vyarus.dropwizard.guice.test.ClientSupport;
+import ru.vyarus.dropwizard.guice.test.jupiter.TestDropwizardApp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestDropwizardApp(value = UserProfileApiApplication.class, randomPorts = true,
+        configOverride = "server.type: " + VirtualThreadServerFactory.TYPE)
+class VirtualThreadServerFactoryTest {
+
+    @Test
+    void serverType_SelectsVirtualThreadServerFactory(UserProfileApiConfiguration configuration) {
+        assertThat(configuration.getServerFactory()).isExactlyInstanceOf(VirtualThreadServerFactory.class);
+    }
+
+    @Test
+    void server_RunsOnVirtualThreadPool(Environment environment) {
+        assertThat(environment.getApplicationContext().getServer().getThreadPool()).isExactlyInstanceOf(VirtualThreadPool.class);
+    }
+
+    @Test
+    void request_IsServed(ClientSupport client) {
+        var response = client.targetRest().path("/users/unknown-user/profile").request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+    }
+}
@@ -1,11 +1,20 @@
 package com.spotlight.platform.userprofile.api.model.profile;
 
-import com.spotlight.platform.helpers.FixtureHelpers;
+import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
 import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class UserProfileTest {
 
@@ -13,4 +22,50 @@ class UserProfileTest {
     void serialization_WorksAsExpected() {
         assertThatJson(UserProfileFixtures.USER_PROFILE).isEqualTo(UserProfileFixtures.SERIALIZED_USER_PROFILE);
     }
-}
\ No newline at end of file
+
+    @Test
+    void properties_AreCopiedAndUnmodifiable() {
+        Map<UserProfilePropertyName, UserProfilePropertyValue> properties = new HashMap<>();
+        properties.put(UserProfilePropertyName.valueOf("property1"), UserProfilePropertyValue.valueOf("value1"));
+        var userProfile = new UserProfile(UserProfileFixtures.USER_ID, UserProfileFixtures.LAST_UPDATE_TIMESTAMP, properties);
+
+        properties.clear();
+
+        assertThat(userProfile.userProfileProperties()).hasSize(1);
+        assertThatThrownBy(() -> userProfile.userProfileProperties().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void properties_KeepInsertionOrderInJson() throws Exception {
+        Map<UserProfilePropertyName, UserProfilePropertyValue> properties = new LinkedHashMap<>();
+        for (String name : List.of("zeta", "alpha", "mu", "beta", "omega", "gamma")) {
+            properties.put(UserProfilePropertyName.valueOf(name), UserProfilePropertyValue.valueOf(name));
+        }
+        var userProfile = new UserProfile(UserProfileFixtures.USER_ID, UserProfileFixtures.LAST_UPDATE_TIMESTAMP, properties);
+
+        assertThat(userProfile.userProfileProperties().keySet()).containsExactlyElementsOf(properties.keySet());
+        assertThat(JsonMapper.getInstance().writeValueAsString(userProfile)).contains(
+                "{\"zeta\":\"zeta\",\"alpha\":\"alpha\",\"mu\":\"mu\",\"beta\":\"beta\",\"omega\":\"omega\",\"gamma\":\"gamma\"}");
+    }
+
+    @Test
+    void nullProperties_BecomeEmpty() {
+        var userProfile = new UserProfile(UserProfileFixtures.USER_ID, UserProfileFixtures.LAST_UPDATE_TIMESTAMP, null);
+
+        assertThat(userProfile.userProfileProperties()).isEmpty();
+    }
+
+    @Test
+    void withOnlyProperties_KeepsOnlyRequestedExistingProperties() {
+        var gold = UserProfilePropertyName.valueOf("currentGold");
+        var inventory = UserProfilePropertyName.valueOf("inventory");
+        var userProfile = new UserProfile(UserProfileFixtures.USER_ID, UserProfileFixtures.LAST_UPDATE_TIMESTAMP,
+                Map.of(gold, UserProfilePropertyValue.valueOf(100), inventory, UserProfilePropertyValue.valueOf(List.of("sword", "shield"))));
+
+        var projected = userProfile.withOnlyProperties(List.of(gold, UserProfilePropertyName.valueOf("missing")));
+
+        assertThat(projected.userId()).isEqualTo(userProfile.userId());
+        assertThat(projected.latestUpdateTime()).isEqualTo(userProfile.latestUpdateTime());
+        assertThat(projected.userProfileProperties()).containsExactly(Map.entry(gold, UserProfilePropertyValue.valueOf(100)));
+    }
+}
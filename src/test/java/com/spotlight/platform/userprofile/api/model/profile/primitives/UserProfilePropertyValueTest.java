@@ -1,11 +1,15 @@
 package com.spotlight.platform.userprofile.api.model.profile.primitives;
 
+import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
+import com.spotlight.platform.userprofile.api.model.common.AppendOnlyList;
+
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class UserProfilePropertyValueTest {
     private static final String STRING_VALUE = "someString";
@@ -25,4 +29,73 @@ class UserProfilePropertyValueTest {
         assertThatJson(UserProfilePropertyValue.valueOf(INTEGER_VALUE)).isEqualTo("5");
         assertThatJson(UserProfilePropertyValue.valueOf(LIST_VALUE)).isEqualTo("[\"one\",\"two\"]");
     }
-}
\ No newline at end of file
+
+    @Test
+    void listValue_storedAsAppendOnlyList() {
+        var value = UserProfilePropertyValue.valueOf(LIST_VALUE);
+
+        assertThat(value.isList()).isTrue();
+        assertThat(value.getValue()).isInstanceOf(AppendOnlyList.class).isEqualTo(LIST_VALUE);
+        assertThat(UserProfilePropertyValue.valueOf(STRING_VALUE).isList()).isFalse();
+    }
+
+    @Test
+    void append_returnsNewValueAndKeepsOriginal() {
+        var value = UserProfilePropertyValue.valueOf(LIST_VALUE);
+
+        var appended = value.append(List.of("three"));
+
+        assertThat(appended.getValue()).isEqualTo(List.of("one", "two", "three"));
+        assertThat(value.getValue()).isEqualTo(LIST_VALUE);
+        assertThatJson(appended).isEqualTo("[\"one\",\"two\",\"three\"]");
+    }
+
+    @Test
+    void appendToNonList_throwsException() {
+        assertThatThrownBy(() -> UserProfilePropertyValue.valueOf(STRING_VALUE).append(List.of("three")))
+                .isExactlyInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void wholeNumbers_storedAsLong() {
+        var value = UserProfilePropertyValue.valueOf((Object) INTEGER_VALUE);
+
+        assertThat(value.isLong()).isTrue();
+        assertThat(value.longValue()).isEqualTo(INTEGER_VALUE);
+        assertThat(value.getValue()).isEqualTo((long) INTEGER_VALUE);
+        assertThat(value).isEqualTo(UserProfilePropertyValue.valueOf((Object) Long.valueOf(INTEGER_VALUE)));
+        assertThatJson(UserProfilePropertyValue.valueOf(Long.MAX_VALUE)).isEqualTo("9223372036854775807");
+    }
+
+    @Test
+    void floatingPointNumbers_storedAsDouble() {
+        var value = UserProfilePropertyValue.valueOf((Object) 2.5d);
+
+        assertThat(value.isNumber()).isTrue();
+        assertThat(value.isLong()).isFalse();
+        assertThat(value.doubleValue()).isEqualTo(2.5d);
+        assertThat(value).isEqualTo(UserProfilePropertyValue.valueOf(2.5d)).isNotEqualTo(UserProfilePropertyValue.valueOf(2));
+        assertThatJson(value).isEqualTo("2.5");
+    }
+
+    @Test
+    void numericAccessorsOnNonNumbers_throwException() {
+        var value = UserProfilePropertyValue.valueOf(STRING_VALUE);
+
+        assertThat(value.isNumber()).isFalse();
+        assertThatThrownBy(value::longValue).isExactlyInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(value::doubleValue).isExactlyInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> UserProfilePropertyValue.valueOf(2.5d).longValue()).isExactlyInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void deserialization_numbersAndListsGetTypedValues() throws Exception {
+        var mapper = JsonMapper.getInstance();
+
+        assertThat(mapper.readValue("5", UserProfilePropertyValue.class).isLong()).isTrue();
+        assertThat(mapper.readValue("9223372036854775807", UserProfilePropertyValue.class).longValue()).isEqualTo(Long.MAX_VALUE);
+        assertThat(mapper.readValue("1.5", UserProfilePropertyValue.class).doubleValue()).isEqualTo(1.5d);
+        assertThat(mapper.readValue("[\"one\"]", UserProfilePropertyValue.class).isList()).isTrue();
+        assertThat(mapper.readValue("\"someString\"", UserProfilePropertyValue.class).getValue()).isEqualTo(STRING_VALUE);
+    }
+}
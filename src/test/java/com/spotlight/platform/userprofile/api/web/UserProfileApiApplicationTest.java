@@ -2,7 +2,11 @@ package com.spotlight.platform.userprofile.api.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spotlight.platform.userprofile.api.core.json.JsonMapper;
+import com.spotlight.platform.userprofile.api.web.exceptionmappers.CommandQueueFullExceptionMapper;
 import com.spotlight.platform.userprofile.api.web.exceptionmappers.EntityNotFoundExceptionMapper;
+import com.spotlight.platform.userprofile.api.web.exceptionmappers.ExecutorFullExceptionMapper;
+import com.spotlight.platform.userprofile.api.web.healthchecks.BacklogHealthCheck;
+import com.spotlight.platform.userprofile.api.web.healthchecks.StoreHealthCheck;
 
 import org.junit.jupiter.api.Test;
 
@@ -24,7 +28,8 @@ class UserProfileApiApplicationTest {
 
     @Test
     void exceptionMappers_AreRegistered(Environment environment) {
-        assertThat(getRegisteredSingletonClasses(environment)).containsOnlyOnce(EntityNotFoundExceptionMapper.class);
+        assertThat(getRegisteredSingletonClasses(environment)).containsOnlyOnce(EntityNotFoundExceptionMapper.class,
+                CommandQueueFullExceptionMapper.class, ExecutorFullExceptionMapper.class);
     }
 
     @Test
@@ -32,6 +37,11 @@ class UserProfileApiApplicationTest {
         assertThat(environment.healthChecks().getNames()).contains("preventing-startup-warning-healthcheck");
     }
 
+    @Test
+    void storeAndBacklogHealthChecks_AreRegistered(Environment environment) {
+        assertThat(environment.healthChecks().getNames()).contains(StoreHealthCheck.NAME, BacklogHealthCheck.COMMAND_QUEUE);
+    }
+
     protected Set<Class<?>> getRegisteredSingletonClasses(Environment environment) {
         return environment.jersey().getResourceConfig().getSingletons().stream().map(Object::getClass).collect(Collectors.toSet());
     }
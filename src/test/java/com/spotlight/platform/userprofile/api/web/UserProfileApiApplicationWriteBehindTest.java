@@ -0,0 +1,22 @@
+package com.spotlight.platform.userprofile.api.web;
+
+import com.codahale.metrics.MetricRegistry;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.writebehind.UserProfileDaoWriteBehind;
+import com.spotlight.platform.userprofile.api.web.healthchecks.BacklogHealthCheck;
+
+import org.junit.jupiter.api.Test;
+
+import io.dropwizard.setup.Environment;
+import ru.vyarus.dropwizard.guice.test.jupiter.TestDropwizardApp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestDropwizardApp(value = UserProfileApiApplication.class, randomPorts = true, configOverride = "storage.writeBehind.enabled: true")
+class UserProfileApiApplicationWriteBehindTest {
+
+    @Test
+    void writeBehindBacklog_IsReported(Environment environment) {
+        assertThat(environment.healthChecks().getNames()).contains(BacklogHealthCheck.WRITE_BEHIND);
+        assertThat(environment.metrics().getGauges()).containsKey(MetricRegistry.name(UserProfileDaoWriteBehind.class, "pendingProfiles"));
+    }
+}
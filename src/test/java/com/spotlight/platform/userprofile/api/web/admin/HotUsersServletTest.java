@@ -0,0 +1,46 @@
+package com.spotlight.platform.userprofile.api.web.admin;
+
+import com.spotlight.platform.userprofile.api.core.command.HotUserTracker;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.web.UserProfileApiApplication;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import ru.vyarus.dropwizard.guice.test.ClientSupport;
+import ru.vyarus.dropwizard.guice.test.jupiter.TestDropwizardApp;
+
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestDropwizardApp(value = UserProfileApiApplication.class, randomPorts = true)
+class HotUsersServletTest {
+
+    @Test
+    void hotUsers_ReportedOnAdminPort(ClientSupport client, HotUserTracker hotUserTracker) {
+        for (int i = 0; i < 3; i++) {
+            hotUserTracker.record(UserId.valueOf("bot"));
+        }
+        hotUserTracker.record(UserId.valueOf("player"));
+
+        var response = client.targetAdmin(HotUsersServlet.PATH).queryParam("limit", 1).request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        assertThatJson(response.readEntity(String.class)).isEqualTo(
+                "{\"commands\":4,\"users\":[{\"userId\":\"bot\",\"commands\":3,\"maxOverestimate\":0}]}");
+    }
+
+    @Test
+    void invalidLimit_Returns400(ClientSupport client) {
+        var response = client.targetAdmin(HotUsersServlet.PATH).queryParam("limit", 0).request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void limitAboveMaximum_Returns400(ClientSupport client) {
+        var response = client.targetAdmin(HotUsersServlet.PATH).queryParam("limit", AdminParameters.MAX_LIMIT + 1).request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+}
@@ -0,0 +1,62 @@
+package com.spotlight.platform.userprofile.api.web.admin;
+
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyName;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfilePropertyValue;
+import com.spotlight.platform.userprofile.api.web.UserProfileApiApplication;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import ru.vyarus.dropwizard.guice.test.ClientSupport;
+import ru.vyarus.dropwizard.guice.test.jupiter.TestDropwizardApp;
+
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestDropwizardApp(value = UserProfileApiApplication.class, randomPorts = true)
+class LargestProfilesServletTest {
+
+    @Test
+    void largestProfiles_ReportedOnAdminPort(ClientSupport client, UserProfileDao userProfileDao) {
+        userProfileDao.put(new UserProfile(UserId.valueOf("hoarder"), null,
+                Map.of(UserProfilePropertyName.valueOf("inventory"), UserProfilePropertyValue.valueOf(List.of("a", "b", "c")))));
+        userProfileDao.put(new UserProfile(UserId.valueOf("casual"), null, Map.of()));
+
+        var response = client.targetAdmin(LargestProfilesServlet.PATH)
+                .queryParam("limit", 1)
+                .queryParam("by", "listElements")
+                .request()
+                .get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+        assertThatJson(response.readEntity(String.class)).isEqualTo(
+                "[{\"userId\":\"hoarder\",\"properties\":1,\"listElements\":3,\"estimatedBytes\":264}]");
+    }
+
+    @Test
+    void invalidLimit_Returns400(ClientSupport client) {
+        var response = client.targetAdmin(LargestProfilesServlet.PATH).queryParam("limit", "many").request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void limitAboveMaximum_Returns400(ClientSupport client) {
+        var response = client.targetAdmin(LargestProfilesServlet.PATH).queryParam("limit", Integer.MAX_VALUE).request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void unknownMeasure_Returns400(ClientSupport client) {
+        var response = client.targetAdmin(LargestProfilesServlet.PATH).queryParam("by", "weight").request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST_400);
+    }
+}
@@ -0,0 +1,57 @@
+package com.spotlight.platform.userprofile.api.web.exceptionmappers;
+
+import com.spotlight.platform.userprofile.api.core.exceptions.CommandQueueFullException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.dropwizard.testing.junit5.ResourceExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class CommandQueueFullExceptionMapperTest {
+
+    private static final ResourceExtension EXT = ResourceExtension.builder()
+            .addResource(new MockResource())
+            .setRegisterDefaultExceptionMappers(false)
+            .addProvider(new CommandQueueFullExceptionMapper())
+            .build();
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        client = EXT.client();
+    }
+
+    @Test
+    void queueFull_ResultsIn429WithRetryAfter() {
+        Response response = client.target(MockResource.RESOURCE_URLS.THROW_EXCEPTION).request().post(Entity.json("{}"));
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.TOO_MANY_REQUESTS.getStatusCode());
+        assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER)).isEqualTo(String.valueOf(CommandQueueFullExceptionMapper.RETRY_AFTER_SECONDS));
+    }
+
+    @Path("/")
+    public static class MockResource {
+        public static class RESOURCE_URLS {
+            public static final String THROW_EXCEPTION = "/throwCommandQueueFullException";
+        }
+
+        @POST
+        @Path(RESOURCE_URLS.THROW_EXCEPTION)
+        public void throwException() {
+            throw new CommandQueueFullException();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.spotlight.platform.userprofile.api.web.healthchecks;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BacklogHealthCheckTest {
+
+    @Test
+    void backlogAtLimit_Healthy() {
+        var result = new BacklogHealthCheck(() -> 10, 10).check();
+
+        assertThat(result.isHealthy()).isTrue();
+        assertThat(result.getDetails()).containsEntry("backlog", 10L).containsEntry("limit", 10L);
+    }
+
+    @Test
+    void backlogAboveLimit_Unhealthy() {
+        var result = new BacklogHealthCheck(() -> 11, 10).check();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("11 waiting, more than 10");
+    }
+}
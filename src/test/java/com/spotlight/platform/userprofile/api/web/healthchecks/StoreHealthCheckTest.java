@@ -0,0 +1,96 @@
+package com.spotlight.platform.userprofile.api.web.healthchecks;
+
+import com.spotlight.platform.userprofile.api.core.command.UserVersionIndex;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDaoInMemory;
+import com.spotlight.platform.userprofile.api.core.profile.persistence.mapped.UserProfileDaoMapped;
+import com.spotlight.platform.userprofile.api.model.configuration.HealthConfiguration;
+import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
+import com.spotlight.platform.userprofile.api.model.profile.primitives.UserId;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.spotlight.platform.userprofile.api.model.profile.primitives.UserProfileFixtures.USER_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoreHealthCheckTest {
+    private final UserProfileDaoInMemory store = new UserProfileDaoInMemory();
+
+    @Test
+    void withinLimits_HealthyWithDetails() {
+        store.put(USER_PROFILE);
+
+        var result = new StoreHealthCheck(store, 2, 1_000_000).check();
+
+        assertThat(result.isHealthy()).isTrue();
+        assertThat(result.getDetails()).containsEntry("profiles", 1)
+                .containsEntry("maxProfiles", 2L)
+                .containsEntry("retainedBytes", store.retainedBytes())
+                .containsEntry("maxRetainedBytes", 1_000_000L);
+    }
+
+    @Test
+    void tooManyProfiles_Unhealthy() {
+        store.put(USER_PROFILE);
+        store.put(new UserProfile(UserId.valueOf("other-user-id"), null, Map.of()));
+
+        var result = new StoreHealthCheck(store, 1, 1_000_000).check();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Store holds 2 profiles, more than 1");
+    }
+
+    @Test
+    void tooManyRetainedBytes_Unhealthy() {
+        store.put(USER_PROFILE);
+
+        var result = new StoreHealthCheck(store, 2, store.retainedBytes() - 1).check();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).startsWith("Store retains about");
+    }
+
+    @Test
+    void configuredLimits_ShareOfMaxHeap() {
+        var result = new StoreHealthCheck(store, new UserVersionIndex(), new HealthConfiguration()).check();
+
+        assertThat(result.isHealthy()).isTrue();
+        assertThat(result.getDetails()).containsEntry("maxProfiles", 50_000_000L)
+                .containsEntry("maxRetainedBytes", (long) (Runtime.getRuntime().maxMemory() * 0.7));
+    }
+
+    @Test
+    void versionsOfChangedUsers_CountedInRetainedBytes() {
+        var versionIndex = new UserVersionIndex();
+        store.put(USER_PROFILE);
+        versionIndex.publish(USER_PROFILE.userId(), 1);
+
+        var result = new StoreHealthCheck(store, versionIndex, new HealthConfiguration()).check();
+
+        assertThat(result.getDetails()).containsEntry("retainedBytes", store.retainedBytes() + versionIndex.retainedBytes());
+    }
+
+    @Test
+    void tooManyAllocatedBytes_Unhealthy() {
+        var result = new StoreHealthCheck(() -> 1, 2, StoreHealthCheck.Footprint.ALLOCATED, () -> 4096L, 1024).check();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Store has allocated 4096 mapped bytes, more than 1024");
+        assertThat(result.getDetails()).containsEntry("allocatedBytes", 4096L).containsEntry("maxAllocatedBytes", 1024L);
+    }
+
+    @Test
+    void mappedStore_ConfiguredMappedSize(@TempDir Path directory) {
+        var mappedStore = new UserProfileDaoMapped(directory, 1 << 20, 16);
+
+        var result = new StoreHealthCheck(mappedStore, new HealthConfiguration()).check();
+
+        assertThat(result.isHealthy()).isTrue();
+        assertThat(result.getDetails()).containsEntry("profiles", 0)
+                .containsEntry("allocatedBytes", 0L)
+                .containsEntry("maxAllocatedBytes", 64L << 30);
+    }
+}
@@ -7,7 +7,9 @@ import com.google.inject.Singleton;
 
 import com.spotlight.platform.userprofile.api.core.profile.persistence.UserProfileDao;
 import com.spotlight.platform.userprofile.api.model.command.Command;
+import com.spotlight.platform.userprofile.api.model.command.CommandAcceptance;
 import com.spotlight.platform.userprofile.api.model.command.CommandResult;
+import com.spotlight.platform.userprofile.api.model.command.CommandStatus;
 import com.spotlight.platform.userprofile.api.model.command.primitives.CommandResultEnum;
 import com.spotlight.platform.userprofile.api.model.command.primitives.CommandTypeEnum;
 import com.spotlight.platform.userprofile.api.model.profile.UserProfile;
@@ -26,7 +28,11 @@ import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 
 import ru.vyarus.dropwizard.guice.test.ClientSupport;
 import ru.vyarus.dropwizard.guice.test.jupiter.ext.TestDropwizardAppExtension;
@@ -37,6 +43,7 @@ import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.when;
@@ -77,6 +84,111 @@ class UserResourceIntegrationTest {
             assertThatJson(response.readEntity(UserProfile.class)).isEqualTo(UserProfileFixtures.SERIALIZED_USER_PROFILE);
         }
 
+        @Test
+        void fieldsRequested_onlyRequestedPropertiesAreReturned(ClientSupport client, UserProfileDao userProfileDao) {
+            when(userProfileDao.get(any(UserId.class))).thenReturn(Optional.of(UserProfileFixtures.USER_PROFILE));
+
+            var response = client.targetRest()
+                    .path(URL)
+                    .resolveTemplate(USER_ID_PATH_PARAM, UserProfileFixtures.USER_ID)
+                    .queryParam("fields", "unknownProperty,property1")
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThatJson(response.readEntity(String.class)).node("userProfileProperties").isEqualTo("{\"property1\":\"property1Value\"}");
+        }
+
+        @Test
+        void onlyUnknownFieldsRequested_noPropertiesAreReturned(ClientSupport client, UserProfileDao userProfileDao) {
+            when(userProfileDao.get(any(UserId.class))).thenReturn(Optional.of(UserProfileFixtures.USER_PROFILE));
+
+            var response = client.targetRest()
+                    .path(URL)
+                    .resolveTemplate(USER_ID_PATH_PARAM, UserProfileFixtures.USER_ID)
+                    .queryParam("fields", "unknownProperty")
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThatJson(response.readEntity(String.class)).node("userProfileProperties").isObject().isEmpty();
+        }
+
+        @Test
+        void minVersionReached_profileReturnedWithVersion(ClientSupport client, UserProfileDao userProfileDao) {
+            givenStoredProfile(userProfileDao, UserProfileFixtures.USER_PROFILE);
+            var commandResult = client.targetRest()
+                    .path("/users/command")
+                    .request()
+                    .post(Entity.json(UserProfileFixtures.SERIALIZED_COMMAND))
+                    .readEntity(CommandResult.class);
+
+            var response = client.targetRest()
+                    .path(URL)
+                    .resolveTemplate(USER_ID_PATH_PARAM, UserProfileFixtures.USER_ID)
+                    .queryParam("minVersion", commandResult.version())
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThat(response.getHeaderString(UserResource.PROFILE_VERSION_HEADER)).isEqualTo(String.valueOf(commandResult.version()));
+        }
+
+        @Test
+        void minVersionReachedWhileWaiting_profileReturnedOnceCommandIsProcessed(ClientSupport client, UserProfileDao userProfileDao)
+                throws Exception {
+            givenStoredProfile(userProfileDao, UserProfileFixtures.USER_PROFILE);
+            var target = client.targetRest().path(URL).resolveTemplate(USER_ID_PATH_PARAM, UserProfileFixtures.USER_ID);
+            long currentVersion = Long.parseLong(target.request().get().getHeaderString(UserResource.PROFILE_VERSION_HEADER));
+
+            var pending = target.queryParam("minVersion", currentVersion + 1).request().async().get();
+            var commandResult = client.targetRest()
+                    .path("/users/command")
+                    .request()
+                    .post(Entity.json(UserProfileFixtures.SERIALIZED_COMMAND))
+                    .readEntity(CommandResult.class);
+            var response = pending.get(10, TimeUnit.SECONDS);
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThat(Long.parseLong(response.getHeaderString(UserResource.PROFILE_VERSION_HEADER)))
+                    .isGreaterThan(currentVersion)
+                    .isLessThanOrEqualTo(commandResult.version());
+        }
+
+        @Test
+        void minVersionNotReached_currentProfileReturnedAfterTimeout(ClientSupport client, UserProfileDao userProfileDao) {
+            when(userProfileDao.get(any(UserId.class))).thenReturn(Optional.of(UserProfileFixtures.USER_PROFILE));
+
+            var response = client.targetRest()
+                    .path(URL)
+                    .resolveTemplate(USER_ID_PATH_PARAM, UserProfileFixtures.NON_EXISTING_USER_ID)
+                    .queryParam("minVersion", 1)
+                    .queryParam("timeoutMillis", 10)
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThat(response.getHeaderString(UserResource.PROFILE_VERSION_HEADER)).isEqualTo("0");
+        }
+
+        @Test
+        void nonExistingUserWithMinVersion_returns404WithoutWaiting(ClientSupport client, UserProfileDao userProfileDao)
+                throws Exception {
+            when(userProfileDao.get(any(UserId.class))).thenReturn(Optional.empty());
+
+            var response = client.targetRest()
+                    .path(URL)
+                    .resolveTemplate(USER_ID_PATH_PARAM, UserProfileFixtures.NON_EXISTING_USER_ID)
+                    .queryParam("minVersion", 1)
+                    .queryParam("timeoutMillis", UserResource.MAX_WAIT_MILLIS)
+                    .request()
+                    .async()
+                    .get()
+                    .get(5, TimeUnit.SECONDS);
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+        }
+
         @Test
         void nonExistingUser_returns404(ClientSupport client, UserProfileDao userProfileDao) {
             when(userProfileDao.get(any(UserId.class))).thenReturn(Optional.empty());
@@ -107,6 +219,56 @@ class UserResourceIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("getUserProfiles")
+    class GetUserProfiles {
+        private static final String URL = "/users/profiles";
+
+        @Test
+        void existingAndNonExistingUsers_onlyExistingAreReturned(ClientSupport client, UserProfileDao userProfileDao) {
+            when(userProfileDao.getAll(anyCollection())).thenReturn(Map.of(UserProfileFixtures.USER_ID, UserProfileFixtures.USER_PROFILE));
+
+            var response = client.targetRest()
+                    .path(URL)
+                    .request()
+                    .post(Entity.json(List.of(UserProfileFixtures.USER_ID, UserProfileFixtures.NON_EXISTING_USER_ID)));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThatJson(response.readEntity(String.class)).isEqualTo("[" + UserProfileFixtures.SERIALIZED_USER_PROFILE + "]");
+        }
+
+        @Test
+        void fieldsRequested_onlyRequestedPropertiesAreReturned(ClientSupport client, UserProfileDao userProfileDao) {
+            when(userProfileDao.getAll(anyCollection())).thenReturn(Map.of(UserProfileFixtures.USER_ID, UserProfileFixtures.USER_PROFILE));
+
+            var response = client.targetRest()
+                    .path(URL)
+                    .queryParam("fields", "unknownProperty")
+                    .request()
+                    .post(Entity.json(List.of(UserProfileFixtures.USER_ID)));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThatJson(response.readEntity(String.class)).node("[0].userProfileProperties").isObject().isEmpty();
+        }
+
+        @Test
+        void noExistingUsers_returnsEmptyArray(ClientSupport client, UserProfileDao userProfileDao) {
+            when(userProfileDao.getAll(anyCollection())).thenReturn(Map.of());
+
+            var response = client.targetRest().path(URL).request().post(Entity.json(List.of(UserProfileFixtures.NON_EXISTING_USER_ID)));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThatJson(response.readEntity(String.class)).isArray().isEmpty();
+        }
+
+        @Test
+        void invalidUserId_returns422(ClientSupport client) {
+            var response = client.targetRest().path(URL).request().post(Entity.json(List.of(UserProfileFixtures.INVALID_USER_ID)));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY_422);
+        }
+    }
+
     @Nested
     @DisplayName("postCommand")
     class PostCommand {
@@ -115,8 +277,7 @@ class UserResourceIntegrationTest {
 
         @Test
         void existingUserSingle_correctResponse(ClientSupport client, UserProfileDao userProfileDao) {
-            when(userProfileDao.get(any(UserId.class)))
-                    .thenReturn(Optional.of(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS));
+            givenStoredProfile(userProfileDao, UserProfileFixtures.USER_PROFILE_FOR_COMMANDS);
 
             var response = client.targetRest()
                     .path(URL_SINGLE_RESPONSE).resolveTemplate(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.userId().toString(), UserProfileFixtures.USER_PROFILE_FOR_COMMANDS)
@@ -127,10 +288,22 @@ class UserResourceIntegrationTest {
             assertEquals(CommandResultEnum.DONE, commandResult.result());
         }
 
+        @Test
+        void retriedCommand_reportedAsDuplicate(ClientSupport client, UserProfileDao userProfileDao) {
+            givenStoredProfile(userProfileDao, UserProfileFixtures.USER_PROFILE_FOR_COMMANDS);
+            var command = "{\"userId\":\"%s\",\"type\":\"replace\",\"properties\":{\"currentGold\":500},\"commandId\":\"%s\"}"
+                    .formatted(UserProfileFixtures.USER_ID, UUID.randomUUID());
+
+            var first = client.targetRest().path(URL_SINGLE_RESPONSE).request().post(Entity.json(command)).readEntity(CommandResult.class);
+            var retry = client.targetRest().path(URL_SINGLE_RESPONSE).request().post(Entity.json(command)).readEntity(CommandResult.class);
+
+            assertEquals(CommandResultEnum.DONE, first.result());
+            assertEquals(CommandResultEnum.DUPLICATE, retry.result());
+        }
+
         @Test
         void existingUserBatch_correctResponse(ClientSupport client, UserProfileDao userProfileDao) {
-            when(userProfileDao.get(any(UserId.class)))
-                    .thenReturn(Optional.of(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS));
+            givenStoredProfile(userProfileDao, UserProfileFixtures.USER_PROFILE_FOR_COMMANDS);
 
             var response = client.targetRest()
                     .path(URL_BATCH_RESPONSE).resolveTemplate(UserProfileFixtures.USER_PROFILE_FOR_COMMANDS.userId().toString(), UserProfileFixtures.USER_PROFILE_FOR_COMMANDS)
@@ -139,6 +312,80 @@ class UserResourceIntegrationTest {
             assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
         }
 
+        @Test
+        void nonExistingUserBatch_returns404(ClientSupport client) {
+            var response = client.targetRest()
+                    .path(URL_BATCH_RESPONSE)
+                    .request()
+                    .post(Entity.json(UserProfileFixtures.SERIALIZED_COMMAND_BATCH));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+        }
+
+        @Test
+        void commandStream_resultPerLine(ClientSupport client, UserProfileDao userProfileDao) {
+            when(userProfileDao.getAll(anyCollection()))
+                    .thenReturn(Map.of(UserProfileFixtures.USER_ID, UserProfileFixtures.USER_PROFILE_FOR_COMMANDS));
+
+            var response = client.targetRest()
+                    .path("/users/command-stream")
+                    .request(UserResource.APPLICATION_NDJSON)
+                    .post(Entity.entity(UserProfileFixtures.SERIALIZED_COMMAND.replace("\n", "") + "\n"
+                            + UserProfileFixtures.SERIALIZED_COMMAND.replace("\n", "").replace(UserProfileFixtures.USER_ID.toString(),
+                            UserProfileFixtures.NON_EXISTING_USER_ID.toString()), UserResource.APPLICATION_NDJSON));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK_200);
+            var results = response.readEntity(String.class).lines().toList();
+            assertThat(results).hasSize(2);
+            assertThatJson(results.get(0)).node("result").isEqualTo("DONE");
+            assertThatJson(results.get(1)).isEqualTo("{\"result\":\"FAIL\",\"version\":0}");
+        }
+
+        @Test
+        void asyncCommand_returns202WithSequenceNumberAndStatusLocation(ClientSupport client) {
+            var response = client.targetRest()
+                    .path("/users/command-async")
+                    .request()
+                    .post(Entity.json(UserProfileFixtures.SERIALIZED_COMMAND));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.ACCEPTED_202);
+            var acceptance = response.readEntity(CommandAcceptance.class);
+            assertThat(acceptance.sequenceNumber()).isPositive();
+            assertThat(acceptance.userId()).isEqualTo(UserProfileFixtures.USER_ID);
+            assertThat(response.getLocation().getPath()).isEqualTo("/users/command-async/" + acceptance.sequenceNumber());
+
+            var status = client.targetRest().path("/users/command-async/" + acceptance.sequenceNumber()).request().get();
+            assertThat(status.getStatus()).isEqualTo(HttpStatus.OK_200);
+            assertThat(status.readEntity(CommandStatus.class).userId()).isEqualTo(UserProfileFixtures.USER_ID);
+        }
+
+        @Test
+        void asyncCommandStatusNeverAccepted_returns404(ClientSupport client) {
+            var response = client.targetRest().path("/users/command-async/" + Long.MAX_VALUE).request().get();
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND_404);
+        }
+
+        @Test
+        void asyncCommandWithoutUser_returns422(ClientSupport client) {
+            var response = client.targetRest()
+                    .path("/users/command-async")
+                    .request()
+                    .post(Entity.json("{\"type\":\"replace\",\"properties\":{}}"));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY_422);
+        }
+
+        @Test
+        void commandWithoutProperties_returns422(ClientSupport client) {
+            var response = client.targetRest()
+                    .path(URL_SINGLE_RESPONSE)
+                    .request()
+                    .post(Entity.json("{\"userId\":\"%s\",\"type\":\"replace\"}".formatted(UserProfileFixtures.USER_ID)));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY_422);
+        }
+
         @Test
         void badRequest_returns404(ClientSupport client) {
             var response = client.targetRest()
@@ -149,4 +396,13 @@ class UserResourceIntegrationTest {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Lets the mocked store hold {@code userProfile}, so commands run their updates against it.
+     */
+    private static void givenStoredProfile(UserProfileDao userProfileDao, UserProfile userProfile) {
+        when(userProfileDao.get(any(UserId.class))).thenReturn(Optional.of(userProfile));
+        when(userProfileDao.getAll(anyCollection())).thenReturn(Map.of(userProfile.userId(), userProfile));
+        when(userProfileDao.update(any(UserId.class), any())).thenAnswer(
+                invocation -> Optional.of(invocation.<UnaryOperator<UserProfile>>getArgument(1).apply(userProfile)));
+    }
+}
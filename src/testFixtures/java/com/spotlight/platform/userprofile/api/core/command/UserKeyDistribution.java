@@ -0,0 +1,46 @@
+package com.spotlight.platform.userprofile.api.core.command;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * How the users of generated commands and requests are picked out of {@code users} candidates.
+ */
+public enum UserKeyDistribution {
+    /**
+     * Every user is equally likely.
+     */
+    UNIFORM {
+        @Override
+        public IntSupplier sampler(int users, Random random) {
+            return () -> random.nextInt(users);
+        }
+    },
+    /**
+     * The k-th user is picked with a probability proportional to {@code 1 / k^0.99}, so a few hot users receive most of the commands.
+     */
+    ZIPFIAN {
+        @Override
+        public IntSupplier sampler(int users, Random random) {
+            var cumulative = new double[users];
+            double sum = 0;
+            for (int rank = 0; rank < users; rank++) {
+                sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+                cumulative[rank] = sum;
+            }
+            double total = sum;
+            return () -> {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                return Math.min(users - 1, index >= 0 ? index : -index - 1);
+            };
+        }
+    };
+
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * @return supplier of user indexes in {@code [0, users)}
+     */
+    public abstract IntSupplier sampler(int users, Random random);
+}